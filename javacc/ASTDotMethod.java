@@ -0,0 +1,34 @@
+/* Kept by hand in place of the node JJTree generates, to hold the CallSite of the call (see Parser.jjt) */
+package parser;
+
+import main.CallSite;
+
+public
+class ASTDotMethod extends SimpleNode {
+
+  // Method called, set by the semantic analysis; null for array.length
+  protected CallSite callSite;
+
+  public ASTDotMethod(int id) {
+    super(id);
+  }
+
+  public ASTDotMethod(Parser p, int id) {
+    super(p, id);
+  }
+
+  public CallSite getCallSite() { return tree == null ? callSite : tree.getCallSite(index); }
+  public void setCallSite(CallSite callSite) {
+    if (tree == null)
+      this.callSite = callSite;
+    else
+      tree.setCallSite(index, callSite);
+  }
+
+  /** Accept the visitor. **/
+  public Object jjtAccept(ParserVisitor visitor, Object data) throws Exception {
+
+    return
+    visitor.visit(this, data);
+  }
+}
@@ -0,0 +1,143 @@
+/* Kept by hand: the tree the parser returns (see Parser.jjt) */
+package parser;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import main.CallSite;
+
+/*
+ * The AST once parsing is done, as arrays indexed by node instead of one object per node.
+ *
+ * Nodes are numbered breadth first from the root, so the children of a node are consecutive and
+ * only the first one is stored. Identifiers are kept once, in names, and nodes refer to them by
+ * index. The passes still walk SimpleNodes: each one they reach is a short-lived view of the same
+ * class as the parsed node, made by node(), that reads and writes these arrays.
+ */
+public class CompactTree {
+
+  private static final int NO_NAME = -1;
+
+  private final int[] kinds;
+  private final int[] parents;
+  // Index of the first child of each node, plus one past the last node
+  private final int[] firstChildren;
+  private final int[] nameIds;
+  private final String[] names;
+  private final int[] beginLines;
+  private final int[] beginColumns;
+  private final int[] endColumns;
+
+  // Found by the semantic analysis, which may run on several threads, each on its own nodes
+  private final String[] types;
+  private final CallSite[] callSites;
+
+  // An empty node of the class of each kind, which views are copied from
+  private final SimpleNode[] prototypes = new SimpleNode[ParserTreeConstants.jjtNodeName.length];
+
+  public CompactTree(SimpleNode root) {
+    List<SimpleNode> nodes = new ArrayList<>();
+    nodes.add(root);
+    for (int i = 0; i < nodes.size(); i++) {
+      SimpleNode node = nodes.get(i);
+      for (int j = 0; j < node.jjtGetNumChildren(); j++)
+        nodes.add(node.getChild(j));
+    }
+
+    int numNodes = nodes.size();
+    this.kinds = new int[numNodes];
+    this.parents = new int[numNodes];
+    this.firstChildren = new int[numNodes + 1];
+    this.nameIds = new int[numNodes];
+    this.beginLines = new int[numNodes];
+    this.beginColumns = new int[numNodes];
+    this.endColumns = new int[numNodes];
+    this.types = new String[numNodes];
+    this.callSites = new CallSite[numNodes];
+
+    Map<String, Integer> nameIds = new HashMap<>();
+    List<String> names = new ArrayList<>();
+    int nextChild = 1;
+    this.parents[0] = -1;
+    for (int i = 0; i < numNodes; i++) {
+      SimpleNode node = nodes.get(i);
+      int kind = node.getId();
+      if (this.prototypes[kind] == null)
+        this.prototypes[kind] = node.viewOf(null, -1);
+
+      this.kinds[i] = kind;
+      this.firstChildren[i] = nextChild;
+      for (int j = 0; j < node.jjtGetNumChildren(); j++)
+        this.parents[nextChild++] = i;
+
+      String name = node.jjtGetVal();
+      this.nameIds[i] = name == null ? NO_NAME : nameIds.computeIfAbsent(name, image -> {
+        names.add(image);
+        return names.size() - 1;
+      });
+      this.beginLines[i] = node.getBeginLine();
+      this.beginColumns[i] = node.getBeginColumn();
+      this.endColumns[i] = node.getEndColumn();
+    }
+    this.firstChildren[numNodes] = nextChild;
+    this.names = names.toArray(new String[0]);
+  }
+
+  public SimpleNode getRoot() {
+    return this.node(0);
+  }
+
+  public int getNumNodes() {
+    return this.kinds.length;
+  }
+
+  SimpleNode node(int index) {
+    return this.prototypes[this.kinds[index]].viewOf(this, index);
+  }
+
+  int getParent(int index) {
+    return this.parents[index];
+  }
+
+  int getFirstChild(int index) {
+    return this.firstChildren[index];
+  }
+
+  int getNumChildren(int index) {
+    return this.firstChildren[index + 1] - this.firstChildren[index];
+  }
+
+  String getName(int index) {
+    return this.nameIds[index] == NO_NAME ? null : this.names[this.nameIds[index]];
+  }
+
+  int getBeginLine(int index) {
+    return this.beginLines[index];
+  }
+
+  int getBeginColumn(int index) {
+    return this.beginColumns[index];
+  }
+
+  int getEndColumn(int index) {
+    return this.endColumns[index];
+  }
+
+  String getType(int index) {
+    return this.types[index];
+  }
+
+  void setType(int index, String type) {
+    this.types[index] = type;
+  }
+
+  CallSite getCallSite(int index) {
+    return this.callSites[index];
+  }
+
+  void setCallSite(int index, CallSite callSite) {
+    this.callSites[index] = callSite;
+  }
+}
@@ -1,28 +1,39 @@
 /* Generated By:JJTree: Do not edit this line. SimpleNode.java Version 6.1 */
-/* JavaCCOptions:MULTI=false,NODE_USES_PARSER=false,VISITOR=false,TRACK_TOKENS=false,NODE_PREFIX=AST,NODE_EXTENDS=,NODE_FACTORY=,SUPPORT_CLASS_VISIBILITY_PUBLIC=true */
+/* JavaCCOptions:MULTI=true,NODE_USES_PARSER=false,VISITOR=true,TRACK_TOKENS=true,NODE_PREFIX=AST,NODE_EXTENDS=,NODE_FACTORY=,SUPPORT_CLASS_VISIBILITY_PUBLIC=true */
 package parser;
 
+import java.io.PrintStream;
+
 public
-class SimpleNode implements Node{
+class SimpleNode implements Node, Cloneable {
 
   protected Node parent;
   protected Node[] children;
   protected int id;
-  protected Object value;
-  protected Parser parser;
-  protected Token firstToken;
-  protected Token lastToken;
 
   // added
   public String val;
 
+  /* Where the node is in the source, instead of its first and last tokens, which would keep the
+     whole token chain alive after parsing. */
+  protected int beginLine;
+  protected int beginColumn;
+  protected int endColumn;
+
+  // Type of the expression, once found by the semantic analysis
+  protected String type;
+
+  /* Once parsing is done, the node is a view of node index of tree, which holds all of the above
+     but id (see CompactTree). */
+  protected CompactTree tree;
+  protected int index;
+
   public SimpleNode(int i) {
     id = i;
   }
 
   public SimpleNode(Parser p, int i) {
     this(i);
-    parser = p;
   }
 
   public void jjtOpen() {
@@ -32,9 +43,23 @@ class SimpleNode implements Node{
   }
 
   public void jjtSetParent(Node n) { parent = n; }
-  public Node jjtGetParent() { return parent; }
+  public Node jjtGetParent() {
+    if (tree == null)
+      return parent;
 
-  public Node[] jjtGetChildren() { return children; }
+    int parentIndex = tree.getParent(index);
+    return parentIndex < 0 ? null : tree.node(parentIndex);
+  }
+
+  public Node[] jjtGetChildren() {
+    if (tree == null || tree.getNumChildren(index) == 0)
+      return children;
+
+    Node[] views = new Node[tree.getNumChildren(index)];
+    for (int i = 0; i < views.length; i++)
+      views[i] = jjtGetChild(i);
+    return views;
+  }
 
   public void jjtAddChild(Node n, int i) {
     if (children == null) {
@@ -48,22 +73,86 @@ class SimpleNode implements Node{
   }
 
   public Node jjtGetChild(int i) {
-    return children[i];
+    if (tree == null)
+      return children[i];
+
+    if (i < 0 || i >= tree.getNumChildren(index))
+      throw new ArrayIndexOutOfBoundsException(i);
+    return tree.node(tree.getFirstChild(index) + i);
   }
 
-  public String jjtGetVal() { return val; }
+  public String jjtGetVal() { return tree == null ? val : tree.getName(index); }
 
   public int jjtGetNumChildren() {
+    if (tree != null)
+      return tree.getNumChildren(index);
     return (children == null) ? 0 : children.length;
   }
 
-  public void jjtSetValue(Object value) { this.value = value; }
-  public Object jjtGetValue() { return value; }
+  /** Accept the visitor. **/
+  public Object jjtAccept(ParserVisitor visitor, Object data) throws Exception {
+    return visitor.visit(this, data);
+  }
+
+  /** Accept the visitor. **/
+  public Object childrenAccept(ParserVisitor visitor, Object data) throws Exception {
+    for (int i = 0; i < jjtGetNumChildren(); ++i) {
+      jjtGetChild(i).jjtAccept(visitor, data);
+    }
+    return data;
+  }
+
+  public void jjtSetFirstToken(Token token) {
+    this.beginLine = token.beginLine;
+    this.beginColumn = token.beginColumn;
+  }
+  public void jjtSetLastToken(Token token) { this.endColumn = token.endColumn; }
+
+  public int getBeginLine() { return tree == null ? beginLine : tree.getBeginLine(index); }
+  public int getBeginColumn() { return tree == null ? beginColumn : tree.getBeginColumn(index); }
+  public int getEndColumn() { return tree == null ? endColumn : tree.getEndColumn(index); }
+
+  public String getType() { return tree == null ? type : tree.getType(index); }
+  public void setType(String type) {
+    if (tree == null)
+      this.type = type;
+    else
+      tree.setType(index, type);
+  }
+
+  // An empty node of the same class, standing for node index of tree
+  SimpleNode viewOf(CompactTree tree, int index) {
+    SimpleNode view;
+    try {
+      view = (SimpleNode) clone();
+    } catch (CloneNotSupportedException e) {
+      throw new AssertionError(e);
+    }
+
+    view.parent = null;
+    view.children = null;
+    view.val = null;
+    view.beginLine = 0;
+    view.beginColumn = 0;
+    view.endColumn = 0;
+    view.type = null;
+    view.tree = tree;
+    view.index = index;
+    return view;
+  }
+
+  // Views of the same node are equal, as the passes get a new one each time they reach it
+  public boolean equals(Object other) {
+    if (tree == null || !(other instanceof SimpleNode))
+      return this == other;
 
-  public Token jjtGetFirstToken() { return firstToken; }
-  public void jjtSetFirstToken(Token token) { this.firstToken = token; }
-  public Token jjtGetLastToken() { return lastToken; }
-  public void jjtSetLastToken(Token token) { this.lastToken = token; }
+    SimpleNode node = (SimpleNode) other;
+    return tree == node.tree && index == node.index;
+  }
+
+  public int hashCode() {
+    return tree == null ? super.hashCode() : 31 * System.identityHashCode(tree) + index;
+  }
 
   /* You can override these two methods in subclasses of SimpleNode to
      customize the way the node appears when the tree is dumped.  If
@@ -80,28 +169,30 @@ class SimpleNode implements Node{
      out its children. */
 
   public void dump(String prefix) {
+    dump(prefix, System.out);
+  }
+
+  public void dump(String prefix, PrintStream out) {
     String line = toString(prefix);
 
-    if(children == null && this.val != null)
-      line += " [ "+this.val+" ]";
+    if(jjtGetNumChildren() == 0 && jjtGetVal() != null)
+      line += " [ "+jjtGetVal()+" ]";
 
-    System.out.println(line);
+    out.println(line);
 
-    if (children != null) {
-      for (int i = 0; i < children.length; ++i) {
-        SimpleNode n = (SimpleNode)children[i];
-        if (n != null) {
-          n.dump(prefix + " ");
-        }
+    for (int i = 0; i < jjtGetNumChildren(); ++i) {
+      SimpleNode n = getChild(i);
+      if (n != null) {
+        n.dump(prefix + " ", out);
       }
     }
   }
 
   public SimpleNode getChild(int i) {
-    return (SimpleNode) children[i];
+    return (SimpleNode) jjtGetChild(i);
   }
 
-  public SimpleNode getParent(){return (SimpleNode) parent;}
+  public SimpleNode getParent(){return (SimpleNode) jjtGetParent();}
 
   public int getId() {
     return id;
@@ -111,6 +202,18 @@ class SimpleNode implements Node{
      return ParserTreeConstants.jjtNodeName[id];
   }
 
+  // Number of nodes in this subtree, including this one
+  public long countNodes() {
+    if (tree != null && index == 0)
+      return tree.getNumNodes();
+
+    long count = 1;
+    for (int i = 0; i < jjtGetNumChildren(); i++)
+      count += getChild(i).countNodes();
+
+    return count;
+  }
+
 }
 
 /* JavaCC - OriginalChecksum=d33fdb2b8063d5de3474649324d5d160 (do not edit this line) */
@@ -0,0 +1,88 @@
+package benchmarks;
+
+import main.SemanticAnalyser;
+import main.SymbolTables;
+import main.SymbolTablesGenerator;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import parser.Parser;
+import parser.SimpleNode;
+import synthetic.ProgramGenerator;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+
+/*
+ * A program to compile, with the results of every phase computed once up front, so that each
+ * benchmark only measures its own phase.
+ *
+ * Inputs named after a fixture are read from test/fixtures/public; "SyntheticN" is a generated
+ * program with N methods.
+ */
+@State(Scope.Benchmark)
+public class CompilerInput {
+
+    private static final String FIXTURES = "fixtures/public/";
+    private static final String SYNTHETIC = "Synthetic";
+    private static final int SYNTHETIC_STATEMENTS = 20;
+
+    // Compiler messages are not part of what is measured
+    static final PrintStream NO_OUTPUT = new PrintStream(OutputStream.nullOutputStream());
+
+    @Param({"FindMaximum", "Lazysort", "Life", "MonteCarloPi", "QuickSort", "Simple", "TicTacToe", "WhileAndIF",
+            "Synthetic100", "Synthetic1000"})
+    public String input;
+
+    String sourceName;
+    String source;
+    SimpleNode root;
+    SymbolTables symbolTables;
+
+    @Setup
+    public void setup() throws Exception {
+        this.sourceName = this.input + ".jmm";
+        this.source = this.input.startsWith(SYNTHETIC) ? synthetic(this.input) : readFixture(this.sourceName);
+
+        this.root = this.parse();
+        this.symbolTables = new SymbolTablesGenerator(this.root).generate();
+        this.newSemanticAnalyser().startAnalyse();
+    }
+
+    SimpleNode parse() throws Exception {
+        Parser parser = new Parser(new StringReader(this.source));
+        parser.setOutput(NO_OUTPUT);
+        parser.setSource(this.source);
+
+        return parser.parseProgram(this.sourceName);
+    }
+
+    SemanticAnalyser newSemanticAnalyser() {
+        SemanticAnalyser semanticAnalyser = new SemanticAnalyser(this.symbolTables, this.root, this.sourceName, this.source, false);
+        semanticAnalyser.setOutput(NO_OUTPUT, NO_OUTPUT);
+
+        return semanticAnalyser;
+    }
+
+    private static String synthetic(String input) {
+        ProgramGenerator generator = new ProgramGenerator();
+        generator.setNumMethods(Integer.parseInt(input.substring(SYNTHETIC.length())));
+        generator.setNumStatements(SYNTHETIC_STATEMENTS);
+
+        return generator.generate(input);
+    }
+
+    private static String readFixture(String fileName) throws IOException {
+        try (InputStream stream = CompilerInput.class.getClassLoader().getResourceAsStream(FIXTURES + fileName)) {
+            if (stream == null)
+                throw new IOException("Fixture not found: " + FIXTURES + fileName);
+
+            return new String(stream.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import parser.Parser;
+import parser.ParserConstants;
+import parser.ParserTokenManager;
+import parser.SimpleCharStream;
+import parser.SimpleNode;
+import parser.Token;
+import synthetic.ProgramGenerator;
+
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Throughput of the parser on generated programs of 1 to 100 MB: lexing alone, with the token
+ * manager, and the full parse building the AST. Besides the operations per second, JMH reports
+ * the bytes, tokens and AST nodes per second.
+ *
+ * The AST of the 100 MB program takes a few GB of heap, hence the larger maximum heap.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+@State(Scope.Benchmark)
+public class ParserBenchmark {
+
+    private static final String CLASS_NAME = "Large";
+    private static final int SAMPLE_METHODS = 100;
+
+    @Param({"1", "10", "100"})
+    public int megabytes;
+
+    private String source;
+    private long bytes;
+    private long nodes;
+
+    @Setup
+    public void setup() throws Exception {
+        // The size of the program grows linearly with its number of methods
+        ProgramGenerator generator = new ProgramGenerator();
+        generator.setNumMethods(SAMPLE_METHODS);
+        int sampleBytes = generator.generate(CLASS_NAME).length();
+
+        generator.setNumMethods((int) ((long) this.megabytes * 1024 * 1024 * SAMPLE_METHODS / sampleBytes));
+        this.source = generator.generate(CLASS_NAME);
+        this.bytes = this.source.getBytes(StandardCharsets.UTF_8).length;
+        this.nodes = this.newParser().parseProgram(CLASS_NAME + ".jmm").countNodes();
+    }
+
+    @Benchmark
+    public long lex(Throughput throughput) {
+        ParserTokenManager tokenManager = new ParserTokenManager(new SimpleCharStream(new StringReader(this.source), 1, 1));
+
+        long tokens = 0;
+        for (Token token = tokenManager.getNextToken(); token.kind != ParserConstants.EOF; token = tokenManager.getNextToken())
+            tokens++;
+
+        throughput.add(this.bytes, tokens, 0);
+        return tokens;
+    }
+
+    @Benchmark
+    public SimpleNode parse(Throughput throughput) throws Exception {
+        Parser parser = this.newParser();
+        SimpleNode root = parser.parseProgram(CLASS_NAME + ".jmm");
+
+        throughput.add(this.bytes, parser.getTokenCount(), this.nodes);
+        return root;
+    }
+
+    private Parser newParser() {
+        Parser parser = new Parser(new StringReader(this.source));
+        parser.setOutput(CompilerInput.NO_OUTPUT);
+        parser.setSource(this.source);
+
+        return parser;
+    }
+
+    // Reported by JMH as rates, next to the score of each benchmark
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Throughput {
+        public long bytes;
+        public long tokens;
+        public long nodes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            this.bytes = 0;
+            this.tokens = 0;
+            this.nodes = 0;
+        }
+
+        void add(long bytes, long tokens, long nodes) {
+            this.bytes += bytes;
+            this.tokens += tokens;
+            this.nodes += nodes;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package benchmarks;
+
+import DataFlow.DataFlowAnalyser;
+import main.CodeGenerator;
+import main.SymbolTables;
+import main.SymbolTablesGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import parser.SimpleNode;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// Throughput of each compiler phase on its own, run with -prof gc for the allocation rate
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PhaseBenchmark {
+
+    // Fewer registers than any method with locals needs: every method goes through liveness,
+    // the interference graph and colouring, which then fails instead of being skipped
+    private static final int DATAFLOW_REGISTERS = 1;
+
+    private Path outputDirectory;
+
+    @Setup
+    public void setup() throws IOException {
+        this.outputDirectory = Files.createTempDirectory("jmm-benchmark");
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(this.outputDirectory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public SimpleNode parse(CompilerInput input) throws Exception {
+        return input.parse();
+    }
+
+    @Benchmark
+    public SymbolTables generateSymbolTables(CompilerInput input) throws Exception {
+        return new SymbolTablesGenerator(input.root).generate();
+    }
+
+    @Benchmark
+    public void analyseSemantics(CompilerInput input) throws Exception {
+        input.newSemanticAnalyser().startAnalyse();
+    }
+
+    @Benchmark
+    public void analyseDataFlow(CompilerInput input, Blackhole blackhole) {
+        try {
+            new DataFlowAnalyser(input.symbolTables, DATAFLOW_REGISTERS, false).analyse();
+        } catch (Exception e) {
+            blackhole.consume(e);
+        }
+    }
+
+    @Benchmark
+    public void generate(CompilerInput input) throws Exception {
+        new CodeGenerator(input.symbolTables, this.outputDirectory).generate();
+    }
+
+    @Benchmark
+    public byte[] generateBytecode(CompilerInput input) throws Exception {
+        return new CodeGenerator(input.symbolTables, this.outputDirectory).generateBytecode();
+    }
+}
@@ -0,0 +1,162 @@
+package benchmarks;
+
+import main.CompilationResult;
+import main.CompilerOptions;
+import main.jmm;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Throughput of the code generated for the fixtures, under several compiler flags.
+ *
+ * Each program is compiled once per fork and loaded in-process, together with the fixture
+ * libraries it imports. Its standard input is replaced by a fixed input and its output discarded,
+ * so the results of different versions of the compiler can be compared.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class RuntimeBenchmark {
+
+    private static final String FIXTURES = "fixtures/public/";
+    private static final String LIBRARIES = "fixtures/libs/compiled/";
+    private static final String NO_FLAGS = "none";
+    private static final String MONTE_CARLO_SAMPLES = "10000\n";
+
+    @Param({"FindMaximum", "Life", "MonteCarloPi", "QuickSort"})
+    public String program;
+
+    // Space separated command line flags
+    @Param({NO_FLAGS, "-o", "-r=8", "-r=12", "-o -r=8"})
+    public String flags;
+
+    private byte[] input;
+    private MethodHandle workload;
+
+    private InputStream systemIn;
+    private PrintStream systemOut;
+
+    @Setup
+    public void setup() throws Throwable {
+        CompilerOptions options = new CompilerOptions();
+        options.setDebugMode(false);
+        options.setBackend(CompilerOptions.JASMIN_CLASS_BACKEND);
+        if (!this.flags.equals(NO_FLAGS)) {
+            for (String flag : this.flags.split(" ")) {
+                if (!options.parseFlag(flag))
+                    throw new IllegalArgumentException("Unknown flag " + flag);
+            }
+        }
+
+        CompilationResult result;
+        try (InputStream stream = resource(FIXTURES + this.program + ".jmm")) {
+            result = jmm.compile(new String(stream.readAllBytes(), StandardCharsets.UTF_8), options);
+        }
+        if (!result.isSuccess())
+            throw new IllegalStateException(this.program + " " + this.flags + " did not compile:\n" + result.getDiagnostics());
+
+        Class<?> programClass = new ProgramLoader(this.program, result.getClassFile()).loadClass(this.program);
+        MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+
+        this.input = new byte[0];
+        if (this.program.equals("Life")) {
+            // main never returns: time one generation of the board instead
+            Object life = lookup.findConstructor(programClass, MethodType.methodType(void.class)).invoke();
+            lookup.findVirtual(programClass, "init", MethodType.methodType(boolean.class)).invoke(life);
+            this.workload = lookup.findVirtual(programClass, "update", MethodType.methodType(boolean.class)).bindTo(life);
+        } else {
+            if (this.program.equals("MonteCarloPi"))
+                this.input = MONTE_CARLO_SAMPLES.getBytes(StandardCharsets.UTF_8);
+
+            MethodHandle main = lookup.findStatic(programClass, "main", MethodType.methodType(void.class, String[].class));
+            this.workload = MethodHandles.insertArguments(main, 0, (Object) new String[0]);
+        }
+
+        this.systemIn = System.in;
+        this.systemOut = System.out;
+        System.setOut(CompilerInput.NO_OUTPUT);
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.setIn(this.systemIn);
+        System.setOut(this.systemOut);
+    }
+
+    @Benchmark
+    public Object run() throws Throwable {
+        System.setIn(new ByteArrayInputStream(this.input));
+        return this.workload.invoke();
+    }
+
+    private static InputStream resource(String name) throws IOException {
+        InputStream stream = RuntimeBenchmark.class.getClassLoader().getResourceAsStream(name);
+        if (stream == null)
+            throw new IOException("Resource not found: " + name);
+
+        return stream;
+    }
+
+    // Defines the generated class and the fixture libraries in the same class loader, as their methods are package-private
+    private static class ProgramLoader extends ClassLoader {
+        private final String className;
+        private final byte[] classFile;
+
+        private ProgramLoader(String className, byte[] classFile) {
+            super(RuntimeBenchmark.class.getClassLoader());
+            this.className = className;
+            this.classFile = classFile;
+        }
+
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            synchronized (this.getClassLoadingLock(name)) {
+                Class<?> loadedClass = this.findLoadedClass(name);
+
+                if (loadedClass == null && name.equals(this.className))
+                    loadedClass = this.defineClass(name, this.classFile, 0, this.classFile.length);
+
+                if (loadedClass == null && name.indexOf('.') < 0) {
+                    try (InputStream stream = this.getParent().getResourceAsStream(LIBRARIES + name + ".class")) {
+                        if (stream != null) {
+                            byte[] library = stream.readAllBytes();
+                            loadedClass = this.defineClass(name, library, 0, library.length);
+                        }
+                    } catch (IOException e) {
+                        throw new ClassNotFoundException(name, e);
+                    }
+                }
+
+                if (loadedClass == null)
+                    return super.loadClass(name, resolve);
+
+                if (resolve)
+                    this.resolveClass(loadedClass);
+                return loadedClass;
+            }
+        }
+    }
+}
@@ -0,0 +1,332 @@
+package Bytecode;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+ * Writes JVM class files directly, without going through Jasmin.
+ *
+ * Uses the same class file version as Jasmin (45.3), which is verified by type inference,
+ * so no StackMapTable has to be computed. Methods have no exception handlers.
+ */
+public class ClassFileEmitter implements Emitter {
+
+    private static final int MAGIC = 0xCAFEBABE;
+    private static final int MINOR_VERSION = 3;
+    private static final int MAJOR_VERSION = 45;
+
+    private static final int ACC_PUBLIC = 0x0001;
+    private static final int ACC_STATIC = 0x0008;
+    private static final int ACC_SUPER = 0x0020;
+
+    private static final int MAX_CODE_LENGTH = 65535;
+    private static final int T_INT = 10;
+
+    private static final Map<String, Integer> OPCODES = new HashMap<>();
+
+    static {
+        String[] names = {"iconst_m1", "iconst_0", "iconst_1", "iconst_2", "iconst_3", "iconst_4", "iconst_5"};
+        for (int i = 0; i < names.length; i++)
+            OPCODES.put(names[i], 0x02 + i);
+
+        OPCODES.put("bipush", 0x10);
+        OPCODES.put("sipush", 0x11);
+        OPCODES.put("ldc", 0x12);
+        OPCODES.put("ldc_w", 0x13);
+        OPCODES.put("iload", 0x15);
+        OPCODES.put("aload", 0x19);
+        OPCODES.put("aload_0", 0x2a);
+        OPCODES.put("iaload", 0x2e);
+        OPCODES.put("istore", 0x36);
+        OPCODES.put("astore", 0x3a);
+        OPCODES.put("iastore", 0x4f);
+        OPCODES.put("pop", 0x57);
+        OPCODES.put("dup", 0x59);
+        OPCODES.put("dup2", 0x5c);
+        OPCODES.put("swap", 0x5f);
+        OPCODES.put("iadd", 0x60);
+        OPCODES.put("isub", 0x64);
+        OPCODES.put("imul", 0x68);
+        OPCODES.put("idiv", 0x6c);
+        OPCODES.put("irem", 0x70);
+        OPCODES.put("ineg", 0x74);
+        OPCODES.put("iinc", 0x84);
+        OPCODES.put("ifeq", 0x99);
+        OPCODES.put("ifne", 0x9a);
+        OPCODES.put("iflt", 0x9b);
+        OPCODES.put("ifge", 0x9c);
+        OPCODES.put("ifgt", 0x9d);
+        OPCODES.put("ifle", 0x9e);
+        OPCODES.put("if_icmpeq", 0x9f);
+        OPCODES.put("if_icmpne", 0xa0);
+        OPCODES.put("if_icmplt", 0xa1);
+        OPCODES.put("if_icmpge", 0xa2);
+        OPCODES.put("if_icmpgt", 0xa3);
+        OPCODES.put("if_icmple", 0xa4);
+        OPCODES.put("goto", 0xa7);
+        OPCODES.put("ireturn", 0xac);
+        OPCODES.put("areturn", 0xb0);
+        OPCODES.put("return", 0xb1);
+        OPCODES.put("getstatic", 0xb2);
+        OPCODES.put("putstatic", 0xb3);
+        OPCODES.put("getfield", 0xb4);
+        OPCODES.put("putfield", 0xb5);
+        OPCODES.put("invokevirtual", 0xb6);
+        OPCODES.put("invokespecial", 0xb7);
+        OPCODES.put("invokestatic", 0xb8);
+        OPCODES.put("new", 0xbb);
+        OPCODES.put("newarray", 0xbc);
+        OPCODES.put("arraylength", 0xbe);
+        OPCODES.put("wide", 0xc4);
+    }
+
+    private final ConstantPool constantPool = new ConstantPool();
+    private int thisClass;
+    private int superClass;
+
+    private int numFields = 0;
+    private final ByteArrayOutputStream fields = new ByteArrayOutputStream();
+    private int numMethods = 0;
+    private final ByteArrayOutputStream methods = new ByteArrayOutputStream();
+
+    private byte[] classFile;
+    private int codeLength;
+
+    // Current method
+    private int methodAccess;
+    private int methodName;
+    private int methodDescriptor;
+    private ByteArrayOutputStream code;
+    private final Map<String, Integer> labels = new HashMap<>();
+    private final List<JumpFixup> fixups = new ArrayList<>();
+
+    // Length of the code of the last method ended
+    public int getCodeLength() {
+        return this.codeLength;
+    }
+
+    // Null until endClass()
+    public byte[] getClassFile() {
+        return this.classFile;
+    }
+
+    @Override
+    public void beginClass(String className, String superClassName) {
+        this.thisClass = this.constantPool.classRef(className);
+        this.superClass = this.constantPool.classRef(superClassName == null ? "java/lang/Object" : superClassName);
+    }
+
+    @Override
+    public void field(String name, String descriptor, boolean isStatic) {
+        DataOutputStream output = new DataOutputStream(this.fields);
+
+        try {
+            output.writeShort(isStatic ? ACC_PUBLIC | ACC_STATIC : ACC_PUBLIC);
+            output.writeShort(this.constantPool.utf8(name));
+            output.writeShort(this.constantPool.utf8(descriptor));
+            output.writeShort(0); // Attributes
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+
+        this.numFields++;
+    }
+
+    @Override
+    public void beginMethod(String name, String descriptor, boolean isStatic) {
+        this.methodAccess = isStatic ? ACC_PUBLIC | ACC_STATIC : ACC_PUBLIC;
+        this.methodName = this.constantPool.utf8(name);
+        this.methodDescriptor = this.constantPool.utf8(descriptor);
+
+        this.code = new ByteArrayOutputStream();
+        this.labels.clear();
+        this.fixups.clear();
+    }
+
+    @Override
+    public void instruction(String opcode) {
+        this.code.write(opcode(opcode));
+    }
+
+    @Override
+    public void instruction(String opcode, int operand) {
+        switch (opcode) {
+            case "bipush":
+                this.code.write(opcode(opcode));
+                this.code.write(operand);
+                break;
+            case "sipush":
+                this.code.write(opcode(opcode));
+                this.writeShort(operand);
+                break;
+            case "ldc": {
+                int index = this.constantPool.integer(operand);
+                if (index > 0xff) {
+                    this.code.write(opcode("ldc_w"));
+                    this.writeShort(index);
+                } else {
+                    this.code.write(opcode(opcode));
+                    this.code.write(index);
+                }
+                break;
+            }
+            default: // Local variable instructions
+                if (operand > 0xff) {
+                    this.code.write(opcode("wide"));
+                    this.code.write(opcode(opcode));
+                    this.writeShort(operand);
+                } else {
+                    this.code.write(opcode(opcode));
+                    this.code.write(operand);
+                }
+                break;
+        }
+    }
+
+    @Override
+    public void iinc(int index, int increment) {
+        if (index > 0xff || increment < Byte.MIN_VALUE || increment > Byte.MAX_VALUE) {
+            this.code.write(opcode("wide"));
+            this.code.write(opcode("iinc"));
+            this.writeShort(index);
+            this.writeShort(increment);
+        } else {
+            this.code.write(opcode("iinc"));
+            this.code.write(index);
+            this.code.write(increment);
+        }
+    }
+
+    @Override
+    public void jump(String opcode, String label) {
+        this.fixups.add(new JumpFixup(this.code.size(), label));
+        this.code.write(opcode(opcode));
+        this.writeShort(0); // Patched in endMethod(), once every label is placed
+    }
+
+    @Override
+    public void label(String label) {
+        this.labels.put(label, this.code.size());
+    }
+
+    @Override
+    public void newObject(String className) {
+        this.code.write(opcode("new"));
+        this.writeShort(this.constantPool.classRef(className));
+    }
+
+    @Override
+    public void newIntArray() {
+        this.code.write(opcode("newarray"));
+        this.code.write(T_INT);
+    }
+
+    @Override
+    public void fieldInstruction(String opcode, String owner, String name, String descriptor) {
+        this.code.write(opcode(opcode));
+        this.writeShort(this.constantPool.fieldRef(owner, name, descriptor));
+    }
+
+    @Override
+    public void invoke(String opcode, String owner, String name, String descriptor) {
+        this.code.write(opcode(opcode));
+        this.writeShort(this.constantPool.methodRef(owner, name, descriptor));
+    }
+
+    @Override
+    public void endMethod(int maxStack, int maxLocals) {
+        byte[] bytecode = this.code.toByteArray();
+        if (bytecode.length > MAX_CODE_LENGTH)
+            throw new IllegalStateException("Method code is longer than " + MAX_CODE_LENGTH + " bytes");
+
+        for (JumpFixup fixup : this.fixups) {
+            Integer target = this.labels.get(fixup.label);
+            if (target == null)
+                throw new IllegalStateException("Undefined label " + fixup.label);
+
+            int offset = target - fixup.position;
+            if (offset < Short.MIN_VALUE || offset > Short.MAX_VALUE)
+                throw new IllegalStateException("Jump to " + fixup.label + " is too far");
+
+            bytecode[fixup.position + 1] = (byte) (offset >> 8);
+            bytecode[fixup.position + 2] = (byte) offset;
+        }
+
+        DataOutputStream output = new DataOutputStream(this.methods);
+        try {
+            output.writeShort(this.methodAccess);
+            output.writeShort(this.methodName);
+            output.writeShort(this.methodDescriptor);
+            output.writeShort(1); // Attributes: Code
+
+            output.writeShort(this.constantPool.utf8("Code"));
+            output.writeInt(2 + 2 + 4 + bytecode.length + 2 + 2);
+            output.writeShort(maxStack);
+            output.writeShort(maxLocals);
+            output.writeInt(bytecode.length);
+            output.write(bytecode);
+            output.writeShort(0); // Exception table
+            output.writeShort(0); // Attributes
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+
+        this.codeLength = bytecode.length;
+        this.numMethods++;
+    }
+
+    @Override
+    public void endClass() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream output = new DataOutputStream(bytes);
+
+        try {
+            output.writeInt(MAGIC);
+            output.writeShort(MINOR_VERSION);
+            output.writeShort(MAJOR_VERSION);
+            this.constantPool.write(output);
+            output.writeShort(ACC_PUBLIC | ACC_SUPER);
+            output.writeShort(this.thisClass);
+            output.writeShort(this.superClass);
+            output.writeShort(0); // Interfaces
+            output.writeShort(this.numFields);
+            this.fields.writeTo(output);
+            output.writeShort(this.numMethods);
+            this.methods.writeTo(output);
+            output.writeShort(0); // Attributes
+            output.flush();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+
+        this.classFile = bytes.toByteArray();
+    }
+
+    private void writeShort(int value) {
+        this.code.write(value >> 8);
+        this.code.write(value);
+    }
+
+    private static int opcode(String name) {
+        Integer opcode = OPCODES.get(name);
+        if (opcode == null)
+            throw new IllegalArgumentException("Unsupported instruction " + name);
+
+        return opcode;
+    }
+
+    private static class JumpFixup {
+        private final int position;
+        private final String label;
+
+        private JumpFixup(int position, String label) {
+            this.position = position;
+            this.label = label;
+        }
+    }
+}
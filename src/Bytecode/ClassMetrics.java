@@ -0,0 +1,214 @@
+package Bytecode;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+ * Size of the code generated for each method of a class.
+ *
+ * The report is a text table with one method per line, which is also the format of the baselines
+ * it is compared against.
+ */
+public class ClassMetrics {
+
+    private static final String[] COLUMNS = {"instructions", "bytes", "stack", "locals", "branches", "labels"};
+    private static final String TOTAL = "total";
+
+    private final String className;
+    private final Map<String, MethodMetrics> methods = new LinkedHashMap<>();
+
+    public ClassMetrics(String className) {
+        this.className = className;
+    }
+
+    public String getClassName() {
+        return this.className;
+    }
+
+    public Map<String, MethodMetrics> getMethods() {
+        return this.methods;
+    }
+
+    public void addMethod(String method, MethodMetrics metrics) {
+        this.methods.put(method, metrics);
+    }
+
+    public MethodMetrics getTotal() {
+        MethodMetrics total = new MethodMetrics();
+        for (MethodMetrics method : this.methods.values())
+            total.add(method);
+
+        return total;
+    }
+
+    public String format() {
+        StringBuilder report = new StringBuilder();
+        int width = TOTAL.length();
+        for (String method : this.methods.keySet())
+            width = Math.max(width, method.length());
+
+        report.append(pad(this.className, width));
+        for (String column : COLUMNS)
+            report.append("  ").append(column);
+        report.append("\n");
+
+        for (Map.Entry<String, MethodMetrics> method : this.methods.entrySet())
+            formatLine(report, method.getKey(), width, method.getValue());
+        formatLine(report, TOTAL, width, this.getTotal());
+
+        return report.toString();
+    }
+
+    public static ClassMetrics parse(String report) {
+        String[] lines = report.split("\n");
+        ClassMetrics metrics = new ClassMetrics(lines[0].trim().split("\\s+")[0]);
+
+        for (int i = 1; i < lines.length; i++) {
+            String[] fields = lines[i].trim().split("\\s+");
+            if (fields.length != COLUMNS.length + 1 || fields[0].equals(TOTAL))
+                continue;
+
+            long[] values = new long[COLUMNS.length];
+            for (int column = 0; column < COLUMNS.length; column++)
+                values[column] = Long.parseLong(fields[column + 1]);
+            metrics.addMethod(fields[0], new MethodMetrics(values));
+        }
+
+        return metrics;
+    }
+
+    // One line per changed, added or removed method, and one for the totals; empty if nothing changed
+    public String diff(ClassMetrics baseline) {
+        StringBuilder diff = new StringBuilder();
+
+        for (Map.Entry<String, MethodMetrics> method : this.methods.entrySet()) {
+            MethodMetrics before = baseline.methods.get(method.getKey());
+            if (before == null)
+                diff.append("+ ").append(method.getKey()).append(" (new)\n");
+            else
+                diffLine(diff, method.getKey(), before, method.getValue());
+        }
+
+        for (String method : baseline.methods.keySet()) {
+            if (!this.methods.containsKey(method))
+                diff.append("- ").append(method).append(" (removed)\n");
+        }
+
+        if (diff.length() > 0)
+            diffLine(diff, TOTAL, baseline.getTotal(), this.getTotal());
+
+        return diff.toString();
+    }
+
+    private static void formatLine(StringBuilder report, String name, int width, MethodMetrics metrics) {
+        report.append(pad(name, width));
+        for (int column = 0; column < COLUMNS.length; column++)
+            report.append("  ").append(padLeft(Long.toString(metrics.values[column]), COLUMNS[column].length()));
+        report.append("\n");
+    }
+
+    private static void diffLine(StringBuilder diff, String name, MethodMetrics before, MethodMetrics after) {
+        List<String> changes = new ArrayList<>();
+
+        for (int column = 0; column < COLUMNS.length; column++) {
+            long change = after.values[column] - before.values[column];
+            if (change != 0)
+                changes.add(COLUMNS[column] + " " + before.values[column] + " -> " + after.values[column]
+                        + " (" + (change > 0 ? "+" : "") + change + ")");
+        }
+
+        if (!changes.isEmpty())
+            diff.append("  ").append(name).append(": ").append(String.join(", ", changes)).append("\n");
+    }
+
+    private static String pad(String text, int width) {
+        StringBuilder padded = new StringBuilder(text);
+        while (padded.length() < width)
+            padded.append(' ');
+
+        return padded.toString();
+    }
+
+    private static String padLeft(String text, int width) {
+        StringBuilder padded = new StringBuilder();
+        while (padded.length() + text.length() < width)
+            padded.append(' ');
+
+        return padded.append(text).toString();
+    }
+
+    public static class MethodMetrics {
+        private static final int INSTRUCTIONS = 0;
+        private static final int BYTES = 1;
+        private static final int STACK = 2;
+        private static final int LOCALS = 3;
+        private static final int BRANCHES = 4;
+        private static final int LABELS = 5;
+
+        private final long[] values;
+
+        public MethodMetrics() {
+            this.values = new long[COLUMNS.length];
+        }
+
+        private MethodMetrics(long[] values) {
+            this.values = values;
+        }
+
+        public long getInstructions() {
+            return values[INSTRUCTIONS];
+        }
+
+        // Length of the code attribute, as written to the class file
+        public long getBytes() {
+            return values[BYTES];
+        }
+
+        public long getMaxStack() {
+            return values[STACK];
+        }
+
+        public long getMaxLocals() {
+            return values[LOCALS];
+        }
+
+        // Conditional jumps; goto is only counted as an instruction
+        public long getBranches() {
+            return values[BRANCHES];
+        }
+
+        public long getLabels() {
+            return values[LABELS];
+        }
+
+        void countInstruction() {
+            values[INSTRUCTIONS]++;
+        }
+
+        void countBranch() {
+            values[BRANCHES]++;
+        }
+
+        void countLabel() {
+            values[LABELS]++;
+        }
+
+        void setSize(long bytes, long maxStack, long maxLocals) {
+            values[BYTES] = bytes;
+            values[STACK] = maxStack;
+            values[LOCALS] = maxLocals;
+        }
+
+        // Totals of a class: the limits are the largest of any method
+        private void add(MethodMetrics metrics) {
+            for (int column = 0; column < COLUMNS.length; column++) {
+                if (column == STACK || column == LOCALS)
+                    this.values[column] = Math.max(this.values[column], metrics.values[column]);
+                else
+                    this.values[column] += metrics.values[column];
+            }
+        }
+    }
+}
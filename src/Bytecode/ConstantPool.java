@@ -0,0 +1,94 @@
+package Bytecode;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+// Constant pool of a class file; equal entries are only added once
+public class ConstantPool {
+
+    private static final int UTF8 = 1;
+    private static final int INTEGER = 3;
+    private static final int CLASS = 7;
+    private static final int FIELD_REF = 9;
+    private static final int METHOD_REF = 10;
+    private static final int NAME_AND_TYPE = 12;
+
+    private static final int MAX_ENTRIES = 65535;
+
+    private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    private final DataOutputStream output = new DataOutputStream(bytes);
+    private final Map<String, Integer> indexes = new HashMap<>();
+    private int size = 0;
+
+    public int utf8(String value) {
+        return this.add(UTF8, value, output -> output.writeUTF(value));
+    }
+
+    public int integer(int value) {
+        return this.add(INTEGER, String.valueOf(value), output -> output.writeInt(value));
+    }
+
+    public int classRef(String className) {
+        int name = this.utf8(className);
+        return this.add(CLASS, className, output -> output.writeShort(name));
+    }
+
+    public int nameAndType(String name, String descriptor) {
+        int nameIndex = this.utf8(name);
+        int descriptorIndex = this.utf8(descriptor);
+        return this.add(NAME_AND_TYPE, name + ":" + descriptor, output -> {
+            output.writeShort(nameIndex);
+            output.writeShort(descriptorIndex);
+        });
+    }
+
+    public int fieldRef(String owner, String name, String descriptor) {
+        return this.memberRef(FIELD_REF, owner, name, descriptor);
+    }
+
+    public int methodRef(String owner, String name, String descriptor) {
+        return this.memberRef(METHOD_REF, owner, name, descriptor);
+    }
+
+    private int memberRef(int tag, String owner, String name, String descriptor) {
+        int classIndex = this.classRef(owner);
+        int nameAndTypeIndex = this.nameAndType(name, descriptor);
+        return this.add(tag, owner + "." + name + ":" + descriptor, output -> {
+            output.writeShort(classIndex);
+            output.writeShort(nameAndTypeIndex);
+        });
+    }
+
+    private int add(int tag, String value, EntryWriter writer) {
+        String key = tag + ":" + value;
+        Integer index = this.indexes.get(key);
+        if (index != null)
+            return index;
+
+        if (this.size + 1 >= MAX_ENTRIES)
+            throw new IllegalStateException("Too many constants in class");
+
+        try {
+            this.output.writeByte(tag);
+            writer.write(this.output);
+        } catch (IOException e) { // Strings longer than 65535 bytes do not fit in a class file
+            throw new IllegalStateException(e);
+        }
+
+        this.size++;
+        this.indexes.put(key, this.size); // Indexes start at 1
+        return this.size;
+    }
+
+    public void write(DataOutputStream output) throws IOException {
+        output.writeShort(this.size + 1);
+        this.bytes.writeTo(output);
+    }
+
+    private interface EntryWriter {
+        void write(DataOutputStream output) throws IOException;
+    }
+}
@@ -0,0 +1,62 @@
+package Bytecode;
+
+/*
+ * Target of the code generator, one instruction at a time.
+ *
+ * Class names are internal names (java/lang/Object) and descriptors are plain JVM descriptors
+ * ((I[I)LFoo;); each backend deals with its own syntax. Labels are arbitrary unique names
+ * within a method and may be used before they are placed.
+ */
+public interface Emitter {
+
+    // superClassName is null when the class does not extend anything
+    void beginClass(String className, String superClassName);
+
+    void field(String name, String descriptor, boolean isStatic);
+
+    void beginMethod(String name, String descriptor, boolean isStatic);
+
+    // The default constructor, which only calls the one of the super class
+    default void constructor(String superClassName) {
+        this.beginMethod("<init>", "()V", false);
+        this.instruction("aload_0");
+        this.invoke("invokespecial", superClassName, "<init>", "()V");
+        this.instruction("return");
+        this.endMethod(1, 1);
+    }
+
+    // Source line of the code emitted next; only used by emitters that need it
+    default void line(int line) {
+    }
+
+    // Instructions without operands: iadd, aload_0, iconst_1, dup, ireturn...
+    void instruction(String opcode);
+
+    // Instructions with an int operand: iload, istore, aload, astore, bipush, sipush, ldc
+    void instruction(String opcode, int operand);
+
+    void iinc(int index, int increment);
+
+    // ifeq, iflt, if_icmplt, goto...
+    void jump(String opcode, String label);
+
+    void label(String label);
+
+    // Separates the statements in the text of the code; ignored by the binary backends
+    default void blankLine() {
+    }
+
+    void newObject(String className);
+
+    void newIntArray();
+
+    // getfield, putfield
+    void fieldInstruction(String opcode, String owner, String name, String descriptor);
+
+    // invokevirtual, invokespecial, invokestatic
+    void invoke(String opcode, String owner, String name, String descriptor);
+
+    void endMethod(int maxStack, int maxLocals);
+
+    void endClass();
+}
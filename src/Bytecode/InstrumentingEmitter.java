@@ -0,0 +1,212 @@
+package Bytecode;
+
+import Profile.CounterMap;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * Passes the code on to another emitter, adding counters of how often each method is called,
+ * each basic block is entered and each conditional branch is taken or not.
+ *
+ * The counters are a static int[] of the class, created and registered with Profile.Counters by
+ * a static initialiser. A taken branch jumps to a stub at the end of the method, which counts it
+ * and jumps to the original target.
+ */
+public class InstrumentingEmitter implements Emitter {
+
+    private static final String COUNTERS_FIELD = "$counters$";
+    private static final String COUNTERS_DESCRIPTOR = "[I";
+    private static final String RUNTIME_CLASS = "Profile/Counters";
+    private static final String TAKEN_LABEL = "profile_taken_";
+    // getstatic, index, dup2, iaload, iconst_1
+    private static final int COUNTER_STACK = 4;
+
+    private final Emitter emitter;
+    private final CounterMap counterMap;
+
+    private String className;
+    private int line = 0;
+
+    private String method;
+    private int methodCounter;
+    private boolean blockStart;
+    private final List<TakenBranch> takenBranches = new ArrayList<>();
+
+    public InstrumentingEmitter(Emitter emitter, CounterMap counterMap) {
+        this.emitter = emitter;
+        this.counterMap = counterMap;
+    }
+
+    @Override
+    public void beginClass(String className, String superClassName) {
+        this.className = className;
+
+        this.emitter.beginClass(className, superClassName);
+        this.emitter.field(COUNTERS_FIELD, COUNTERS_DESCRIPTOR, true);
+    }
+
+    @Override
+    public void field(String name, String descriptor, boolean isStatic) {
+        this.emitter.field(name, descriptor, isStatic);
+    }
+
+    @Override
+    public void beginMethod(String name, String descriptor, boolean isStatic) {
+        this.emitter.beginMethod(name, descriptor, isStatic);
+
+        this.method = name + descriptor;
+        this.line = 0;
+        this.blockStart = false;
+        this.takenBranches.clear();
+
+        this.methodCounter = this.counterMap.add(CounterMap.METHOD, this.method, 0);
+        this.count(this.methodCounter);
+    }
+
+    @Override
+    public void line(int line) {
+        // The method counter comes before any code, so it takes the first line of the method
+        if (this.counterMap.getCounters().get(this.methodCounter).getLine() == 0)
+            this.counterMap.getCounters().get(this.methodCounter).setLine(line);
+
+        this.line = line;
+        this.emitter.line(line);
+    }
+
+    @Override
+    public void instruction(String opcode) {
+        this.countBlock();
+        this.emitter.instruction(opcode);
+    }
+
+    @Override
+    public void instruction(String opcode, int operand) {
+        this.countBlock();
+        this.emitter.instruction(opcode, operand);
+    }
+
+    @Override
+    public void iinc(int index, int increment) {
+        this.countBlock();
+        this.emitter.iinc(index, increment);
+    }
+
+    @Override
+    public void jump(String opcode, String label) {
+        this.countBlock();
+
+        if (opcode.equals("goto")) {
+            this.emitter.jump(opcode, label);
+            return;
+        }
+
+        TakenBranch takenBranch = new TakenBranch(TAKEN_LABEL + this.takenBranches.size(),
+                this.counterMap.add(CounterMap.TAKEN, this.method, this.line), label);
+        this.takenBranches.add(takenBranch);
+
+        this.emitter.jump(opcode, takenBranch.stub);
+        this.count(this.counterMap.add(CounterMap.NOT_TAKEN, this.method, this.line));
+    }
+
+    // Several labels in a row start a single block, which is counted before its first instruction
+    @Override
+    public void label(String label) {
+        this.emitter.label(label);
+        this.blockStart = true;
+    }
+
+    @Override
+    public void blankLine() {
+        this.emitter.blankLine();
+    }
+
+    @Override
+    public void newObject(String className) {
+        this.countBlock();
+        this.emitter.newObject(className);
+    }
+
+    @Override
+    public void newIntArray() {
+        this.countBlock();
+        this.emitter.newIntArray();
+    }
+
+    @Override
+    public void fieldInstruction(String opcode, String owner, String name, String descriptor) {
+        this.countBlock();
+        this.emitter.fieldInstruction(opcode, owner, name, descriptor);
+    }
+
+    @Override
+    public void invoke(String opcode, String owner, String name, String descriptor) {
+        this.countBlock();
+        this.emitter.invoke(opcode, owner, name, descriptor);
+    }
+
+    @Override
+    public void endMethod(int maxStack, int maxLocals) {
+        for (TakenBranch takenBranch : this.takenBranches) {
+            this.emitter.label(takenBranch.stub);
+            this.count(takenBranch.counter);
+            this.emitter.jump("goto", takenBranch.target);
+        }
+
+        this.emitter.endMethod(maxStack + COUNTER_STACK, maxLocals);
+    }
+
+    @Override
+    public void endClass() {
+        this.emitter.beginMethod("<clinit>", "()V", true);
+        this.pushInt(this.counterMap.getCounters().size());
+        this.emitter.newIntArray();
+        this.emitter.instruction("dup");
+        this.emitter.fieldInstruction("putstatic", this.className, COUNTERS_FIELD, COUNTERS_DESCRIPTOR);
+        this.emitter.invoke("invokestatic", RUNTIME_CLASS, "register", "([I)V");
+        this.emitter.instruction("return");
+        this.emitter.endMethod(2, 0);
+
+        this.emitter.endClass();
+    }
+
+    private void countBlock() {
+        if (!this.blockStart)
+            return;
+
+        this.blockStart = false;
+        this.count(this.counterMap.add(CounterMap.BLOCK, this.method, this.line));
+    }
+
+    // counters[counter]++
+    private void count(int counter) {
+        this.emitter.fieldInstruction("getstatic", this.className, COUNTERS_FIELD, COUNTERS_DESCRIPTOR);
+        this.pushInt(counter);
+        this.emitter.instruction("dup2");
+        this.emitter.instruction("iaload");
+        this.emitter.instruction("iconst_1");
+        this.emitter.instruction("iadd");
+        this.emitter.instruction("iastore");
+    }
+
+    private void pushInt(int value) {
+        if (value <= Byte.MAX_VALUE)
+            this.emitter.instruction("bipush", value);
+        else if (value <= Short.MAX_VALUE)
+            this.emitter.instruction("sipush", value);
+        else
+            this.emitter.instruction("ldc", value);
+    }
+
+    private static class TakenBranch {
+        private final String stub;
+        private final int counter;
+        private final String target;
+
+        private TakenBranch(String stub, int counter, String target) {
+            this.stub = stub;
+            this.counter = counter;
+            this.target = target;
+        }
+    }
+}
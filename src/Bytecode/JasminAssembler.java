@@ -0,0 +1,29 @@
+package Bytecode;
+
+import jasmin.ClassFile;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Reader;
+
+// Runs the bundled Jasmin assembler in this process, from a stream and without temporary files
+public class JasminAssembler {
+
+    // Jasmin's scanner keeps part of its state in static fields, so only one class is assembled at a time
+    private static final Object LOCK = new Object();
+
+    // sourceName is only used in the SourceFile attribute and in error messages
+    public static byte[] assemble(Reader code, String sourceName) throws Exception {
+        ClassFile classFile = new ClassFile();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        synchronized (LOCK) {
+            classFile.readJasmin(code, sourceName, false);
+            if (classFile.errorCount() > 0)
+                throw new Exception(sourceName + ": Jasmin found " + classFile.errorCount() + " errors");
+
+            classFile.write(bytes);
+        }
+
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,187 @@
+package Bytecode;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+
+/*
+ * Jasmin assembly text, kept for debugging and for the Jasmin based toolchain.
+ *
+ * The code is streamed into the writer as it is generated; only the body of the current
+ * method is buffered, because its .limit directives have to come first.
+ */
+public class JasminEmitter implements Emitter {
+
+    private static final String INDENTATION = "\t";
+
+    private final Writer output;
+    private final StringBuilder methodBody = new StringBuilder();
+    private String methodHeader;
+    private boolean fields;
+    private int spacedLabels;
+
+    public JasminEmitter(Writer output) {
+        this.output = output;
+    }
+
+    @Override
+    public void beginClass(String className, String superClassName) {
+        StringBuilder header = new StringBuilder();
+
+        header.append(".class public '").append(className).append("'\n");
+        header.append(".super ");
+        if (superClassName != null)
+            header.append("'").append(superClassName).append("'");
+        else
+            header.append("java/lang/Object");
+        header.append("\n\n");
+
+        this.write(header);
+        this.fields = true;
+    }
+
+    @Override
+    public void field(String name, String descriptor, boolean isStatic) {
+        this.write(".field public " + (isStatic ? "static " : "") + "'" + name + "' " + quote(descriptor) + "\n");
+    }
+
+    // Written as the original code generator did, without limits
+    @Override
+    public void constructor(String superClassName) {
+        this.endFields();
+        this.write(".method <init>()V\n");
+        this.write(INDENTATION + "aload_0\n");
+        this.write(INDENTATION + "invokenonvirtual " + superClassName + "/<init>()V\n");
+        this.write(INDENTATION + "return\n");
+        this.write(".end method\n\n");
+        this.methodHeader = null;
+    }
+
+    @Override
+    public void beginMethod(String name, String descriptor, boolean isStatic) {
+        this.endFields();
+        this.methodHeader = ".method public " + (isStatic ? "static " : "") + name + quote(descriptor) + "\n";
+        this.methodBody.setLength(0);
+    }
+
+    @Override
+    public void instruction(String opcode) {
+        this.methodBody.append(INDENTATION).append(opcode).append("\n");
+    }
+
+    @Override
+    public void instruction(String opcode, int operand) {
+        this.methodBody.append(INDENTATION).append(opcode).append(" ").append(operand).append("\n");
+    }
+
+    @Override
+    public void iinc(int index, int increment) {
+        this.methodBody.append(INDENTATION).append("iinc ").append(index).append(" ").append(increment).append("\n");
+    }
+
+    @Override
+    public void jump(String opcode, String label) {
+        this.methodBody.append(INDENTATION).append(opcode).append(" ").append(label).append("\n");
+
+        // The original code generator wrote the two labels of an int comparison followed by a space
+        if (opcode.equals("if_icmplt"))
+            this.spacedLabels = 2;
+    }
+
+    @Override
+    public void label(String label) {
+        this.methodBody.append(label).append(this.spacedLabels > 0 ? ": \n" : ":\n");
+        if (this.spacedLabels > 0)
+            this.spacedLabels--;
+    }
+
+    @Override
+    public void blankLine() {
+        if (this.methodHeader != null)
+            this.methodBody.append("\n");
+        else
+            this.write("\n");
+    }
+
+    @Override
+    public void newObject(String className) {
+        this.methodBody.append(INDENTATION).append("new '").append(className).append("'\n");
+    }
+
+    @Override
+    public void newIntArray() {
+        this.methodBody.append(INDENTATION).append("newarray int\n");
+    }
+
+    @Override
+    public void fieldInstruction(String opcode, String owner, String name, String descriptor) {
+        this.methodBody.append(INDENTATION).append(opcode).append(" ").append(owner).append("/").append(name)
+                .append(" ").append(quote(descriptor)).append("\n");
+    }
+
+    @Override
+    public void invoke(String opcode, String owner, String name, String descriptor) {
+        this.methodBody.append(INDENTATION).append(opcode).append(" ").append(owner).append("/").append(name)
+                .append(quote(descriptor)).append("\n");
+    }
+
+    @Override
+    public void endMethod(int maxStack, int maxLocals) {
+        // The limits are only known once the body is generated, but go before it
+        this.write(this.methodHeader);
+        this.write(INDENTATION + ".limit stack " + maxStack + "\n");
+        this.write(INDENTATION + ".limit locals " + maxLocals + "\n\n");
+        this.write(this.methodBody);
+        this.write(".end method\n\n");
+        this.methodHeader = null;
+    }
+
+    @Override
+    public void endClass() {
+        this.endFields();
+        this.write("\n");
+        try {
+            this.output.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // A blank line separates the fields from the methods
+    private void endFields() {
+        if (this.fields)
+            this.write("\n");
+        this.fields = false;
+    }
+
+    private void write(CharSequence text) {
+        try {
+            this.output.append(text);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Class types are quoted, so that class names clashing with Jasmin keywords still assemble
+    private static String quote(String descriptor) {
+        StringBuilder stringBuilder = new StringBuilder();
+
+        for (int i = 0; i < descriptor.length(); i++) {
+            char c = descriptor.charAt(i);
+
+            if (c != 'L') {
+                stringBuilder.append(c);
+                continue;
+            }
+
+            int end = descriptor.indexOf(';', i) + 1;
+            if (i > 0 && descriptor.charAt(i - 1) == '[') // Jasmin does not accept quotes after '['
+                stringBuilder.append(descriptor, i, end);
+            else
+                stringBuilder.append("'").append(descriptor, i, end).append("'");
+            i = end - 1;
+        }
+
+        return stringBuilder.toString();
+    }
+}
@@ -0,0 +1,99 @@
+package Bytecode;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/*
+ * Records the code of one method, so that methods can be generated independently
+ * and then replayed into the class emitter in declaration order.
+ */
+public class MethodRecorder implements Emitter {
+
+    private final List<Consumer<Emitter>> calls = new ArrayList<>();
+
+    public void replay(Emitter emitter) {
+        for (Consumer<Emitter> call : this.calls)
+            call.accept(emitter);
+    }
+
+    @Override
+    public void beginClass(String className, String superClassName) {
+        throw new UnsupportedOperationException("Only methods can be recorded");
+    }
+
+    @Override
+    public void field(String name, String descriptor, boolean isStatic) {
+        throw new UnsupportedOperationException("Only methods can be recorded");
+    }
+
+    @Override
+    public void beginMethod(String name, String descriptor, boolean isStatic) {
+        this.calls.add(emitter -> emitter.beginMethod(name, descriptor, isStatic));
+    }
+
+    @Override
+    public void line(int line) {
+        this.calls.add(emitter -> emitter.line(line));
+    }
+
+    @Override
+    public void instruction(String opcode) {
+        this.calls.add(emitter -> emitter.instruction(opcode));
+    }
+
+    @Override
+    public void instruction(String opcode, int operand) {
+        this.calls.add(emitter -> emitter.instruction(opcode, operand));
+    }
+
+    @Override
+    public void iinc(int index, int increment) {
+        this.calls.add(emitter -> emitter.iinc(index, increment));
+    }
+
+    @Override
+    public void jump(String opcode, String label) {
+        this.calls.add(emitter -> emitter.jump(opcode, label));
+    }
+
+    @Override
+    public void label(String label) {
+        this.calls.add(emitter -> emitter.label(label));
+    }
+
+    @Override
+    public void blankLine() {
+        this.calls.add(Emitter::blankLine);
+    }
+
+    @Override
+    public void newObject(String className) {
+        this.calls.add(emitter -> emitter.newObject(className));
+    }
+
+    @Override
+    public void newIntArray() {
+        this.calls.add(Emitter::newIntArray);
+    }
+
+    @Override
+    public void fieldInstruction(String opcode, String owner, String name, String descriptor) {
+        this.calls.add(emitter -> emitter.fieldInstruction(opcode, owner, name, descriptor));
+    }
+
+    @Override
+    public void invoke(String opcode, String owner, String name, String descriptor) {
+        this.calls.add(emitter -> emitter.invoke(opcode, owner, name, descriptor));
+    }
+
+    @Override
+    public void endMethod(int maxStack, int maxLocals) {
+        this.calls.add(emitter -> emitter.endMethod(maxStack, maxLocals));
+    }
+
+    @Override
+    public void endClass() {
+        throw new UnsupportedOperationException("Only methods can be recorded");
+    }
+}
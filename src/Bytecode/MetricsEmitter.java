@@ -0,0 +1,142 @@
+package Bytecode;
+
+/*
+ * Passes the code on to another emitter while measuring each method.
+ *
+ * Code sizes come from a class file written alongside, so they are exact whatever the backend.
+ */
+public class MetricsEmitter implements Emitter {
+
+    private Emitter emitter;
+    private final ClassMetrics metrics;
+    private final ClassFileEmitter classFile = new ClassFileEmitter();
+
+    private String method;
+    private ClassMetrics.MethodMetrics methodMetrics;
+
+    public MetricsEmitter(Emitter emitter, ClassMetrics metrics) {
+        this.emitter = emitter;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void beginClass(String className, String superClassName) {
+        this.emitter.beginClass(className, superClassName);
+        this.classFile.beginClass(className, superClassName);
+    }
+
+    @Override
+    public void field(String name, String descriptor, boolean isStatic) {
+        this.emitter.field(name, descriptor, isStatic);
+        this.classFile.field(name, descriptor, isStatic);
+    }
+
+    @Override
+    public void beginMethod(String name, String descriptor, boolean isStatic) {
+        this.emitter.beginMethod(name, descriptor, isStatic);
+        this.classFile.beginMethod(name, descriptor, isStatic);
+
+        this.method = name + descriptor;
+        this.methodMetrics = new ClassMetrics.MethodMetrics();
+    }
+
+    // The backend writes its own constructor, which is measured as any other method
+    @Override
+    public void constructor(String superClassName) {
+        this.emitter.constructor(superClassName);
+
+        Emitter emitter = this.emitter;
+        this.emitter = new MethodRecorder();
+        Emitter.super.constructor(superClassName);
+        this.emitter = emitter;
+    }
+
+    @Override
+    public void line(int line) {
+        this.emitter.line(line);
+    }
+
+    @Override
+    public void instruction(String opcode) {
+        this.emitter.instruction(opcode);
+        this.classFile.instruction(opcode);
+        this.methodMetrics.countInstruction();
+    }
+
+    @Override
+    public void instruction(String opcode, int operand) {
+        this.emitter.instruction(opcode, operand);
+        this.classFile.instruction(opcode, operand);
+        this.methodMetrics.countInstruction();
+    }
+
+    @Override
+    public void iinc(int index, int increment) {
+        this.emitter.iinc(index, increment);
+        this.classFile.iinc(index, increment);
+        this.methodMetrics.countInstruction();
+    }
+
+    @Override
+    public void jump(String opcode, String label) {
+        this.emitter.jump(opcode, label);
+        this.classFile.jump(opcode, label);
+        this.methodMetrics.countInstruction();
+        if (!opcode.equals("goto"))
+            this.methodMetrics.countBranch();
+    }
+
+    @Override
+    public void label(String label) {
+        this.emitter.label(label);
+        this.classFile.label(label);
+        this.methodMetrics.countLabel();
+    }
+
+    @Override
+    public void blankLine() {
+        this.emitter.blankLine();
+    }
+
+    @Override
+    public void newObject(String className) {
+        this.emitter.newObject(className);
+        this.classFile.newObject(className);
+        this.methodMetrics.countInstruction();
+    }
+
+    @Override
+    public void newIntArray() {
+        this.emitter.newIntArray();
+        this.classFile.newIntArray();
+        this.methodMetrics.countInstruction();
+    }
+
+    @Override
+    public void fieldInstruction(String opcode, String owner, String name, String descriptor) {
+        this.emitter.fieldInstruction(opcode, owner, name, descriptor);
+        this.classFile.fieldInstruction(opcode, owner, name, descriptor);
+        this.methodMetrics.countInstruction();
+    }
+
+    @Override
+    public void invoke(String opcode, String owner, String name, String descriptor) {
+        this.emitter.invoke(opcode, owner, name, descriptor);
+        this.classFile.invoke(opcode, owner, name, descriptor);
+        this.methodMetrics.countInstruction();
+    }
+
+    @Override
+    public void endMethod(int maxStack, int maxLocals) {
+        this.emitter.endMethod(maxStack, maxLocals);
+        this.classFile.endMethod(maxStack, maxLocals);
+
+        this.methodMetrics.setSize(this.classFile.getCodeLength(), maxStack, maxLocals);
+        this.metrics.addMethod(this.method, this.methodMetrics);
+    }
+
+    @Override
+    public void endClass() {
+        this.emitter.endClass();
+    }
+}
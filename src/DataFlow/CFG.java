@@ -3,7 +3,9 @@ package DataFlow;
 import Types.NodeName;
 import main.FunctionDescriptor;
 import main.TypeDescriptor;
+import parser.ASTIdentifier;
 import parser.Node;
+import parser.ParserDefaultVisitor;
 import parser.SimpleNode;
 
 import javax.lang.model.element.TypeElement;
@@ -25,6 +27,8 @@ public class CFG {
     private ArrayList<HashSet<TypeDescriptor>> in;
     private ArrayList<HashSet<TypeDescriptor>> out;
 
+    private final UseCollector useCollector = new UseCollector();
+
     public CFG(FunctionDescriptor functionDescriptor) {
         this.functionDescriptor = functionDescriptor;
 
@@ -52,7 +56,7 @@ public class CFG {
         for (int i = 0; i < this.methodBodyNode.jjtGetNumChildren(); i++) {
 
             SimpleNode statement = this.methodBodyNode.getChild(i);
-            if (statement.getNodeName().equals(NodeName.VARDECLARATION)) //Ignoring Var declarations
+            if (statement.getId() == NodeName.VARDECLARATION) //Ignoring Var declarations
                 continue;
 
             index = this.buildStatement(index, statement) + 1;
@@ -63,7 +67,7 @@ public class CFG {
     private int buildStatement(int index, SimpleNode statement) {
         this.initializeSet(index);
 
-        switch (statement.getNodeName()) {
+        switch (statement.getId()) {
             case NodeName.ASSIGNMENT: {
                 this.buildAssignment(index, statement);
                 this.setNormalPred(index, statement);
@@ -90,7 +94,7 @@ public class CFG {
         SimpleNode leftSide = assignmentNode.getChild(0);
         SimpleNode rightSide = assignmentNode.getChild(1);
 
-        if (leftSide.getNodeName().equals(NodeName.IDENTIFIER)) {
+        if (leftSide.getId() == NodeName.IDENTIFIER) {
             TypeDescriptor typeDescriptor = this.functionDescriptor.getTypeDescriptor(leftSide.jjtGetVal());
             if (typeDescriptor != null && !typeDescriptor.isClassField())
                 this.def.get(index).add(typeDescriptor);
@@ -125,11 +129,11 @@ public class CFG {
             this.pred.get(index).add(index - 1);
             this.succ.get(index - 1).add(index);
 
-            if (childNo == (ifBlockNode.jjtGetNumChildren() - 1) && !node.getNodeName().equals(NodeName.IF)) {
+            if (childNo == (ifBlockNode.jjtGetNumChildren() - 1) && node.getId() != NodeName.IF) {
                 lastIfBlockStatement = index;
             }
 
-            switch (node.getNodeName()) {
+            switch (node.getId()) {
                 case NodeName.ASSIGNMENT: {
                     this.buildAssignment(index, node);
                     break;
@@ -169,11 +173,11 @@ public class CFG {
                     this.succ.get(index - 1).add(index);
                 }
 
-                if (childNo == (elseNode.jjtGetNumChildren() - 1) && !node.getNodeName().equals(NodeName.IF)) {
+                if (childNo == (elseNode.jjtGetNumChildren() - 1) && node.getId() != NodeName.IF) {
                     lastElseBlockStatement = index;
                 }
 
-                switch (node.getNodeName()) {
+                switch (node.getId()) {
                     case NodeName.ASSIGNMENT: {
                         this.buildAssignment(index, node);
                         break;
@@ -196,7 +200,7 @@ public class CFG {
             }
         }
 
-        if (( ifStatement.getParent() == this.methodBodyNode && !this.isLastStatement(ifStatement) ) || (!this.isLastChild(ifStatement) && !ifStatement.getParent().getNodeName().equals(NodeName.WHILE))) {
+        if (( ifStatement.getParent().equals(this.methodBodyNode) && !this.isLastStatement(ifStatement) ) || (!this.isLastChild(ifStatement) && ifStatement.getParent().getId() != NodeName.WHILE)) {
             index++;
             this.initializeSet(index);
 
@@ -250,13 +254,13 @@ public class CFG {
             this.pred.get(index).add(index - 1);
             this.succ.get(index - 1).add(index);
 
-            if (childNo == blockNode.jjtGetNumChildren() - 1 && !node.getNodeName().equals(NodeName.IF)) {
+            if (childNo == blockNode.jjtGetNumChildren() - 1 && node.getId() != NodeName.IF) {
                 this.succ.get(index).add(conditionIndex);
                 this.pred.get(conditionIndex).add(index);
             }
 
 
-            switch (node.getNodeName()) {
+            switch (node.getId()) {
                 case NodeName.ASSIGNMENT: {
                     this.buildAssignment(index, node);
                     break;
@@ -297,7 +301,7 @@ public class CFG {
     }
 
     private boolean isLastChild(SimpleNode node) {
-        return node == node.getParent().getChild(node.getParent().jjtGetNumChildren() - 1);
+        return node.equals(node.getParent().getChild(node.getParent().jjtGetNumChildren() - 1));
     }
 
     private void setNormalPred(int index, SimpleNode statementNode) {
@@ -326,35 +330,26 @@ public class CFG {
     }
 
     private void buildUse(int index, SimpleNode statement) {
-        if (statement.jjtGetNumChildren() == 0) {
-            if (statement.getNodeName().equals(NodeName.IDENTIFIER)) {
-                TypeDescriptor typeDescriptor = this.functionDescriptor.getTypeDescriptor(statement.jjtGetVal());
-                if (typeDescriptor != null && !typeDescriptor.isClassField())
-                    this.use.get(index).add(typeDescriptor);
-            }
-            return;
-        }
-
-        for (Node node : statement.jjtGetChildren()) {
-            SimpleNode child = (SimpleNode) node;
-
-            this.buildUse(index, child);
+        try {
+            statement.jjtAccept(this.useCollector, index);
+        } catch (Exception e) {
+            throw new IllegalStateException(e); // The collector throws nothing
         }
     }
 
     private boolean isLastStatement(SimpleNode statementNode) {
-        return statementNode == this.methodBodyNode.getChild(this.methodBodyNode.jjtGetNumChildren() - 1);
+        return statementNode.equals(this.methodBodyNode.getChild(this.methodBodyNode.jjtGetNumChildren() - 1));
     }
 
     private boolean isFirstStatement(SimpleNode statementNode) {
-        return statementNode == this.getFirstStatement();
+        return statementNode.equals(this.getFirstStatement());
     }
 
     private SimpleNode getFirstStatement() {
         for (Node n : this.methodBodyNode.jjtGetChildren()) {
             SimpleNode statement = (SimpleNode) n;
 
-            if (!statement.getNodeName().equals(NodeName.VARDECLARATION)) //Ignoring Var declarations
+            if (statement.getId() != NodeName.VARDECLARATION) //Ignoring Var declarations
                 return statement;
         }
 
@@ -384,7 +379,7 @@ public class CFG {
 
     private SimpleNode getMethodBodyNode(SimpleNode methodNode) throws Exception {
         for (Node child : methodNode.jjtGetChildren()) {
-            if (((SimpleNode) child).getNodeName().equals(NodeName.METHODBODY)) {
+            if (((SimpleNode) child).getId() == NodeName.METHODBODY) {
                 return ((SimpleNode) child);
             }
         }
@@ -450,6 +445,10 @@ public class CFG {
         return true;
     }
 
+    public int getNumNodes() {
+        return this.in == null ? 0 : this.in.size();
+    }
+
     public HashSet<TypeDescriptor> calcLiveRanges() {
         HashSet<TypeDescriptor> result = new HashSet<>();
 
@@ -465,4 +464,18 @@ public class CFG {
 
         return result;
     }
+
+    // Adds the local variables read under a node to the use set of the CFG node given as data
+    private class UseCollector extends ParserDefaultVisitor {
+        @Override
+        public Object visit(ASTIdentifier node, Object data) throws Exception {
+            if (node.jjtGetNumChildren() > 0)
+                return node.childrenAccept(this, data);
+
+            TypeDescriptor typeDescriptor = functionDescriptor.getTypeDescriptor(node.jjtGetVal());
+            if (typeDescriptor != null && !typeDescriptor.isClassField())
+                use.get((Integer) data).add(typeDescriptor);
+            return data;
+        }
+    }
 }
@@ -1,12 +1,17 @@
 package DataFlow;
 
+import events.CompilerEvent;
+import events.MethodEvent;
 import main.FunctionDescriptor;
 import main.SymbolTables;
 import main.TypeDescriptor;
 
 import java.util.ArrayList;
 import java.util.HashSet;
-import java.util.Map;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.LongAdder;
 
 public class DataFlowAnalyser {
 
@@ -15,6 +20,11 @@ public class DataFlowAnalyser {
     private SymbolTables symbolTables;
     private final int maxNumRegisters;
     private final boolean optimizationMode;
+    private boolean parallel = false;
+
+    // Totals over every method, updated by the per-method tasks
+    private final LongAdder numCFGNodes = new LongAdder();
+    private final LongAdder numInterferenceEdges = new LongAdder();
 
     public DataFlowAnalyser(SymbolTables symbolTables, int maxNumRegisters, boolean optimizationMode) {
         this.symbolTables = symbolTables;
@@ -22,29 +32,81 @@ public class DataFlowAnalyser {
         this.optimizationMode = optimizationMode;
     }
 
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+
     public void analyse() throws Exception {
-        for (Map.Entry<String, FunctionDescriptor> entry : symbolTables.getMethods().entrySet()) {
-            CFG cfg = new CFG(entry.getValue());
+        List<FunctionDescriptor> methods = new ArrayList<>(symbolTables.getMethods().values());
+        List<String> failures = new ArrayList<>();
 
-            if (this.maxNumRegisters != DEFAULT_NUM_REGISTERS && this.maxNumRegisters < entry.getValue().getNumLocals()) {
-                cfg.calcLiveness();
-                HashSet<TypeDescriptor> locals = cfg.calcLiveRanges();
+        if (!this.parallel || methods.size() < 2) {
+            for (FunctionDescriptor method : methods)
+                this.addFailure(failures, this.analyseMethod(method));
+        } else {
+            // Every method has its own CFG and locals, so they are allocated independently
+            List<ForkJoinTask<String>> tasks = new ArrayList<>();
+            for (FunctionDescriptor method : methods)
+                tasks.add(ForkJoinPool.commonPool().submit(() -> this.analyseMethod(method)));
 
-                InterferenceGraph ig = new InterferenceGraph(cfg, locals);
+            for (ForkJoinTask<String> task : tasks)
+                this.addFailure(failures, task.join());
+        }
 
-                try {
-                    ig.colorGraph(this.maxNumRegisters);
-                } catch (Exception e) {
-                    throw new Exception("Method " + entry.getValue().getMethodName() + " requires more than " + this.maxNumRegisters + " registers.");
-                }
+        if (!failures.isEmpty())
+            throw new Exception(String.join("\n", failures));
+    }
 
-                this.setRegisters(ig.getNodes());
-            }
+    // Returns why the method could not be allocated, or null
+    private String analyseMethod(FunctionDescriptor method) {
+        MethodEvent event = new MethodEvent();
+        event.begin();
+
+        String failure = this.allocateRegisters(method);
+        event.commit(MethodEvent.DATAFLOW, this.symbolTables.getClassName(), method.getMethodName(), method.getMethodNode(),
+                failure == null ? CompilerEvent.SUCCESS : CompilerEvent.FAILURE);
+
+        return failure;
+    }
+
+    private String allocateRegisters(FunctionDescriptor method) {
+        CFG cfg = new CFG(method);
+        this.numCFGNodes.add(cfg.getNumNodes());
+
+        if (this.maxNumRegisters != DEFAULT_NUM_REGISTERS && this.maxNumRegisters < method.getNumLocals()) {
+            cfg.calcLiveness();
+            HashSet<TypeDescriptor> locals = cfg.calcLiveRanges();
 
-            if (this.optimizationMode) {
-                //TODO use CFG created to do optimizations
+            InterferenceGraph ig = new InterferenceGraph(cfg, locals, method.getParams().values());
+            this.numInterferenceEdges.add(ig.getNumEdges());
+
+            try {
+                ig.colorGraph(this.maxNumRegisters);
+            } catch (Exception e) {
+                return "Method " + method.getMethodName() + " requires more than " + this.maxNumRegisters + " registers.";
             }
+
+            this.setRegisters(ig.getNodes());
+        }
+
+        if (this.optimizationMode) {
+            //TODO use CFG created to do optimizations
         }
+
+        return null;
+    }
+
+    public long getNumCFGNodes() {
+        return this.numCFGNodes.sum();
+    }
+
+    public long getNumInterferenceEdges() {
+        return this.numInterferenceEdges.sum();
+    }
+
+    private void addFailure(List<String> failures, String failure) {
+        if (failure != null)
+            failures.add(failure);
     }
 
     public void setRegisters(ArrayList<Node> nodes) {
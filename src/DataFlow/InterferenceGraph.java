@@ -3,6 +3,8 @@ package DataFlow;
 import main.TypeDescriptor;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.HashSet;
 import java.util.Stack;
 
@@ -11,25 +13,26 @@ public class InterferenceGraph {
     private ArrayList<Node> nodes;
     private Stack<Node> stack;
 
-    public InterferenceGraph(CFG cfg, HashSet<TypeDescriptor> locals) {
+    public InterferenceGraph(CFG cfg, HashSet<TypeDescriptor> locals, Collection<TypeDescriptor> params) {
         this.nodes = new ArrayList<>();
         this.stack = new Stack<>();
 
         this.parseNodes(locals);
 
-        int index = 1;
+        // Parameters are passed in fixed registers
         for (Node node : this.nodes) {
+            if (params.contains(node.getTypeDescriptor()))
+                node.setColor(node.getTypeDescriptor().getIndex() - 1);
+        }
 
-            if (index == locals.size() - 1)
-                break;
+        for (int i = 0; i < this.nodes.size(); i++) {
+            Node node = this.nodes.get(i);
 
-            for (int i = index; i < locals.size() - 1; i++) {
-                if (hasInterference(node.getTypeDescriptor(), this.nodes.get(i).getTypeDescriptor())) {
-                    node.addNeighbour(this.nodes.get(i));
+            for (int j = i + 1; j < this.nodes.size(); j++) {
+                if (hasInterference(node.getTypeDescriptor(), this.nodes.get(j).getTypeDescriptor())) {
+                    node.addNeighbour(this.nodes.get(j));
                 }
             }
-
-            index++;
         }
     }
 
@@ -40,6 +43,11 @@ public class InterferenceGraph {
             throw new Exception();
         }
 
+        for (Node node : this.nodes) {
+            if (node.getColor() >= k)
+                throw new Exception();
+        }
+
         while (!stack.isEmpty()) {
             Node node = stack.pop();
             node.colorNode(k);
@@ -79,10 +87,21 @@ public class InterferenceGraph {
         for (TypeDescriptor local : locals) {
             this.nodes.add(new Node(local));
         }
+
+        // Hash order depends on identity hash codes, which differ between threads and runs
+        this.nodes.sort(Comparator.comparingInt(node -> node.getTypeDescriptor().getIndex()));
     }
 
     public boolean hasInterference(TypeDescriptor var1, TypeDescriptor var2) {
-        return Math.max(var1.getLivenessBeginning(), var2.getLivenessBeginning()) < Math.min(var1.getLivenessEnding(), var2.getLivenessEnding());
+        return Math.max(var1.getLivenessBeginning(), var2.getLivenessBeginning()) <= Math.min(var1.getLivenessEnding(), var2.getLivenessEnding());
+    }
+
+    public int getNumEdges() {
+        int sum = 0;
+        for (Node node : this.nodes)
+            sum += node.getNeighbours().size();
+
+        return sum / 2; // Every edge is in the neighbours of both of its nodes
     }
 
     public ArrayList<Node> getNodes() {
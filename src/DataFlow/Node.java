@@ -2,6 +2,7 @@ package DataFlow;
 
 import main.TypeDescriptor;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 
 public class Node {
     private TypeDescriptor typeDescriptor;
@@ -11,7 +12,7 @@ public class Node {
     private boolean isCut = false;
 
     public Node(TypeDescriptor typeDescriptor) {
-        this.neighbours = new HashSet<>();
+        this.neighbours = new LinkedHashSet<>(); // Keeps simplify() deterministic
         this.typeDescriptor = typeDescriptor;
     }
 
@@ -66,7 +67,14 @@ public class Node {
         return sum;
     }
 
+    public void setColor(int color) {
+        this.color = color;
+    }
+
     public void colorNode(int k) throws Exception {
+        if (this.isColored())
+            return;
+
         HashSet<Integer> colorsUsed = new HashSet<>();
 
         for (Node neighbour : this.neighbours) {
@@ -0,0 +1,88 @@
+package Profile;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * What each counter of an instrumented class counts, written next to the class as <Class>.counters.
+ *
+ * One counter per line: its index in the counters array, its kind, the method and the source line.
+ */
+public class CounterMap {
+
+    public static final String EXTENSION = ".counters";
+
+    public static final String METHOD = "method";
+    public static final String BLOCK = "block";
+    public static final String TAKEN = "taken";
+    public static final String NOT_TAKEN = "not-taken";
+
+    private final List<Counter> counters = new ArrayList<>();
+
+    // Returns the index of the new counter
+    public int add(String kind, String method, int line) {
+        this.counters.add(new Counter(kind, method, line));
+        return this.counters.size() - 1;
+    }
+
+    public List<Counter> getCounters() {
+        return this.counters;
+    }
+
+    public void write(Path file) throws IOException {
+        StringBuilder contents = new StringBuilder();
+        for (int i = 0; i < this.counters.size(); i++) {
+            Counter counter = this.counters.get(i);
+            contents.append(i).append(' ').append(counter.kind).append(' ').append(counter.method).append(' ')
+                    .append(counter.line).append('\n');
+        }
+
+        Files.write(file, contents.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static CounterMap read(Path file) throws IOException {
+        CounterMap counterMap = new CounterMap();
+
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            String[] fields = line.split(" ");
+            if (fields.length == 4)
+                counterMap.add(fields[1], fields[2], Integer.parseInt(fields[3]));
+        }
+
+        return counterMap;
+    }
+
+    public static class Counter {
+        private final String kind;
+        private final String method;
+        private int line;
+
+        private Counter(String kind, String method, int line) {
+            this.kind = kind;
+            this.method = method;
+            this.line = line;
+        }
+
+        public String getKind() {
+            return kind;
+        }
+
+        // Name and descriptor, e.g. main([Ljava/lang/String;)V
+        public String getMethod() {
+            return method;
+        }
+
+        // 0 if the counter has no source line, e.g. in the constructor
+        public int getLine() {
+            return line;
+        }
+
+        public void setLine(int line) {
+            this.line = line;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package Profile;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/*
+ * Runtime support of instrumented classes, which must find it on their classpath.
+ *
+ * Each instrumented class registers its counters when it is initialised. When the JVM exits they
+ * are written to <Class>.profile, in the directory given by the jmm.profile system property or
+ * in the working directory, with one count per line in the order of the <Class>.counters file.
+ */
+public class Counters {
+
+    public static final String DIRECTORY_PROPERTY = "jmm.profile";
+    public static final String EXTENSION = ".profile";
+
+    private static final StackWalker STACK_WALKER = StackWalker.getInstance(StackWalker.Option.RETAIN_CLASS_REFERENCE);
+    private static final Map<String, int[]> COUNTERS = new LinkedHashMap<>();
+
+    // Called from the static initialiser of the instrumented class
+    public static synchronized void register(int[] counters) {
+        if (COUNTERS.isEmpty())
+            Runtime.getRuntime().addShutdownHook(new Thread(Counters::writeProfiles));
+
+        COUNTERS.put(STACK_WALKER.getCallerClass().getName(), counters);
+    }
+
+    public static synchronized int[] getCounters(String className) {
+        return COUNTERS.get(className);
+    }
+
+    // Forgets the counters of a class, whose profile is then not written when the JVM exits
+    static synchronized void unregister(String className) {
+        COUNTERS.remove(className);
+    }
+
+    public static synchronized void writeProfiles() {
+        Path directory = Paths.get(System.getProperty(DIRECTORY_PROPERTY, ""));
+
+        for (Map.Entry<String, int[]> entry : COUNTERS.entrySet()) {
+            StringBuilder profile = new StringBuilder();
+            for (int count : entry.getValue())
+                profile.append(Integer.toUnsignedString(count)).append('\n');
+
+            try {
+                Files.write(directory.resolve(entry.getKey() + EXTENSION), profile.toString().getBytes(StandardCharsets.UTF_8));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
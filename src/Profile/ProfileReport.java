@@ -0,0 +1,90 @@
+package Profile;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/*
+ * Maps the counts of a profile back to the source: how often each method was called and, next to
+ * each line of the program, how often its blocks were entered and its branches taken or not.
+ */
+public class ProfileReport {
+
+    private final List<String> source;
+    private final CounterMap counterMap;
+    private final long[] counts;
+
+    public ProfileReport(List<String> source, CounterMap counterMap, long[] counts) {
+        if (counts.length != counterMap.getCounters().size())
+            throw new IllegalArgumentException("The profile has " + counts.length + " counters but the counters file has "
+                    + counterMap.getCounters().size());
+
+        this.source = source;
+        this.counterMap = counterMap;
+        this.counts = counts;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 3) {
+            System.err.println("Usage: java Profile.ProfileReport <input_file.jmm> <Class.counters> <Class.profile>");
+            System.exit(1);
+        }
+
+        List<String> source = Files.readAllLines(Paths.get(args[0]), StandardCharsets.UTF_8);
+        new ProfileReport(source, CounterMap.read(Paths.get(args[1])), readProfile(Paths.get(args[2]))).print(System.out);
+    }
+
+    public static long[] readProfile(Path file) throws IOException {
+        return Files.readAllLines(file, StandardCharsets.UTF_8).stream()
+                .filter(line -> !line.isEmpty())
+                .mapToLong(Long::parseLong)
+                .toArray();
+    }
+
+    public void print(PrintStream out) {
+        out.println("Calls:");
+        for (int i = 0; i < this.counts.length; i++) {
+            CounterMap.Counter counter = this.counterMap.getCounters().get(i);
+            if (counter.getKind().equals(CounterMap.METHOD))
+                out.printf("%12d  %s%n", this.counts[i], counter.getMethod());
+        }
+
+        // blocks, taken, not taken; entering a method is entering its first block
+        Map<Integer, long[]> lines = new TreeMap<>();
+        for (int i = 0; i < this.counts.length; i++) {
+            CounterMap.Counter counter = this.counterMap.getCounters().get(i);
+            long[] line = lines.computeIfAbsent(counter.getLine(), key -> new long[3]);
+
+            switch (counter.getKind()) {
+                case CounterMap.METHOD:
+                case CounterMap.BLOCK:
+                    line[0] += this.counts[i];
+                    break;
+                case CounterMap.TAKEN:
+                    line[1] += this.counts[i];
+                    break;
+                case CounterMap.NOT_TAKEN:
+                    line[2] += this.counts[i];
+                    break;
+            }
+        }
+
+        out.println();
+        out.printf("%12s %12s %12s  %s%n", "blocks", "taken", "not taken", "line");
+        for (int number = 1; number <= this.source.size(); number++) {
+            long[] line = lines.get(number);
+            String text = number + ": " + this.source.get(number - 1);
+
+            if (line == null)
+                out.printf("%12s %12s %12s  %s%n", "", "", "", text);
+            else
+                out.printf("%12d %12d %12d  %s%n", line[0], line[1], line[2], text);
+        }
+    }
+}
@@ -1,40 +1,52 @@
 package Types;
 
+import parser.ParserTreeConstants;
+
+/*
+ * Kinds of AST nodes, as the ids JJTree gives them (SimpleNode.getId()), so that the passes
+ * dispatch on ints instead of comparing names. A node renamed or removed in the grammar no longer
+ * compiles here; NodeNameTest checks that every kind of the grammar has its constant.
+ */
 public interface NodeName {
 
-    String IMPORT = "Import";
-    String CLASS = "Class";
-    String STATIC = "Static";
-    String CLASSNAME = "ClassName";
-    String METHODNAME = "MethodName";
-    String ARGTYPE = "ArgType";
-    String RETURNTYPE = "ReturnType";
-    String IDENTIFIER = "Identifier";
-    String VARDECLARATION = "VarDeclaration";
-    String METHOD = "Method";
-    String ARGS = "Args";
-    String METHODBODY = "MethodBody";
-    String ARRAYACCESS = "ArrayAccess";
-    String INT = "Int";
-    String ARRAYSIZE = "ArraySize";
-    String DOTMETHOD = "DotMethod";
-    String LENGTH = "Length";
-    String THIS = "This";
-    String METHODCALL = "MethodCall";
-    String ADD = "Add";
-    String SUB = "Sub";
-    String DIV = "Div";
-    String MUL = "Mul";
-    String AND = "And";
-    String LESS = "Less";
-    String BOOLEAN = "Boolean";
-    String NOT = "Not";
-    String NEW = "New";
-    String EXTENDS = "Extends";
-    String ASSIGNMENT = "Assignment";
-    String RETURN = "Return";
-    String IF = "If";
-    String WHILE = "While";
-    String IFBLOCK = "IfBlock";
-    String ELSE = "Else";
+    int START = ParserTreeConstants.JJTSTART;
+    int VOID = ParserTreeConstants.JJTVOID;
+    int IMPORT = ParserTreeConstants.JJTIMPORT;
+    int CLASS = ParserTreeConstants.JJTCLASS;
+    int STATIC = ParserTreeConstants.JJTSTATIC;
+    int CLASSNAME = ParserTreeConstants.JJTCLASSNAME;
+    int METHODNAME = ParserTreeConstants.JJTMETHODNAME;
+    int ARGTYPE = ParserTreeConstants.JJTARGTYPE;
+    int RETURNTYPE = ParserTreeConstants.JJTRETURNTYPE;
+    int IDENTIFIER = ParserTreeConstants.JJTIDENTIFIER;
+    int VARDECLARATION = ParserTreeConstants.JJTVARDECLARATION;
+    int TYPE = ParserTreeConstants.JJTTYPE;
+    int METHOD = ParserTreeConstants.JJTMETHOD;
+    int ARGS = ParserTreeConstants.JJTARGS;
+    int ARG = ParserTreeConstants.JJTARG;
+    int METHODBODY = ParserTreeConstants.JJTMETHODBODY;
+    int ARRAYACCESS = ParserTreeConstants.JJTARRAYACCESS;
+    int INT = ParserTreeConstants.JJTINT;
+    int ARRAYSIZE = ParserTreeConstants.JJTARRAYSIZE;
+    int DOTMETHOD = ParserTreeConstants.JJTDOTMETHOD;
+    int LENGTH = ParserTreeConstants.JJTLENGTH;
+    int THIS = ParserTreeConstants.JJTTHIS;
+    int METHODCALL = ParserTreeConstants.JJTMETHODCALL;
+    int ADD = ParserTreeConstants.JJTADD;
+    int SUB = ParserTreeConstants.JJTSUB;
+    int DIV = ParserTreeConstants.JJTDIV;
+    int MUL = ParserTreeConstants.JJTMUL;
+    int AND = ParserTreeConstants.JJTAND;
+    int LESS = ParserTreeConstants.JJTLESS;
+    int BOOLEAN = ParserTreeConstants.JJTBOOLEAN;
+    int NOT = ParserTreeConstants.JJTNOT;
+    int NEW = ParserTreeConstants.JJTNEW;
+    int EXTENDS = ParserTreeConstants.JJTEXTENDS;
+    int ASSIGNMENT = ParserTreeConstants.JJTASSIGNMENT;
+    int RETURN = ParserTreeConstants.JJTRETURN;
+    int IF = ParserTreeConstants.JJTIF;
+    int WHILE = ParserTreeConstants.JJTWHILE;
+    int BLOCK = ParserTreeConstants.JJTBLOCK;
+    int IFBLOCK = ParserTreeConstants.JJTIFBLOCK;
+    int ELSE = ParserTreeConstants.JJTELSE;
 }
@@ -0,0 +1,14 @@
+package events;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("jmm.Compilation")
+@Label("Compilation")
+@Description("Compilation of a source file")
+public class CompilationEvent extends CompilerEvent {
+
+    @Label("Source")
+    public String source;
+}
@@ -0,0 +1,33 @@
+package events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+
+/*
+ * Flight Recorder events of the compiler, recorded alongside the GC and CPU events of the JVM.
+ *
+ * Events are created and begun unconditionally, which costs nothing when Flight Recorder is off,
+ * but their fields are only filled in when shouldCommit() says they will be recorded.
+ */
+@Category("Java-- Compiler")
+@StackTrace(false)
+public abstract class CompilerEvent extends Event {
+
+    public static final String SUCCESS = "success";
+    public static final String FAILURE = "failure";
+    public static final String CACHED = "cached";
+
+    @Label("Class Name")
+    public String className;
+
+    @Label("Node Count")
+    @Description("AST nodes of what was compiled")
+    public long nodeCount;
+
+    @Label("Outcome")
+    @Description("success, failure or, for a file taken from the build cache, cached")
+    public String outcome;
+}
@@ -0,0 +1,35 @@
+package events;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import parser.SimpleNode;
+
+@Name("jmm.Method")
+@Label("Method Compilation")
+@Description("Register allocation or code generation of one method")
+public class MethodEvent extends CompilerEvent {
+
+    public static final String DATAFLOW = "dataflow";
+    public static final String CODEGEN = "codegen";
+
+    @Label("Method Name")
+    public String methodName;
+
+    @Label("Phase")
+    @Description("dataflow (register allocation) or codegen")
+    public String phase;
+
+    // Counting the nodes of the method is only paid for when the event is recorded
+    public void commit(String phase, String className, String methodName, SimpleNode methodNode, String outcome) {
+        if (!this.shouldCommit())
+            return;
+
+        this.phase = phase;
+        this.className = className;
+        this.methodName = methodName;
+        this.nodeCount = methodNode == null ? 0 : methodNode.countNodes();
+        this.outcome = outcome;
+        this.commit();
+    }
+}
@@ -0,0 +1,18 @@
+package events;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("jmm.Phase")
+@Label("Compiler Phase")
+@Description("One phase of the compilation of a source file")
+public class PhaseEvent extends CompilerEvent {
+
+    @Label("Source")
+    public String source;
+
+    @Label("Phase")
+    @Description("parse, symbolTables, semantic, dataflow or codegen")
+    public String phase;
+}
@@ -1,16 +1,13 @@
 package exceptions;
 
-import main.jmm;
 import parser.SimpleNode;
-import parser.Token;
 
 import java.io.BufferedReader;
-import java.io.FileInputStream;
-import java.io.InputStreamReader;
+import java.io.StringReader;
 
 public class SemanticException extends Exception {
     public final SimpleNode simpleNode;
-    private final String messages;
+    private final String errorMessage;
     private final boolean is_error;
 
     public SemanticException(SimpleNode simpleNode) {
@@ -25,32 +22,32 @@ public class SemanticException extends Exception {
         super();
         this.simpleNode = simpleNode;
         this.is_error = is_error;
-        this.messages = printTokenErrorMessage(simpleNode.jjtGetFirstToken(), simpleNode.jjtGetLastToken(),errormessage);
+        this.errorMessage = errormessage;
     }
 
     @Override
     public String getMessage() {
-        return this.messages;
+        return this.errorMessage;
     }
 
-    public String printTokenErrorMessage(Token firstToken, Token lastToken, String message) {
+    // The source line is only looked up when the diagnostic is reported, since most exceptions are discarded
+    public String getMessage(String sourceName, String source) {
+        return printTokenErrorMessage(simpleNode, this.errorMessage, sourceName, source);
+    }
+
+    public String printTokenErrorMessage(SimpleNode simpleNode, String message, String sourceName, String source) {
         StringBuilder errorMessage = new StringBuilder();
 
-        int line = firstToken.beginLine;
-        int col = firstToken.beginColumn;
+        int line = simpleNode.getBeginLine();
+        int col = simpleNode.getBeginColumn();
 
-        String path = jmm.filepath.toAbsolutePath().toString();
         String error_type = this.is_error ? "error: " : "warning: ";
 
-        errorMessage.append(path).append(":");
+        errorMessage.append(sourceName).append(":");
         errorMessage.append(line).append(" ");
         errorMessage.append(error_type).append(message.isEmpty() ? "" : message + ":").append("\n");
 
-        try {
-            FileInputStream fileStream = new FileInputStream(path);
-            InputStreamReader inputStream = new InputStreamReader(fileStream);
-            BufferedReader reader = new BufferedReader(inputStream);
-
+        try (BufferedReader reader = new BufferedReader(new StringReader(source))) {
             for (int i = 0; i < line - 1; i++)
                 reader.readLine();
 
@@ -58,13 +55,13 @@ public class SemanticException extends Exception {
             errorMessage.replace(0,errorMessage.length(),errorMessage.toString().replaceAll("\t", " "));
 
         } catch(Exception e) {
-            System.out.println("File not Found.");
-            return "";
+            // Source not available, report the location only
+            return errorMessage.toString();
         }
 
         errorMessage.append(" ".repeat(Math.max(0, col - 2)));
 
-        for (int i=0; i < Math.abs(col - lastToken.endColumn); i++){
+        for (int i=0; i < Math.abs(col - simpleNode.getEndColumn()); i++){
             errorMessage.append("^");
         }
 
@@ -0,0 +1,109 @@
+package main;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class BatchCompiler {
+
+    private static final String FILE_EXTENSION = ".jmm";
+
+    private final CompilerOptions options;
+    private PrintStream out = System.out;
+    private PrintStream err = System.err;
+
+    public BatchCompiler(CompilerOptions options) {
+        this.options = options;
+    }
+
+    public static List<Path> collectFiles(List<Path> inputs) throws IOException {
+        List<Path> files = new ArrayList<>();
+
+        for (Path path : inputs) {
+            if (Files.isDirectory(path)) {
+                try (Stream<Path> stream = Files.walk(path)) {
+                    files.addAll(stream.filter(file -> file.toString().endsWith(FILE_EXTENSION))
+                            .sorted()
+                            .collect(Collectors.toList()));
+                }
+            } else
+                files.add(path);
+        }
+
+        return files;
+    }
+
+    public boolean compile(List<Path> files) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(Math.min(this.options.getNumThreads(), Math.max(1, files.size())));
+        List<Future<FileResult>> results = new ArrayList<>();
+
+        try {
+            for (Path file : files)
+                results.add(pool.submit(() -> this.compileFile(file)));
+
+            // Report in input order, regardless of which file finished first
+            int failed = 0;
+            for (Future<FileResult> future : results) {
+                FileResult result = future.get();
+                PrintStream stream = result.success ? this.out : this.err;
+
+                stream.print(result.output);
+                stream.println(result.file + ": " + (result.success ? "compiled" : "failed"));
+
+                if (!result.success)
+                    failed++;
+            }
+
+            this.out.println(files.size() + " files compiled, " + failed + " failed");
+            return failed == 0;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private FileResult compileFile(Path file) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        PrintStream stream = new PrintStream(buffer, true);
+
+        jmm compiler = new jmm(file, new CompilerOptions(this.options));
+        compiler.setOutput(stream, stream);
+
+        boolean success = true;
+        try {
+            compiler.compileFile();
+        } catch (Exception e) {
+            if (e.getMessage() != null)
+                stream.println(e.getMessage());
+            success = false;
+        }
+
+        stream.flush();
+        return new FileResult(file, buffer.toString(), success);
+    }
+
+    public void setOutput(PrintStream out, PrintStream err) {
+        this.out = out;
+        this.err = err;
+    }
+
+    private static class FileResult {
+        private final Path file;
+        private final String output;
+        private final boolean success;
+
+        private FileResult(Path file, String output, boolean success) {
+            this.file = file;
+            this.output = output;
+            this.success = success;
+        }
+    }
+}
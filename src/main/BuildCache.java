@@ -0,0 +1,231 @@
+package main;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.CodeSource;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/*
+ * On-disk cache of generated code, keyed by a hash of everything the output depends on.
+ *
+ * Entries are written to a temporary file and atomically renamed, so several compiler processes
+ * can share the same directory: a reader either sees a complete entry or none. Eviction removes
+ * the least recently used entries once the directory grows over its maximum size.
+ */
+public class BuildCache {
+
+    // Bump when the generated code changes for the same input, or the layout of the entries changes
+    private static final String CACHE_VERSION = "4";
+    private static final String ENTRY_EXTENSION = ".entry";
+    private static final String TEMP_EXTENSION = ".tmp";
+
+    private static final String COMPILER_FINGERPRINT = compilerFingerprint();
+
+    private final Path directory;
+    private final long maxSize;
+
+    public BuildCache(Path directory, long maxSize) {
+        this.directory = directory;
+        this.maxSize = maxSize;
+    }
+
+    // Imported classes are declared with their full signatures in the source (import static io.println(int) void;),
+    // and those declarations are all the compiler knows about them, so they are covered by the source hash
+    public String getKey(byte[] source, CompilerOptions options) throws NoSuchAlgorithmException {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+
+        String flags = CACHE_VERSION + "|" + COMPILER_FINGERPRINT + "|" + options.isDebugMode() + "|"
+                + options.isOptimizationMode() + "|" + options.getMaxNumRegisters() + "|" + options.getBackend() + "|";
+        digest.update(flags.getBytes(StandardCharsets.UTF_8));
+        digest.update(source);
+
+        return toHex(digest.digest());
+    }
+
+    // Returns null on a miss
+    public Entry lookup(String key) {
+        Path entry = this.directory.resolve(key + ENTRY_EXTENSION);
+
+        byte[] content;
+        try {
+            content = Files.readAllBytes(entry);
+            Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) { // Missing, or evicted by another process in the meantime
+            return null;
+        }
+
+        // The header is the name of the generated file and the lengths of what the compilation printed to
+        // the output and error streams, on two lines; then come the printed text and the generated content,
+        // which may be binary
+        int endOfName = indexOfLine(content, 0);
+        int endOfLengths = indexOfLine(content, endOfName + 1);
+        if (endOfLengths == content.length)
+            return null;
+
+        String[] lengths = new String(content, endOfName + 1, endOfLengths - endOfName - 1, StandardCharsets.UTF_8).split(" ");
+        int endOfOutput = endOfLengths + 1 + Integer.parseInt(lengths[0]);
+        int endOfErrors = endOfOutput + Integer.parseInt(lengths[1]);
+        if (endOfErrors > content.length)
+            return null;
+
+        return new Entry(new String(content, 0, endOfName, StandardCharsets.UTF_8),
+                new String(content, endOfLengths + 1, endOfOutput - endOfLengths - 1, StandardCharsets.UTF_8),
+                new String(content, endOfOutput, endOfErrors - endOfOutput, StandardCharsets.UTF_8),
+                Arrays.copyOfRange(content, endOfErrors, content.length));
+    }
+
+    private static int indexOfLine(byte[] content, int start) {
+        int end = start;
+        while (end < content.length && content[end] != '\n')
+            end++;
+
+        return end;
+    }
+
+    // output and errors are what the compilation printed, which a cache hit prints again
+    public void store(String key, String fileName, byte[] content, String output, String errors) throws IOException {
+        byte[] outputBytes = output.getBytes(StandardCharsets.UTF_8);
+        byte[] errorsBytes = errors.getBytes(StandardCharsets.UTF_8);
+
+        Files.createDirectories(this.directory);
+
+        Path temp = Files.createTempFile(this.directory, key, TEMP_EXTENSION);
+        try {
+            try (OutputStream stream = Files.newOutputStream(temp)) {
+                stream.write((fileName + "\n" + outputBytes.length + " " + errorsBytes.length + "\n").getBytes(StandardCharsets.UTF_8));
+                stream.write(outputBytes);
+                stream.write(errorsBytes);
+                stream.write(content);
+            }
+            Files.move(temp, this.directory.resolve(key + ENTRY_EXTENSION), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+
+        this.evict();
+    }
+
+    private void evict() throws IOException {
+        List<Path> entries = new ArrayList<>();
+        long size = 0;
+
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(this.directory, "*" + ENTRY_EXTENSION)) {
+            for (Path entry : stream) {
+                try {
+                    size += Files.size(entry);
+                    entries.add(entry);
+                } catch (NoSuchFileException e) { // Evicted by another process
+                }
+            }
+        }
+
+        if (size <= this.maxSize)
+            return;
+
+        entries.sort(Comparator.comparingLong(BuildCache::lastModified));
+
+        for (Path entry : entries) {
+            if (size <= this.maxSize)
+                break;
+
+            try {
+                long entrySize = Files.size(entry);
+                Files.delete(entry);
+                size -= entrySize;
+            } catch (NoSuchFileException e) { // Evicted by another process
+            }
+        }
+    }
+
+    private static long lastModified(Path path) {
+        try {
+            return Files.getLastModifiedTime(path).toMillis();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    // Identifies the compiler build by the content of its jar or classes directory,
+    // so that entries of a different compiler version are never used
+    private static String compilerFingerprint() {
+        try {
+            CodeSource codeSource = BuildCache.class.getProtectionDomain().getCodeSource();
+            if (codeSource == null)
+                return "";
+
+            Path location = Paths.get(codeSource.getLocation().toURI());
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+
+            if (Files.isDirectory(location)) {
+                List<Path> files;
+                try (Stream<Path> stream = Files.walk(location)) {
+                    files = stream.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+                }
+
+                for (Path file : files) {
+                    digest.update(location.relativize(file).toString().getBytes(StandardCharsets.UTF_8));
+                    digest.update(Files.readAllBytes(file));
+                }
+            } else
+                digest.update(Files.readAllBytes(location));
+
+            return toHex(digest.digest());
+        } catch (IOException | URISyntaxException | NoSuchAlgorithmException | SecurityException e) {
+            return "";
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder();
+        for (byte b : bytes)
+            hex.append(String.format("%02x", b));
+
+        return hex.toString();
+    }
+
+    public static class Entry {
+        private final String fileName;
+        private final String output;
+        private final String errors;
+        private final byte[] content;
+
+        private Entry(String fileName, String output, String errors, byte[] content) {
+            this.fileName = fileName;
+            this.output = output;
+            this.errors = errors;
+            this.content = content;
+        }
+
+        public String getFileName() {
+            return fileName;
+        }
+
+        public String getOutput() {
+            return output;
+        }
+
+        public String getErrors() {
+            return errors;
+        }
+
+        public byte[] getContent() {
+            return content;
+        }
+    }
+}
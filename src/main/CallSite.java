@@ -0,0 +1,71 @@
+package main;
+
+import Types.VarTypes;
+
+/*
+ * Method called by a DotMethod node, resolved once by the semantic analysis and attached to the
+ * node, with the instruction and the JVM method that the code generator invokes.
+ */
+public class CallSite {
+    private final FunctionDescriptor method;
+    private final ImportDescriptor importDescriptor;
+
+    private final String invoke;
+    private final String owner;
+    private final String name;
+    private final String descriptor;
+    private final boolean returnsValue;
+
+    // Method of the class, or inherited from its superclass
+    public CallSite(FunctionDescriptor method, SymbolTables symbolTables) {
+        this.method = method;
+        this.importDescriptor = null;
+        this.invoke = method.isFromSuper() ? "invokespecial" : "invokevirtual";
+        this.owner = method.isFromSuper() ? symbolTables.getExtendedClassName() : symbolTables.getClassName();
+        this.name = method.getMethodName();
+        this.descriptor = method.getJVMDescriptor();
+        this.returnsValue = !method.getReturnType().equals(VarTypes.VOID);
+    }
+
+    public CallSite(ImportDescriptor importDescriptor) {
+        this.method = null;
+        this.importDescriptor = importDescriptor;
+        this.invoke = importDescriptor.isStatic() ? "invokestatic" : "invokevirtual";
+        this.owner = importDescriptor.getClassName();
+        this.name = importDescriptor.getMethodName();
+        this.descriptor = importDescriptor.getJVMDescriptor();
+        this.returnsValue = !importDescriptor.getReturnType().getTypeIdentifier().equals(VarTypes.VOID);
+    }
+
+    public FunctionDescriptor getMethod() {
+        return method;
+    }
+
+    public ImportDescriptor getImportDescriptor() {
+        return importDescriptor;
+    }
+
+    public boolean isImported() {
+        return this.importDescriptor != null;
+    }
+
+    public String getInvoke() {
+        return invoke;
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getDescriptor() {
+        return descriptor;
+    }
+
+    public boolean returnsValue() {
+        return returnsValue;
+    }
+}
@@ -1,25 +1,49 @@
 package main;
 
+import Bytecode.ClassFileEmitter;
+import Bytecode.ClassMetrics;
+import Bytecode.Emitter;
+import Bytecode.InstrumentingEmitter;
+import Bytecode.JasminAssembler;
+import Bytecode.JasminEmitter;
+import Bytecode.MethodRecorder;
+import Bytecode.MetricsEmitter;
+import Profile.CounterMap;
+import events.CompilerEvent;
+import events.MethodEvent;
 import Types.NodeName;
 import Types.VarTypes;
-import parser.Node;
-import parser.SimpleNode;
+import parser.*;
 
-import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 public class CodeGenerator {
 
-    private final String DEST_DIRECTORY = "jasminCode/";
-    private final String FILE_EXTENSION = ".j";
-    private final String INDENTATION = "\t";
+    public static final String FILE_EXTENSION = ".j";
+    public static final String CLASS_FILE_EXTENSION = ".class";
+    private static final String TEMP_EXTENSION = ".tmp";
 
     private Path filePath;
+    private final Path destDirectory;
     private final SymbolTables symbolTables;
+    private Emitter emitter;
+    private boolean parallel = false;
+    private Exception failure = null;
+    private ClassMetrics metrics = null;
+    private CounterMap counterMap = null;
+    private MemoryFootprint footprint = null;
 
     private final static int BYTE_SIZE = 127;
     public final static int SHORT_SIZE = 32767;
@@ -27,151 +51,218 @@ public class CodeGenerator {
 
     private int limitStack;
     private int counterStack;
+    private StatementGenerator statementGenerator;
+    private ExpressionGenerator expressionGenerator;
 
     public CodeGenerator(SymbolTables symbolTables) {
+        this(symbolTables, Paths.get(CompilerOptions.DEFAULT_OUTPUT_DIRECTORY));
+    }
+
+    public CodeGenerator(SymbolTables symbolTables, Path destDirectory) {
         this.symbolTables = symbolTables;
+        this.destDirectory = destDirectory;
     }
 
+    // Writes the Jasmin .j file
     public void generate() throws Exception {
-        this.createFile(this.symbolTables.getClassName());
+        this.writeFile(FILE_EXTENSION, file -> {
+            try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                this.generateContents(new JasminEmitter(writer));
+            }
+        });
+    }
+
+    // Writes the .class file directly, without Jasmin
+    public void generateClassFile() throws Exception {
+        this.writeFile(CLASS_FILE_EXTENSION, file -> Files.write(file, this.generateBytecode()));
+    }
+
+    // Generates the Jasmin code and assembles it in-process into the .class file, without writing the .j file
+    public void assembleClassFile() throws Exception {
+        this.writeFile(CLASS_FILE_EXTENSION, file -> Files.write(file, this.assemble(this.generateCode())));
+    }
+
+    public byte[] assemble(String code) throws Exception {
+        return JasminAssembler.assemble(new StringReader(code), symbolTables.getClassName() + FILE_EXTENSION);
+    }
+
+    // Generates the class into a String instead of the .j file
+    public String generateCode() throws Exception {
+        StringWriter writer = new StringWriter();
+        this.generateContents(new JasminEmitter(writer));
+        return writer.toString();
+    }
+
+    // Generates the class file into memory
+    public byte[] generateBytecode() throws Exception {
+        ClassFileEmitter classFileEmitter = new ClassFileEmitter();
+        this.generateContents(classFileEmitter);
+        return classFileEmitter.getClassFile();
+    }
 
-        this.generateClass();
-        this.write("\n");
+    private void generateContents(Emitter emitter) throws Exception {
+        this.emitter = this.metrics == null ? emitter : new MetricsEmitter(emitter, this.metrics);
+        if (this.counterMap != null)
+            this.emitter = new InstrumentingEmitter(this.emitter, this.counterMap);
+
+        this.emitter.beginClass(symbolTables.getClassName(), symbolTables.getExtendedClassName());
         this.generateFields();
-        this.write("\n");
         this.generateConstructor();
-        this.write("\n");
         this.generateMethods();
-        this.write("\n");
+        this.emitter.endClass();
     }
 
-    private void createFile(String className) {
-        Path directory = Paths.get(DEST_DIRECTORY);
-        if (!Files.exists(directory)) {
-            try {
-                Files.createDirectory(directory);
-            } catch (IOException e) {
-                e.printStackTrace();
-                return;
-            }
-        }
+    private void writeFile(String extension, FileContents contents) throws Exception {
+        this.filePath = writeFile(this.destDirectory, symbolTables.getClassName() + extension, contents);
+    }
+
+    // The file is written under a temporary name and renamed once complete,
+    // so a concurrent reader never sees a partially written class
+    static Path writeFile(Path directory, String fileName, FileContents contents) throws Exception {
+        Files.createDirectories(directory); // Several compilations may race to create it
 
-        this.filePath = Paths.get(DEST_DIRECTORY + className + FILE_EXTENSION);
+        Path temp = Files.createTempFile(directory, fileName, TEMP_EXTENSION);
         try {
-            if (!Files.exists(this.filePath))
-                Files.createFile(this.filePath);
-            else
-                Files.write(this.filePath, "".getBytes());
-        } catch (IOException e) {
-            e.printStackTrace();
+            contents.write(temp);
+            Path file = directory.resolve(fileName);
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            return file;
+        } finally {
+            Files.deleteIfExists(temp);
         }
     }
 
-    private void write(String string) throws IOException {
-        Files.write(this.filePath, string.getBytes(), StandardOpenOption.APPEND);
+    public Path getFilePath() {
+        return this.filePath;
     }
 
-    private void generateClass() throws IOException {
-        StringBuilder stringBuilder = new StringBuilder();
-
-        stringBuilder.append(".class public '").append(symbolTables.getClassName()).append("'\n");
+    // Generates the methods of the class concurrently
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
 
-        stringBuilder.append(".super ");
-        if (symbolTables.getExtendedClassName() != null)
-            stringBuilder.append("'").append(symbolTables.getExtendedClassName()).append("'");
-        else
-            stringBuilder.append("java/lang/Object");
+    // Measures the code of each method as it is generated
+    public void setMetrics(ClassMetrics metrics) {
+        this.metrics = metrics;
+    }
 
-        stringBuilder.append("\n");
+    // Measures the memory held by the code of the methods before it is written
+    public void setFootprint(MemoryFootprint footprint) {
+        this.footprint = footprint;
+    }
 
-        this.write(stringBuilder.toString());
+    // Adds execution counters to the generated code, recording what each one counts in counterMap
+    public void setCounterMap(CounterMap counterMap) {
+        this.counterMap = counterMap;
     }
 
-    private void generateFields() throws IOException {
-        StringBuilder stringBuilder = new StringBuilder();
+    private void generateFields() {
+        for (Map.Entry<String, TypeDescriptor> field : symbolTables.getScope().getVars().entrySet())
+            this.emitter.field(field.getKey(), field.getValue().toJVM(), false);
+    }
 
-        for (Map.Entry<String, TypeDescriptor> field : symbolTables.getScope().getVars().entrySet()) {
-            stringBuilder.append(".field public ");
-            stringBuilder.append("'").append(field.getKey()).append("' ");
-            stringBuilder.append(field.getValue().toJVM()).append("\n");
-        }
+    private void generateConstructor() {
+        String superClassName = symbolTables.getExtendedClassName() == null ? "java/lang/Object" : symbolTables.getExtendedClassName();
 
-        this.write(stringBuilder.toString());
+        this.emitter.constructor(superClassName);
     }
 
-    private void generateConstructor() throws IOException {
-        StringBuilder stringBuilder = new StringBuilder();
+    private void generateMethods() throws Exception {
+        boolean parallel = this.parallel && symbolTables.getMethods().size() >= 2;
+        if (!parallel && this.footprint == null) {
+            for (FunctionDescriptor functionDescriptor : symbolTables.getMethods().values())
+                this.generateMethod(functionDescriptor);
+            return;
+        }
 
-        stringBuilder.append(".method <init>()V\n");
-        stringBuilder.append(INDENTATION).append("aload_0\n");
-        stringBuilder.append(INDENTATION).append("invokenonvirtual ");
+        // Each method gets its own generator (stack counters, labels) and records its code
+        List<ForkJoinTask<CodeGenerator>> methods = new ArrayList<>();
+        for (FunctionDescriptor functionDescriptor : symbolTables.getMethods().values()) {
+            ForkJoinTask<CodeGenerator> method = ForkJoinTask.adapt(() -> {
+                CodeGenerator methodGenerator = new CodeGenerator(this.symbolTables, this.destDirectory);
+                methodGenerator.emitter = new MethodRecorder();
+                try {
+                    methodGenerator.generateMethod(functionDescriptor);
+                } catch (Exception e) {
+                    methodGenerator.failure = e;
+                }
+                return methodGenerator;
+            });
+            if (parallel)
+                ForkJoinPool.commonPool().execute(method);
+            else
+                method.invoke();
+            methods.add(method);
+        }
 
-        if (symbolTables.getExtendedClassName() == null)
-            stringBuilder.append("java/lang/Object/<init>()V\n");
-        else
-            stringBuilder.append(symbolTables.getExtendedClassName()).append("/<init>()V\n");
+        // Measured while the code of every method is held, before it is written
+        if (this.footprint != null) {
+            List<MethodRecorder> recorders = new ArrayList<>();
+            for (ForkJoinTask<CodeGenerator> method : methods)
+                recorders.add((MethodRecorder) method.join().emitter);
+            this.footprint.measure(jmm.CODEGEN_PHASE, recorders);
+        }
 
-        stringBuilder.append(INDENTATION).append("return\n");
-        stringBuilder.append(".end method\n");
+        // Replayed in declaration order, so the output is the same as when generated sequentially
+        for (ForkJoinTask<CodeGenerator> method : methods) {
+            CodeGenerator methodGenerator = method.join();
 
-        this.write(stringBuilder.toString());
-    }
+            if (methodGenerator.failure != null)
+                throw methodGenerator.failure;
 
-    private void generateMethods() throws Exception {
-        for (Map.Entry<String, FunctionDescriptor> method : symbolTables.getMethods().entrySet()) {
-            this.generateMethod(method.getValue());
-            this.write("\n");
+            ((MethodRecorder) methodGenerator.emitter).replay(this.emitter);
         }
     }
 
     private void generateMethod(FunctionDescriptor functionDescriptor) throws Exception {
-        StringBuilder stringBuilder = new StringBuilder();
+        MethodEvent event = new MethodEvent();
+        event.begin();
+
+        String outcome = CompilerEvent.FAILURE;
+        try {
+            this.generateMethodCode(functionDescriptor);
+            outcome = CompilerEvent.SUCCESS;
+        } finally {
+            event.commit(MethodEvent.CODEGEN, symbolTables.getClassName(), functionDescriptor.getMethodName(),
+                    functionDescriptor.getMethodNode(), outcome);
+        }
+    }
+
+    private void generateMethodCode(FunctionDescriptor functionDescriptor) throws Exception {
         AssemblerLabels assemblerLabels = new AssemblerLabels();
 
-        if (functionDescriptor.getMethodNode() == null)
+        // Methods without code still get the blank line the original generator left for them
+        if (functionDescriptor.getMethodNode() == null) {
+            this.emitter.blankLine();
             return;
-
-        stringBuilder.append(".method public ");
+        }
 
         //Method header
         if (functionDescriptor.getMethodName().equals("main"))
-            stringBuilder.append("static main([Ljava/lang/String;)V");
-        else {
-            //Method parameters
-            stringBuilder.append(this.generateMethodHeader(functionDescriptor));
-        }
-
-        stringBuilder.append("\n");
+            this.emitter.beginMethod("main", "([Ljava/lang/String;)V", true);
+        else
+            this.emitter.beginMethod(functionDescriptor.getMethodName(), functionDescriptor.getJVMDescriptor(), false);
+        this.emitter.line(functionDescriptor.getMethodNode().getBeginLine());
 
-        String methodBody = this.generateMethodBody(functionDescriptor, assemblerLabels);
+        this.generateMethodBody(functionDescriptor, assemblerLabels);
         int limitLocals = functionDescriptor.getNumLocals();
 
         // Return expression
         if (functionDescriptor.isMain()) {
-            methodBody += this.generateReturn(functionDescriptor, assemblerLabels);
+            this.generateReturn(functionDescriptor, assemblerLabels);
         }
 
-        //### Method body ####
-        stringBuilder.append(INDENTATION).append(".limit stack ").append(limitStack).append("\n");
-        stringBuilder.append(INDENTATION).append(".limit locals ").append(limitLocals).append("\n");
-        stringBuilder.append("\n");
-
-        stringBuilder.append(methodBody);
-
-        stringBuilder.append(".end method\n");
-
-        this.write(stringBuilder.toString());
+        this.emitter.endMethod(limitStack, limitLocals);
     }
 
-    private String generateMethodBody(FunctionDescriptor functionDescriptor, AssemblerLabels assemblerLabels) throws Exception {
-        StringBuilder stringBuilder = new StringBuilder();
+    private void generateMethodBody(FunctionDescriptor functionDescriptor, AssemblerLabels assemblerLabels) throws Exception {
         SimpleNode methodBody = null;
 
         // Look for method body node
         for (Node node : functionDescriptor.getMethodNode().jjtGetChildren()) {
             SimpleNode child = (SimpleNode) node;
 
-            if (child.getNodeName().equals(NodeName.METHODBODY)) {
+            if (child.getId() == NodeName.METHODBODY) {
                 methodBody = child;
                 break;
             }
@@ -183,111 +274,64 @@ public class CodeGenerator {
 
         limitStack = 0;
         counterStack = 0;
-        stringBuilder.append(this.generateStatements(functionDescriptor, methodBody, assemblerLabels));
+        statementGenerator = new StatementGenerator(functionDescriptor, assemblerLabels);
+        expressionGenerator = new ExpressionGenerator(functionDescriptor, assemblerLabels);
+        this.generateStatements(functionDescriptor, methodBody, assemblerLabels);
 
         if (functionDescriptor.getReturnType().equals(VarTypes.VOID))
-            stringBuilder.append(INDENTATION).append("return\n");
-
-        return stringBuilder.toString();
+            this.emitter.instruction("return");
     }
 
-    private String generateStatements(FunctionDescriptor functionDescriptor, SimpleNode blockNode, AssemblerLabels assemblerLabels) throws Exception {
-        StringBuilder stringBuilder = new StringBuilder();
-
+    private void generateStatements(FunctionDescriptor functionDescriptor, SimpleNode blockNode, AssemblerLabels assemblerLabels) throws Exception {
         Node[] children = blockNode.jjtGetChildren();
         if (children == null || children.length == 0)
-            return "";
+            return;
 
         for (Node node : children) {
             SimpleNode child = (SimpleNode) node;
+            this.emitter.line(child.getBeginLine());
 
-            switch (child.getNodeName()) {
-                case NodeName.DOTMETHOD:
-                    stringBuilder.append(this.generateDotMethod(functionDescriptor, child, assemblerLabels,true)).append("\n");
-                    break;
-                case NodeName.ASSIGNMENT:
-                    stringBuilder.append(this.generateAssignment(child, functionDescriptor, assemblerLabels));
-                    break;
-                case NodeName.IF:
-                    stringBuilder.append(this.generateIf(child, functionDescriptor, assemblerLabels));
-                    break;
-                case NodeName.WHILE:
-                    stringBuilder.append(this.generateWhile(child, functionDescriptor, assemblerLabels));
-                    break;
-                case NodeName.RETURN:
-                    stringBuilder.append(this.generateReturn(functionDescriptor, child, assemblerLabels));
-                    break;
-                default:
-                    break;
-            }
+            child.jjtAccept(this.statementGenerator, null);
         }
-
-        return stringBuilder.toString();
     }
 
-    private String generateDotMethod(FunctionDescriptor functionDescriptor, SimpleNode dotMethodNode, AssemblerLabels assemblerLabels) throws Exception {
-        return generateDotMethod(functionDescriptor,dotMethodNode,assemblerLabels,false);
+    private void generateDotMethod(FunctionDescriptor functionDescriptor, ASTDotMethod dotMethodNode, AssemblerLabels assemblerLabels) throws Exception {
+        generateDotMethod(functionDescriptor, dotMethodNode, assemblerLabels, false);
     }
 
-    private String generateDotMethod(FunctionDescriptor functionDescriptor, SimpleNode dotMethodNode, AssemblerLabels assemblerLabels,boolean pop) throws Exception {
-        StringBuilder stringBuilder = new StringBuilder();
-
+    private void generateDotMethod(FunctionDescriptor functionDescriptor, ASTDotMethod dotMethodNode, AssemblerLabels assemblerLabels, boolean pop) throws Exception {
         SimpleNode leftSide = (SimpleNode) dotMethodNode.jjtGetChild(0);
         SimpleNode rightSide = (SimpleNode) dotMethodNode.jjtGetChild(1);
 
-        if (Utils.isClassVariable(this.symbolTables, leftSide, functionDescriptor)) { // Call from a method within the class
-
-            stringBuilder.append(this.generateExpression(functionDescriptor, leftSide, assemblerLabels));
+        // Method resolved by the semantic analysis, within the class or imported
+        CallSite callSite = dotMethodNode.getCallSite();
+        if (callSite != null) {
+            this.generateExpression(functionDescriptor, leftSide, assemblerLabels);
 
             if (rightSide.jjtGetNumChildren() > 1) // If arguments are being passed
-                stringBuilder.append(this.generateArgumentsLoading(functionDescriptor, (SimpleNode) rightSide.jjtGetChild(1), assemblerLabels));
+                this.generateArgumentsLoading(functionDescriptor, (SimpleNode) rightSide.jjtGetChild(1), assemblerLabels);
 
-            String methodId = Utils.parseMethodIdentifier(this.symbolTables, rightSide, functionDescriptor);
-            FunctionDescriptor descriptor = symbolTables.getFunctionDescriptor(methodId);
-
-            stringBuilder.append(INDENTATION);
-            stringBuilder.append((descriptor.isFromSuper()) ? "invokespecial " : "invokevirtual ");
-            stringBuilder.append((descriptor.isFromSuper()) ? symbolTables.getExtendedClassName() : symbolTables.getClassName());
-            stringBuilder.append("/").append(this.generateMethodHeader(descriptor)).append("\n");
-            if (pop && !descriptor.getReturnType().equals(VarTypes.VOID)){
-                stringBuilder.append(INDENTATION).append("pop\n");
+            this.emitter.invoke(callSite.getInvoke(), callSite.getOwner(), callSite.getName(), callSite.getDescriptor());
+            if (callSite.isImported())
+                incCounterStack(1);
+            if (pop && callSite.returnsValue()) {
+                this.emitter.instruction("pop");
                 incCounterStack(-1);
             }
-        } else { // Call a static imported method
-            ImportDescriptor importDescriptor = Utils.getImportedMethod(this.symbolTables, dotMethodNode, functionDescriptor);
-            if (importDescriptor != null) { // Invoke imported method
-                stringBuilder.append(this.generateExpression(functionDescriptor, leftSide, assemblerLabels));
-
-                if (rightSide.jjtGetNumChildren() > 1) // If arguments are being passed
-                    stringBuilder.append(this.generateArgumentsLoading(functionDescriptor, (SimpleNode) rightSide.jjtGetChild(1), assemblerLabels));
-
-                if (importDescriptor.isStatic())
-                    stringBuilder.append(INDENTATION).append("invokestatic ");
-                else
-                    stringBuilder.append(INDENTATION).append("invokevirtual ");
-                stringBuilder.append(this.generateMethodHeader(importDescriptor)).append("\n");
-                incCounterStack(1);
-                if(pop && !importDescriptor.getReturnType().getTypeIdentifier().equals(VarTypes.VOID)){
-                    stringBuilder.append(INDENTATION).append("pop\n");
-                    incCounterStack(-1);
-                }
-            } else if (rightSide.getNodeName().equals(NodeName.LENGTH)) { // array.length
-                if (leftSide.getNodeName().equals(NodeName.IDENTIFIER)) {
-                    TypeDescriptor typeDescriptor = functionDescriptor.getTypeDescriptor(leftSide.jjtGetVal());
-                    stringBuilder.append(parseTypeDescriptorLoader(typeDescriptor)).append("\n");
-                } else if (leftSide.getNodeName().equals(NodeName.DOTMETHOD)) {
-                    stringBuilder.append(this.generateDotMethod(functionDescriptor, leftSide, assemblerLabels));
-                }
+        } else if (rightSide.getId() == NodeName.LENGTH) { // array.length
+            if (leftSide.getId() == NodeName.IDENTIFIER) {
+                TypeDescriptor typeDescriptor = functionDescriptor.getTypeDescriptor(leftSide.jjtGetVal());
+                this.parseTypeDescriptorLoader(typeDescriptor);
+            } else if (leftSide.getId() == NodeName.DOTMETHOD) {
+                this.generateDotMethod(functionDescriptor, (ASTDotMethod) leftSide, assemblerLabels);
+            }
 
-                stringBuilder.append(INDENTATION).append("arraylength\n");
-                if (pop) {
-                    stringBuilder.append(INDENTATION).append("pop\n");
-                    incCounterStack(-1);
-                }
+            this.emitter.instruction("arraylength");
+            if (pop) {
+                this.emitter.instruction("pop");
+                incCounterStack(-1);
             }
         }
-
-        return stringBuilder.toString();
     }
 
     private String parseBoolean(SimpleNode simpleNode) {
@@ -295,78 +339,71 @@ public class CodeGenerator {
         return simpleNode.jjtGetVal().equals("true") ? "iconst_1" : "iconst_0";
     }
 
-    private String generateAssignment(SimpleNode simpleNode, FunctionDescriptor functionDescriptor, AssemblerLabels assemblerLabels) throws Exception {
-        StringBuilder stringBuilder = new StringBuilder();
-
+    private void generateAssignment(SimpleNode simpleNode, FunctionDescriptor functionDescriptor, AssemblerLabels assemblerLabels) throws Exception {
         SimpleNode leftSide = (SimpleNode) simpleNode.jjtGetChild(0);
         SimpleNode rightSide = (SimpleNode) simpleNode.jjtGetChild(1);
 
-        if (leftSide.getNodeName().equals(NodeName.IDENTIFIER)) {
+        if (leftSide.getId() == NodeName.IDENTIFIER) {
             TypeDescriptor typeDescriptor = functionDescriptor.getTypeDescriptor(leftSide.jjtGetVal());
             String typeIdentifier = typeDescriptor.getTypeIdentifier();
 
             int increment = this.getExpressionIncrement(rightSide, leftSide.jjtGetVal());
             if (!typeDescriptor.isClassField() && increment != -1) { //Increment on local variable
-                stringBuilder.append(INDENTATION).append("iinc ");
-                stringBuilder.append(typeDescriptor.getIndex()).append(" ");
-                stringBuilder.append(increment).append("\n");
-                return stringBuilder.toString();
+                this.emitter.iinc(typeDescriptor.getIndex(), increment);
+                return;
             }
 
             if (typeDescriptor.isClassField()) {
-                stringBuilder.append(INDENTATION).append("aload_0\n");
+                this.emitter.instruction("aload_0");
                 incCounterStack(1);
-                String leftExpr = this.generateExpression(functionDescriptor, rightSide, assemblerLabels);
-                stringBuilder.append(leftExpr);
-                stringBuilder.append(INDENTATION).append("putfield ").append(symbolTables.getClassName()).append("/").append(typeDescriptor.getFieldName()).append(" ").append(typeDescriptor.toJVM()).append("\n");
+                this.generateExpression(functionDescriptor, rightSide, assemblerLabels);
+                this.emitter.fieldInstruction("putfield", symbolTables.getClassName(), typeDescriptor.getFieldName(), typeDescriptor.toJVM());
                 incCounterStack(-2);
-            } else
-                {
-                    String leftExpr = this.generateExpression(functionDescriptor, rightSide, assemblerLabels);
-                    stringBuilder.append(leftExpr);
-                    switch (typeIdentifier) {
+            } else {
+                this.generateExpression(functionDescriptor, rightSide, assemblerLabels);
+                switch (typeIdentifier) {
                     case VarTypes.INT:
                     case VarTypes.BOOLEAN: {
-                        stringBuilder.append(INDENTATION).append("istore ").append(typeDescriptor.getIndex()).append("\n");
+                        this.emitter.instruction("istore", typeDescriptor.getIndex());
                         incCounterStack(-1);
                         break;
                     }
                     case VarTypes.INTARRAY: {
-                        stringBuilder.append(INDENTATION).append("astore ").append(typeDescriptor.getIndex()).append("\n");
+                        this.emitter.instruction("astore", typeDescriptor.getIndex());
                         incCounterStack(-1);
                         break;
                     }
                     default: {
-                        if (symbolTables.getClassName().equals(typeIdentifier) || symbolTables.isImportedClass(typeIdentifier)){
+                        if (symbolTables.getClassName().equals(typeIdentifier) || symbolTables.isImportedClass(typeIdentifier)) {
                             incCounterStack(-1);
-                            stringBuilder.append(INDENTATION).append("astore ").append(typeDescriptor.getIndex()).append("\n");
+                            this.emitter.instruction("astore", typeDescriptor.getIndex());
                         }
                         break;
                     }
-                }}
-        } else if (leftSide.getNodeName().equals(NodeName.ARRAYACCESS)) { // a[2] = 4;
-            stringBuilder.append(this.generateArrayAccess(functionDescriptor, leftSide, assemblerLabels)); // push ref, push index
-            stringBuilder.append(this.generateExpression(functionDescriptor, rightSide, assemblerLabels)); // push value
-            stringBuilder.append(INDENTATION).append("iastore\n");
+                }
+            }
+        } else if (leftSide.getId() == NodeName.ARRAYACCESS) { // a[2] = 4;
+            this.generateArrayAccess(functionDescriptor, leftSide, assemblerLabels); // push ref, push index
+            this.generateExpression(functionDescriptor, rightSide, assemblerLabels); // push value
+            this.emitter.instruction("iastore");
             incCounterStack(-3);
         }
 
-        stringBuilder.append("\n");
-        return stringBuilder.toString();
+        this.emitter.blankLine();
     }
 
     private int getExpressionIncrement(SimpleNode expressionNode, String identifier) {
-        if (expressionNode.getNodeName().equals(NodeName.ADD)) {
+        if (expressionNode.getId() == NodeName.ADD) {
 
             SimpleNode firstOperand = (SimpleNode) expressionNode.jjtGetChild(0);
             SimpleNode secondOperand = (SimpleNode) expressionNode.jjtGetChild(1);
 
-            if (firstOperand.getNodeName().equals(NodeName.IDENTIFIER) && firstOperand.jjtGetVal().equals(identifier) &&
-                    secondOperand.getNodeName().equals(NodeName.INT) && Integer.parseInt(secondOperand.jjtGetVal()) <= BYTE_SIZE ) {
+            if (firstOperand.getId() == NodeName.IDENTIFIER && firstOperand.jjtGetVal().equals(identifier) &&
+                    secondOperand.getId() == NodeName.INT && Integer.parseInt(secondOperand.jjtGetVal()) <= BYTE_SIZE ) {
                 return Integer.parseInt(secondOperand.jjtGetVal());
             }
-            else if ( secondOperand.getNodeName().equals(NodeName.IDENTIFIER) && secondOperand.jjtGetVal().equals(identifier) &&
-                    firstOperand.getNodeName().equals(NodeName.INT) && Integer.parseInt(firstOperand.jjtGetVal()) <= BYTE_SIZE ) {
+            else if ( secondOperand.getId() == NodeName.IDENTIFIER && secondOperand.jjtGetVal().equals(identifier) &&
+                    firstOperand.getId() == NodeName.INT && Integer.parseInt(firstOperand.jjtGetVal()) <= BYTE_SIZE ) {
                 return Integer.parseInt(firstOperand.jjtGetVal());
             }
         }
@@ -374,9 +411,7 @@ public class CodeGenerator {
         return -1;
     }
 
-    private String generateIf(SimpleNode ifNode, FunctionDescriptor functionDescriptor, AssemblerLabels assemblerLabels) throws Exception {
-        StringBuilder stringBuilder = new StringBuilder();
-
+    private void generateIf(SimpleNode ifNode, FunctionDescriptor functionDescriptor, AssemblerLabels assemblerLabels) throws Exception {
         SimpleNode conditionNode = ifNode.getChild(0);
         SimpleNode blockNode = ifNode.getChild(1);
         SimpleNode elseNode = ifNode.getChild(2);
@@ -385,31 +420,27 @@ public class CodeGenerator {
         String endLabel = assemblerLabels.getLabel("endif");
 
         // Generate condition
-        stringBuilder.append(this.generateExpression(functionDescriptor, conditionNode, assemblerLabels));
+        this.generateExpression(functionDescriptor, conditionNode, assemblerLabels);
 
         // Check if condition is false. If so goto else label
-        stringBuilder.append(INDENTATION).append("ifeq ").append(elseLabel).append("\n");
+        this.emitter.jump("ifeq", elseLabel);
         incCounterStack(-1);
 
         // Generate statements inside ifblock
-        stringBuilder.append(this.generateStatements(functionDescriptor, blockNode, assemblerLabels));
+        this.generateStatements(functionDescriptor, blockNode, assemblerLabels);
 
         // End of ifblock to goto end, jump else
-        stringBuilder.append(INDENTATION).append("goto ").append(endLabel).append("\n");
-        stringBuilder.append(elseLabel).append(":\n");
+        this.emitter.jump("goto", endLabel);
+        this.emitter.label(elseLabel);
 
         // Generate statements for else block
-        stringBuilder.append(this.generateStatements(functionDescriptor, elseNode, assemblerLabels));
+        this.generateStatements(functionDescriptor, elseNode, assemblerLabels);
 
         //End label
-        stringBuilder.append(endLabel).append(":\n");
-
-        return stringBuilder.toString();
+        this.emitter.label(endLabel);
     }
 
-    private String generateWhile(SimpleNode whileNode, FunctionDescriptor functionDescriptor, AssemblerLabels assemblerLabels) throws Exception {
-        StringBuilder stringBuilder = new StringBuilder();
-
+    private void generateWhile(SimpleNode whileNode, FunctionDescriptor functionDescriptor, AssemblerLabels assemblerLabels) throws Exception {
         SimpleNode conditionNode = whileNode.getChild(0);
         SimpleNode blockNode = whileNode.getChild(1);
 
@@ -417,84 +448,51 @@ public class CodeGenerator {
         String endWhileLabel = assemblerLabels.getLabel("end_while");
 
         // Put label before condition
-        stringBuilder.append(whileLabel).append(":\n");
+        this.emitter.label(whileLabel);
 
         // Generate condition
-        stringBuilder.append(this.generateExpression(functionDescriptor, conditionNode, assemblerLabels));
+        this.generateExpression(functionDescriptor, conditionNode, assemblerLabels);
 
         // Check if condition is false. If so goto end label
-        stringBuilder.append(INDENTATION).append("ifeq ").append(endWhileLabel).append("\n");
+        this.emitter.jump("ifeq", endWhileLabel);
         incCounterStack(-1);
 
         // Generate statements inside while block
-        stringBuilder.append(this.generateStatements(functionDescriptor, blockNode, assemblerLabels));
+        this.generateStatements(functionDescriptor, blockNode, assemblerLabels);
 
         // Put while loop label
-        stringBuilder.append(INDENTATION).append("goto ").append(whileLabel).append("\n");
+        this.emitter.jump("goto", whileLabel);
 
         // Put end while label
-        stringBuilder.append(endWhileLabel).append(":\n");
-
-        return stringBuilder.toString();
+        this.emitter.label(endWhileLabel);
     }
 
-    private String generateMethodHeader(FunctionDescriptor descriptor) {
-        StringBuilder stringBuilder = new StringBuilder();
-
-        stringBuilder.append(descriptor.getMethodName());
-
-        stringBuilder.append("(");
-        for (Map.Entry<String, TypeDescriptor> param : descriptor.getParams().entrySet())
-            stringBuilder.append(param.getValue().toJVM());
-        stringBuilder.append(")");
-
-        stringBuilder.append(TypeDescriptor.toJVM(descriptor.getReturnType()));
-        return stringBuilder.toString();
-    }
-
-    private String generateMethodHeader(ImportDescriptor descriptor) {
-        StringBuilder stringBuilder = new StringBuilder();
-
-        stringBuilder.append(descriptor.getClassName()).append("/");
-        stringBuilder.append(descriptor.getMethodName());
-
-        stringBuilder.append("(");
-        for (TypeDescriptor param : descriptor.getArguments())
-            stringBuilder.append(param.toJVM());
-        stringBuilder.append(")");
-
-        stringBuilder.append(descriptor.getReturnType().toJVM());
-        return stringBuilder.toString();
-    }
-
-    private String generateArithmeticExpression(SimpleNode simpleNode, FunctionDescriptor functionDescriptor, AssemblerLabels assemblerLabels) throws Exception {
-        StringBuilder stringBuilder = new StringBuilder();
-
-        String nodeName = simpleNode.getNodeName();
+    private void generateArithmeticExpression(SimpleNode simpleNode, FunctionDescriptor functionDescriptor, AssemblerLabels assemblerLabels) throws Exception {
+        int nodeId = simpleNode.getId();
         Node[] children = simpleNode.jjtGetChildren();
 
         // Specific case: expression < 0;
-        if (nodeName.equals(NodeName.LESS)) {
+        if (nodeId == NodeName.LESS) {
             SimpleNode leftOperand = simpleNode.getChild(0);
             SimpleNode rightOperand = simpleNode.getChild(1);
 
-            if (rightOperand.getNodeName().equals(NodeName.INT) && rightOperand.jjtGetVal().equals("0")) {
-                stringBuilder.append(this.generateExpression(functionDescriptor, leftOperand, assemblerLabels));
+            if (rightOperand.getId() == NodeName.INT && rightOperand.jjtGetVal().equals("0")) {
+                this.generateExpression(functionDescriptor, leftOperand, assemblerLabels);
 
                 String lessTrue = assemblerLabels.getLabel("less_false");
                 String lessFinal = assemblerLabels.getLabel("less_final");
 
-                stringBuilder.append(INDENTATION).append("iflt ").append(lessTrue).append("\n");
+                this.emitter.jump("iflt", lessTrue);
                 incCounterStack(-1);
-                stringBuilder.append(INDENTATION).append("iconst_0\n");
+                this.emitter.instruction("iconst_0");
                 incCounterStack(1);
-                stringBuilder.append(INDENTATION).append("goto ").append(lessFinal).append("\n");
-                stringBuilder.append(lessTrue).append(":\n");
-                stringBuilder.append(INDENTATION).append("iconst_1\n");
+                this.emitter.jump("goto", lessFinal);
+                this.emitter.label(lessTrue);
+                this.emitter.instruction("iconst_1");
                 incCounterStack(1);
-                stringBuilder.append(lessFinal).append(":\n");
+                this.emitter.label(lessFinal);
 
-                return stringBuilder.toString();
+                return;
             }
         }
 
@@ -502,16 +500,16 @@ public class CodeGenerator {
             SimpleNode child = (SimpleNode) nodeChild;
 
             if (child != null)
-                stringBuilder.append(this.generateExpression(functionDescriptor, child, assemblerLabels));
+                this.generateExpression(functionDescriptor, child, assemblerLabels);
         }
 
         // Operations
-        switch (nodeName) {
+        switch (nodeId) {
             case NodeName.ADD:
             case NodeName.SUB:
             case NodeName.DIV:
             case NodeName.MUL: {
-                stringBuilder.append(INDENTATION).append("i").append(nodeName.toLowerCase()).append("\n");
+                this.emitter.instruction(arithmeticInstruction(nodeId));
                 incCounterStack(-1);
                 break;
             }
@@ -519,15 +517,15 @@ public class CodeGenerator {
                 final String label = assemblerLabels.getLabel("put_true");
                 final String endLabel = assemblerLabels.getLabel("not_end");
 
-                stringBuilder.append(INDENTATION).append("ifeq ").append(label).append("\n"); // Compare previous top value with 0: if previous_value == false,  If yes, goto put_true, to put 1 in top of stack
+                this.emitter.jump("ifeq", label); // Compare previous top value with 0: if previous_value == false,  If yes, goto put_true, to put 1 in top of stack
                 incCounterStack(-1);
-                stringBuilder.append(INDENTATION).append("iconst_0\n");
+                this.emitter.instruction("iconst_0");
                 incCounterStack(1);
-                stringBuilder.append(INDENTATION).append("goto ").append(endLabel).append("\n");
-                stringBuilder.append(label).append(":\n");
-                stringBuilder.append(INDENTATION).append("iconst_1\n");
+                this.emitter.jump("goto", endLabel);
+                this.emitter.label(label);
+                this.emitter.instruction("iconst_1");
                 incCounterStack(1);
-                stringBuilder.append(endLabel).append(":\n");
+                this.emitter.label(endLabel);
                 break;
             }
             case NodeName.AND: {
@@ -535,52 +533,61 @@ public class CodeGenerator {
                 String putFalseAndPopLabel = assemblerLabels.getLabel("put_false_&_pop");
                 String endAndLabel = assemblerLabels.getLabel("end_and");
 
-                stringBuilder.append(INDENTATION).append("ifeq ").append(putFalseAndPopLabel).append("\n");
+                this.emitter.jump("ifeq", putFalseAndPopLabel);
                 incCounterStack(-1);
-                stringBuilder.append(INDENTATION).append("ifeq ").append(putFalseLabel).append("\n");
+                this.emitter.jump("ifeq", putFalseLabel);
                 incCounterStack(-1);
-                stringBuilder.append(INDENTATION).append("iconst_1\n");
+                this.emitter.instruction("iconst_1");
                 incCounterStack(1);
-                stringBuilder.append(INDENTATION).append("goto ").append(endAndLabel).append("\n");
-                stringBuilder.append(putFalseAndPopLabel).append(":\n");
-                stringBuilder.append(INDENTATION).append("pop\n");
+                this.emitter.jump("goto", endAndLabel);
+                this.emitter.label(putFalseAndPopLabel);
+                this.emitter.instruction("pop");
                 incCounterStack(-1);
-                stringBuilder.append(putFalseLabel).append(":\n");
-                stringBuilder.append(INDENTATION).append("iconst_0\n");
+                this.emitter.label(putFalseLabel);
+                this.emitter.instruction("iconst_0");
                 incCounterStack(1);
-                stringBuilder.append(endAndLabel).append(":\n");
+                this.emitter.label(endAndLabel);
                 break;
             }
             case NodeName.LESS: {
                 String lessTrue = assemblerLabels.getLabel("less_false");
                 String lessFinal = assemblerLabels.getLabel("less_final");
 
-                stringBuilder.append(INDENTATION).append("if_icmplt ").append(lessTrue).append("\n");
+                this.emitter.jump("if_icmplt", lessTrue);
                 incCounterStack(-2);
-                stringBuilder.append(INDENTATION).append("iconst_0\n");
+                this.emitter.instruction("iconst_0");
                 incCounterStack(1);
-                stringBuilder.append(INDENTATION).append("goto ").append(lessFinal).append("\n");
-                stringBuilder.append(lessTrue).append(": \n");
-                stringBuilder.append(INDENTATION).append("iconst_1\n");
+                this.emitter.jump("goto", lessFinal);
+                this.emitter.label(lessTrue);
+                this.emitter.instruction("iconst_1");
                 incCounterStack(1);
-                stringBuilder.append(lessFinal).append(": \n");
+                this.emitter.label(lessFinal);
 
                 break;
             }
         }
-
-        return stringBuilder.toString();
     }
 
-    public String generateArgumentsLoading(FunctionDescriptor functionDescriptor, SimpleNode argsNode, AssemblerLabels assemblerLabels) throws Exception {
-        StringBuilder stringBuilder = new StringBuilder();
+    private static String arithmeticInstruction(int nodeId) {
+        switch (nodeId) {
+            case NodeName.ADD:
+                return "iadd";
+            case NodeName.SUB:
+                return "isub";
+            case NodeName.DIV:
+                return "idiv";
+            case NodeName.MUL:
+                return "imul";
+            default:
+                throw new IllegalArgumentException("Not an arithmetic operation: " + nodeId);
+        }
+    }
 
+    public void generateArgumentsLoading(FunctionDescriptor functionDescriptor, SimpleNode argsNode, AssemblerLabels assemblerLabels) throws Exception {
         for (Node arg : argsNode.jjtGetChildren())
-            stringBuilder.append(this.generateExpression(functionDescriptor, (SimpleNode) arg, assemblerLabels));
+            this.generateExpression(functionDescriptor, (SimpleNode) arg, assemblerLabels);
 
         incCounterStack(-argsNode.jjtGetNumChildren());
-
-        return stringBuilder.toString();
     }
 
     public String generateConstructorArguments(FunctionDescriptor functionDescriptor, SimpleNode argsNode, AssemblerLabels assemblerLabels) throws Exception {
@@ -588,7 +595,7 @@ public class CodeGenerator {
 
         for (Node arg : argsNode.jjtGetChildren()) {
             SimpleNode node = (SimpleNode) arg;
-            if (node.getNodeName().equals(NodeName.IDENTIFIER))
+            if (node.getId() == NodeName.IDENTIFIER)
                 stringBuilder.append(functionDescriptor.getTypeDescriptor(node.jjtGetVal()).toJVM());
             else
                 stringBuilder.append(TypeDescriptor.toJVM(Utils.getExpressionType(symbolTables, node, functionDescriptor)));
@@ -599,172 +606,117 @@ public class CodeGenerator {
         return stringBuilder.toString();
     }
 
-    private String generateReturn(FunctionDescriptor functionDescriptor, AssemblerLabels assemblerLabels) throws Exception {
-        return this.generateReturn(functionDescriptor, null, assemblerLabels);
+    private void generateReturn(FunctionDescriptor functionDescriptor, AssemblerLabels assemblerLabels) throws Exception {
+        this.generateReturn(functionDescriptor, null, assemblerLabels);
     }
 
-    private String generateReturn(FunctionDescriptor functionDescriptor, SimpleNode returnNode, AssemblerLabels assemblerLabels) throws Exception {
-        StringBuilder stringBuilder = new StringBuilder();
-
+    private void generateReturn(FunctionDescriptor functionDescriptor, SimpleNode returnNode, AssemblerLabels assemblerLabels) throws Exception {
         if (returnNode != null && returnNode.jjtGetNumChildren() > 0) {
             SimpleNode expressionNode = returnNode.getChild(0);
 
             // return EXPRESSION;
-            stringBuilder.append(this.generateExpression(functionDescriptor, expressionNode, assemblerLabels));
+            this.generateExpression(functionDescriptor, expressionNode, assemblerLabels);
         }
 
         switch (functionDescriptor.getReturnType()) {
             case VarTypes.INT:
             case VarTypes.BOOLEAN: {
-                stringBuilder.append(INDENTATION).append("ireturn\n");
+                this.emitter.instruction("ireturn");
                 incCounterStack(-1);
                 break;
             }
             case VarTypes.INTARRAY: {
-                stringBuilder.append(INDENTATION).append("areturn\n");
+                this.emitter.instruction("areturn");
                 incCounterStack(-1);
                 break;
             }
             default: {
-                if (functionDescriptor.getReturnType().equals(symbolTables.getClassName())){
-                    stringBuilder.append(INDENTATION).append("areturn\n");
+                if (functionDescriptor.getReturnType().equals(symbolTables.getClassName())) {
+                    this.emitter.instruction("areturn");
                     incCounterStack(-1);
                 }
                 break;
             }
         }
-
-        return stringBuilder.toString();
     }
 
-    private String parseTypeDescriptorLoader(TypeDescriptor typeDescriptor) {
-        StringBuilder stringBuilder = new StringBuilder();
-
+    private void parseTypeDescriptorLoader(TypeDescriptor typeDescriptor) {
         if (typeDescriptor.isClassField()) {
-            stringBuilder.append(INDENTATION).append("aload_0\n");
+            this.emitter.instruction("aload_0");
             incCounterStack(1);
-            stringBuilder.append(INDENTATION).append("getfield ").append(symbolTables.getClassName()).append("/").append(typeDescriptor.getFieldName()).append(" ").append(typeDescriptor.toJVM());
-            return stringBuilder.toString();
+            this.emitter.fieldInstruction("getfield", symbolTables.getClassName(), typeDescriptor.getFieldName(), typeDescriptor.toJVM());
+            return;
         }
         switch (typeDescriptor.getTypeIdentifier()) {
             case VarTypes.INT:
             case VarTypes.BOOLEAN: {
                 incCounterStack(1);
-                stringBuilder.append(INDENTATION).append("iload ").append(typeDescriptor.getIndex());
+                this.emitter.instruction("iload", typeDescriptor.getIndex());
                 break;
             }
             case VarTypes.INTARRAY: {
                 incCounterStack(1);
-                stringBuilder.append(INDENTATION).append("aload ").append(typeDescriptor.getIndex());
+                this.emitter.instruction("aload", typeDescriptor.getIndex());
                 break;
             }
             default: {
                 if (symbolTables.getClassName().equals(typeDescriptor.getTypeIdentifier()) || symbolTables.isImportedClass(typeDescriptor.getTypeIdentifier())) {
                     incCounterStack(1);
-                    stringBuilder.append(INDENTATION).append("aload ").append(typeDescriptor.getIndex());
+                    this.emitter.instruction("aload", typeDescriptor.getIndex());
                 }
                 break;
             }
 
         }
-        return stringBuilder.toString();
     }
 
-    private String generateExpression(FunctionDescriptor functionDescriptor, SimpleNode expressionNode, AssemblerLabels assemblerLabels) throws Exception {
-        StringBuilder stringBuilder = new StringBuilder();
-
-        switch (expressionNode.getNodeName()) {
-            case NodeName.IDENTIFIER: {
-                TypeDescriptor typeDescriptor = functionDescriptor.getTypeDescriptor(expressionNode.jjtGetVal());
-
-                if (typeDescriptor == null) {
-                    break;
-                }
-                stringBuilder.append(this.parseTypeDescriptorLoader(typeDescriptor)).append("\n");
-                break;
-            }
-            case NodeName.INT: {
-                stringBuilder.append(INDENTATION).append(this.generatePushInt(expressionNode)).append("\n");
-                break;
-            }
-            case NodeName.BOOLEAN: {
-                stringBuilder.append(INDENTATION).append(this.parseBoolean(expressionNode)).append("\n");
-                break;
-            }
-            case NodeName.NEW: {
-                SimpleNode identifierChild = (SimpleNode) expressionNode.jjtGetChild(0);
-
-                if (identifierChild.getNodeName().equals(NodeName.ARRAYSIZE)) {
-                    stringBuilder.append(this.generateExpression(functionDescriptor, identifierChild.getChild(0), assemblerLabels));
-                    stringBuilder.append(INDENTATION).append("newarray int\n");
-                    break;
-                }
-
-                stringBuilder.append(INDENTATION).append("new ").append("'").append(identifierChild.jjtGetVal()).append("'").append("\n");
-                incCounterStack(1);
-                stringBuilder.append(INDENTATION).append("dup\n");
-                incCounterStack(1);
+    private void generateExpression(FunctionDescriptor functionDescriptor, SimpleNode expressionNode, AssemblerLabels assemblerLabels) throws Exception {
+        expressionNode.jjtAccept(this.expressionGenerator, null);
+    }
 
-                if (expressionNode.jjtGetNumChildren() > 1) //Arguments were passed
-                    stringBuilder.append(this.generateArgumentsLoading(functionDescriptor, expressionNode.getChild(1), assemblerLabels));
+    private void generateNew(FunctionDescriptor functionDescriptor, SimpleNode newNode, AssemblerLabels assemblerLabels) throws Exception {
+        SimpleNode identifierChild = newNode.getChild(0);
 
-                stringBuilder.append(INDENTATION).append("invokespecial ").append(identifierChild.jjtGetVal()).append("/<init>(");
+        if (identifierChild.getId() == NodeName.ARRAYSIZE) {
+            this.generateExpression(functionDescriptor, identifierChild.getChild(0), assemblerLabels);
+            this.emitter.newIntArray();
+            return;
+        }
 
-                if (expressionNode.jjtGetNumChildren() > 1) //Arguments were passed
-                    stringBuilder.append(this.generateConstructorArguments(functionDescriptor, expressionNode.getChild(1), assemblerLabels));
+        this.emitter.newObject(identifierChild.jjtGetVal());
+        incCounterStack(1);
+        this.emitter.instruction("dup");
+        incCounterStack(1);
 
-                stringBuilder.append(")V\n");
-                break;
-            }
-            case NodeName.THIS: {
-                stringBuilder.append(INDENTATION).append("aload_0\n");
-                incCounterStack(1);
-                break;
-            }
-            case NodeName.DOTMETHOD: {
-                stringBuilder.append(this.generateDotMethod(functionDescriptor, expressionNode, assemblerLabels));
-                break;
-            }
-            case NodeName.ARRAYACCESS: {
-                stringBuilder.append(this.generateArrayAccess(functionDescriptor, expressionNode, assemblerLabels));
-                stringBuilder.append(INDENTATION).append("iaload\n");
-                incCounterStack(-1);
-                break;
-            }
-            default: {
-                if (Utils.isArithmeticExpression(expressionNode))
-                    stringBuilder.append(this.generateArithmeticExpression(expressionNode, functionDescriptor, assemblerLabels));
-                break;
-            }
+        String constructorArguments = "";
+        if (newNode.jjtGetNumChildren() > 1) { //Arguments were passed
+            this.generateArgumentsLoading(functionDescriptor, newNode.getChild(1), assemblerLabels);
+            constructorArguments = this.generateConstructorArguments(functionDescriptor, newNode.getChild(1), assemblerLabels);
         }
 
-        return stringBuilder.toString();
+        this.emitter.invoke("invokespecial", identifierChild.jjtGetVal(), "<init>", "(" + constructorArguments + ")V");
     }
 
-    private String generateArrayAccess(FunctionDescriptor functionDescriptor, SimpleNode arrayAccessNode, AssemblerLabels assemblerLabels) throws Exception {
-        StringBuilder stringBuilder = new StringBuilder();
-
+    private void generateArrayAccess(FunctionDescriptor functionDescriptor, SimpleNode arrayAccessNode, AssemblerLabels assemblerLabels) throws Exception {
         SimpleNode firstChild = arrayAccessNode.getChild(0);
         SimpleNode expressionChild = arrayAccessNode.getChild(1);
 
-        stringBuilder.append(this.generateExpression(functionDescriptor, firstChild, assemblerLabels));
-        stringBuilder.append(this.generateExpression(functionDescriptor, expressionChild, assemblerLabels));
-
-        return stringBuilder.toString();
+        this.generateExpression(functionDescriptor, firstChild, assemblerLabels);
+        this.generateExpression(functionDescriptor, expressionChild, assemblerLabels);
     }
 
-    private String generatePushInt(SimpleNode intNode) {
+    private void generatePushInt(SimpleNode intNode) {
         int value = Integer.parseInt(intNode.jjtGetVal());
         incCounterStack(1);
 
         if (value <= 5)
-            return "iconst_" + value;
+            this.emitter.instruction("iconst_" + value);
         else if (value <= BYTE_SIZE)
-            return "bipush " + value;
+            this.emitter.instruction("bipush", value);
         else if (value <= SHORT_SIZE)
-            return "sipush " + value;
-
-        return "ldc " + value;
+            this.emitter.instruction("sipush", value);
+        else
+            this.emitter.instruction("ldc", value);
     }
 
     private void incCounterStack(int i) {
@@ -772,5 +724,160 @@ public class CodeGenerator {
         limitStack = Math.max(counterStack, limitStack);
     }
 
-}
+    // Generates a statement of the method; other nodes generate nothing
+    private class StatementGenerator extends ParserDefaultVisitor {
+        private final FunctionDescriptor functionDescriptor;
+        private final AssemblerLabels assemblerLabels;
+
+        private StatementGenerator(FunctionDescriptor functionDescriptor, AssemblerLabels assemblerLabels) {
+            this.functionDescriptor = functionDescriptor;
+            this.assemblerLabels = assemblerLabels;
+        }
+
+        @Override
+        public Object defaultVisit(SimpleNode node, Object data) {
+            return null;
+        }
+
+        // The value of a method called as a statement is discarded
+        @Override
+        public Object visit(ASTDotMethod node, Object data) throws Exception {
+            generateDotMethod(functionDescriptor, node, assemblerLabels, true);
+            emitter.blankLine();
+            return null;
+        }
+
+        @Override
+        public Object visit(ASTAssignment node, Object data) throws Exception {
+            generateAssignment(node, functionDescriptor, assemblerLabels);
+            return null;
+        }
+
+        @Override
+        public Object visit(ASTIf node, Object data) throws Exception {
+            generateIf(node, functionDescriptor, assemblerLabels);
+            return null;
+        }
+
+        @Override
+        public Object visit(ASTWhile node, Object data) throws Exception {
+            generateWhile(node, functionDescriptor, assemblerLabels);
+            return null;
+        }
+
+        @Override
+        public Object visit(ASTReturn node, Object data) throws Exception {
+            generateReturn(functionDescriptor, node, assemblerLabels);
+            return null;
+        }
+    }
+
+    // Generates the code that pushes the value of an expression
+    private class ExpressionGenerator extends ParserDefaultVisitor {
+        private final FunctionDescriptor functionDescriptor;
+        private final AssemblerLabels assemblerLabels;
+
+        private ExpressionGenerator(FunctionDescriptor functionDescriptor, AssemblerLabels assemblerLabels) {
+            this.functionDescriptor = functionDescriptor;
+            this.assemblerLabels = assemblerLabels;
+        }
 
+        @Override
+        public Object defaultVisit(SimpleNode node, Object data) {
+            return null;
+        }
+
+        @Override
+        public Object visit(ASTDotMethod node, Object data) throws Exception {
+            generateDotMethod(functionDescriptor, node, assemblerLabels);
+            return null;
+        }
+
+        @Override
+        public Object visit(ASTIdentifier node, Object data) {
+            TypeDescriptor typeDescriptor = functionDescriptor.getTypeDescriptor(node.jjtGetVal());
+            if (typeDescriptor != null)
+                parseTypeDescriptorLoader(typeDescriptor);
+            return null;
+        }
+
+        @Override
+        public Object visit(ASTInt node, Object data) {
+            generatePushInt(node);
+            return null;
+        }
+
+        @Override
+        public Object visit(ASTBoolean node, Object data) {
+            emitter.instruction(parseBoolean(node));
+            return null;
+        }
+
+        @Override
+        public Object visit(ASTNew node, Object data) throws Exception {
+            generateNew(functionDescriptor, node, assemblerLabels);
+            return null;
+        }
+
+        @Override
+        public Object visit(ASTThis node, Object data) {
+            emitter.instruction("aload_0");
+            incCounterStack(1);
+            return null;
+        }
+
+        @Override
+        public Object visit(ASTArrayAccess node, Object data) throws Exception {
+            generateArrayAccess(functionDescriptor, node, assemblerLabels);
+            emitter.instruction("iaload");
+            incCounterStack(-1);
+            return null;
+        }
+
+        @Override
+        public Object visit(ASTAdd node, Object data) throws Exception {
+            generateArithmeticExpression(node, functionDescriptor, assemblerLabels);
+            return null;
+        }
+
+        @Override
+        public Object visit(ASTSub node, Object data) throws Exception {
+            generateArithmeticExpression(node, functionDescriptor, assemblerLabels);
+            return null;
+        }
+
+        @Override
+        public Object visit(ASTMul node, Object data) throws Exception {
+            generateArithmeticExpression(node, functionDescriptor, assemblerLabels);
+            return null;
+        }
+
+        @Override
+        public Object visit(ASTDiv node, Object data) throws Exception {
+            generateArithmeticExpression(node, functionDescriptor, assemblerLabels);
+            return null;
+        }
+
+        @Override
+        public Object visit(ASTLess node, Object data) throws Exception {
+            generateArithmeticExpression(node, functionDescriptor, assemblerLabels);
+            return null;
+        }
+
+        @Override
+        public Object visit(ASTAnd node, Object data) throws Exception {
+            generateArithmeticExpression(node, functionDescriptor, assemblerLabels);
+            return null;
+        }
+
+        @Override
+        public Object visit(ASTNot node, Object data) throws Exception {
+            generateArithmeticExpression(node, functionDescriptor, assemblerLabels);
+            return null;
+        }
+    }
+
+    interface FileContents {
+        void write(Path file) throws Exception;
+    }
+}
@@ -0,0 +1,67 @@
+package main;
+
+import Profile.CounterMap;
+
+import java.util.Collections;
+import java.util.Map;
+
+public class CompilationResult {
+    private final boolean success;
+    private final String className;
+    private final String jasminCode;
+    private final byte[] classFile;
+    private final String diagnostics;
+    private final CompilationStats stats;
+    private final CounterMap counterMap;
+    private final Map<String, Long> phaseTimes;
+
+    public CompilationResult(boolean success, String className, String jasminCode, byte[] classFile, String diagnostics, CompilationStats stats,
+                             CounterMap counterMap) {
+        this.success = success;
+        this.className = className;
+        this.jasminCode = jasminCode;
+        this.classFile = classFile;
+        this.diagnostics = diagnostics;
+        this.stats = stats;
+        this.counterMap = counterMap;
+        this.phaseTimes = Collections.unmodifiableMap(stats.getPhaseTimes());
+    }
+
+    public boolean isSuccess() {
+        return success;
+    }
+
+    public String getClassName() {
+        return className;
+    }
+
+    // Null if the compilation failed or used the class file backend
+    public String getJasminCode() {
+        return jasminCode;
+    }
+
+    // Null if the compilation failed or only generated Jasmin code
+    public byte[] getClassFile() {
+        return classFile;
+    }
+
+    // Everything the compiler printed: errors, warnings and, in debug mode, the AST
+    public String getDiagnostics() {
+        return diagnostics;
+    }
+
+    // Nanoseconds spent in each phase that ran, in execution order (see the jmm.*_PHASE names)
+    public Map<String, Long> getPhaseTimes() {
+        return phaseTimes;
+    }
+
+    // Wall and CPU time, allocations and sizes of this compilation
+    public CompilationStats getStats() {
+        return stats;
+    }
+
+    // What each counter of an instrumented class counts; null unless compiled with -instrument
+    public CounterMap getCounterMap() {
+        return counterMap;
+    }
+}
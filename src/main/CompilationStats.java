@@ -0,0 +1,253 @@
+package main;
+
+import events.CompilerEvent;
+import events.PhaseEvent;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/*
+ * Wall time, CPU time and allocated bytes of each phase of one compilation, and the size of what was compiled.
+ *
+ * CPU time and allocations are those of the compiling thread, so the methods are not processed
+ * concurrently when they are measured; otherwise only the wall time is. Each phase is also recorded
+ * as a Flight Recorder event.
+ */
+public class CompilationStats {
+
+    public static final String SOURCE_BYTES = "sourceBytes";
+    public static final String TOKENS = "tokens";
+    public static final String AST_NODES = "astNodes";
+    public static final String METHODS = "methods";
+    public static final String CFG_NODES = "cfgNodes";
+    public static final String INTERFERENCE_EDGES = "interferenceEdges";
+    public static final String AST_BYTES = "astBytes";
+    public static final String SYMBOL_TABLES_BYTES = "symbolTablesBytes";
+    public static final String CODEGEN_BYTES = "codegenBytes";
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+    // Appends of concurrent compilations must not interleave
+    private static final Object OUTPUT_LOCK = new Object();
+
+    private final String sourceName;
+    private final boolean measured;
+    private final Map<String, Phase> phases = new LinkedHashMap<>();
+    private final Map<String, Long> counts = new LinkedHashMap<>();
+    private boolean success = false;
+    private boolean cached = false;
+    private String className = null;
+
+    private String phase = null;
+    private PhaseEvent phaseEvent;
+    private long wallStart;
+    private long cpuStart;
+    private long allocatedStart;
+
+    public CompilationStats(String sourceName, boolean measured) {
+        this.sourceName = sourceName;
+        this.measured = measured;
+    }
+
+    public void startPhase(String phase) {
+        this.phase = phase;
+        this.phaseEvent = new PhaseEvent();
+        this.phaseEvent.begin();
+
+        this.wallStart = System.nanoTime();
+        this.cpuStart = this.measured ? cpuTime() : -1;
+        this.allocatedStart = this.measured ? allocatedBytes() : -1;
+    }
+
+    public void endPhase() {
+        long wallEnd = System.nanoTime();
+        long cpuEnd = this.measured ? cpuTime() : -1;
+        long allocatedEnd = this.measured ? allocatedBytes() : -1;
+
+        this.phases.put(this.phase, new Phase(wallEnd - this.wallStart,
+                cpuEnd < 0 ? -1 : cpuEnd - this.cpuStart,
+                allocatedEnd < 0 ? -1 : allocatedEnd - this.allocatedStart));
+
+        this.commitPhaseEvent(CompilerEvent.SUCCESS);
+    }
+
+    // Ends the current phase, if any, without measuring it: it failed before completing
+    public void abortPhase() {
+        if (this.phase != null)
+            this.commitPhaseEvent(CompilerEvent.FAILURE);
+    }
+
+    private void commitPhaseEvent(String outcome) {
+        if (this.phaseEvent.shouldCommit()) {
+            this.phaseEvent.source = this.sourceName;
+            this.phaseEvent.className = this.className;
+            this.phaseEvent.phase = this.phase;
+            this.phaseEvent.nodeCount = this.counts.getOrDefault(AST_NODES, 0L);
+            this.phaseEvent.outcome = outcome;
+            this.phaseEvent.commit();
+        }
+
+        this.phase = null;
+        this.phaseEvent = null;
+    }
+
+    public void setCount(String name, long count) {
+        this.counts.put(name, count);
+    }
+
+    public void setSuccess(boolean success) {
+        this.success = success;
+    }
+
+    public boolean isSuccess() {
+        return this.success;
+    }
+
+    public void setCached(boolean cached) {
+        this.cached = cached;
+    }
+
+    public boolean isCached() {
+        return this.cached;
+    }
+
+    // Null until the symbol tables are generated
+    public String getClassName() {
+        return this.className;
+    }
+
+    public void setClassName(String className) {
+        this.className = className;
+    }
+
+    public String getSourceName() {
+        return this.sourceName;
+    }
+
+    public Map<String, Phase> getPhases() {
+        return this.phases;
+    }
+
+    public Map<String, Long> getCounts() {
+        return this.counts;
+    }
+
+    // e.g. "Parsed Life.jmm: 7519 bytes, 1839 tokens and 1378 AST nodes in 2.514 ms (2.85 MB/s, 731504 tokens/s, 548131 nodes/s)"
+    public String formatParseThroughput() {
+        long bytes = this.counts.getOrDefault(SOURCE_BYTES, 0L);
+        long tokens = this.counts.getOrDefault(TOKENS, 0L);
+        long nodes = this.counts.getOrDefault(AST_NODES, 0L);
+        double seconds = Math.max(this.phases.get(jmm.PARSE_PHASE).getWallNanos(), 1) / 1e9;
+
+        return String.format(Locale.ROOT, "Parsed %s: %d bytes, %d tokens and %d AST nodes in %.3f ms (%.2f MB/s, %.0f tokens/s, %.0f nodes/s)",
+                this.sourceName.substring(this.sourceName.lastIndexOf(File.separatorChar) + 1), bytes, tokens, nodes, seconds * 1e3,
+                bytes / seconds / (1024 * 1024), tokens / seconds, nodes / seconds);
+    }
+
+    public Map<String, Long> getPhaseTimes() {
+        Map<String, Long> phaseTimes = new LinkedHashMap<>();
+        for (Map.Entry<String, Phase> entry : this.phases.entrySet())
+            phaseTimes.put(entry.getKey(), entry.getValue().getWallNanos());
+
+        return phaseTimes;
+    }
+
+    // One JSON object per compilation, so the output of many compilations is a JSON lines file
+    public String toJson() {
+        StringBuilder json = new StringBuilder();
+
+        json.append("{\"file\":").append(quote(this.sourceName));
+        json.append(",\"success\":").append(this.success);
+        json.append(",\"cached\":").append(this.cached);
+
+        json.append(",\"phases\":{");
+        String separator = "";
+        for (Map.Entry<String, Phase> entry : this.phases.entrySet()) {
+            Phase phase = entry.getValue();
+            json.append(separator).append(quote(entry.getKey()))
+                    .append(":{\"wallNanos\":").append(phase.getWallNanos())
+                    .append(",\"cpuNanos\":").append(phase.getCpuNanos())
+                    .append(",\"allocatedBytes\":").append(phase.getAllocatedBytes()).append("}");
+            separator = ",";
+        }
+
+        json.append("},\"counts\":{");
+        separator = "";
+        for (Map.Entry<String, Long> entry : this.counts.entrySet()) {
+            json.append(separator).append(quote(entry.getKey())).append(":").append(entry.getValue());
+            separator = ",";
+        }
+
+        return json.append("}}").toString();
+    }
+
+    public void appendTo(Path file) throws IOException {
+        byte[] line = (this.toJson() + "\n").getBytes(StandardCharsets.UTF_8);
+
+        synchronized (OUTPUT_LOCK) {
+            Files.write(file, line, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        }
+    }
+
+    private static String quote(String value) {
+        StringBuilder quoted = new StringBuilder("\"");
+
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+
+            if (c == '"' || c == '\\')
+                quoted.append('\\').append(c);
+            else if (c < 0x20)
+                quoted.append(String.format("\\u%04x", (int) c));
+            else
+                quoted.append(c);
+        }
+
+        return quoted.append('"').toString();
+    }
+
+    // -1 where the JVM does not support the measurement
+    private static long cpuTime() {
+        return THREADS.isCurrentThreadCpuTimeSupported() ? THREADS.getCurrentThreadCpuTime() : -1;
+    }
+
+    private static long allocatedBytes() {
+        if (!(THREADS instanceof com.sun.management.ThreadMXBean))
+            return -1;
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) THREADS;
+        return threads.isThreadAllocatedMemorySupported() ? threads.getThreadAllocatedBytes(Thread.currentThread().getId()) : -1;
+    }
+
+    public static class Phase {
+        private final long wallNanos;
+        private final long cpuNanos;
+        private final long allocatedBytes;
+
+        private Phase(long wallNanos, long cpuNanos, long allocatedBytes) {
+            this.wallNanos = wallNanos;
+            this.cpuNanos = cpuNanos;
+            this.allocatedBytes = allocatedBytes;
+        }
+
+        public long getWallNanos() {
+            return wallNanos;
+        }
+
+        public long getCpuNanos() {
+            return cpuNanos;
+        }
+
+        public long getAllocatedBytes() {
+            return allocatedBytes;
+        }
+    }
+}
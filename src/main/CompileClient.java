@@ -0,0 +1,76 @@
+package main;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * Thin client for CompileServer. It only forwards its arguments and working directory,
+ * so it does not load any of the compiler classes itself (the constants it uses are inlined).
+ */
+public class CompileClient {
+
+    public static final String SHUTDOWN_FLAG = "-stop";
+
+    public static void main(String[] args) throws IOException {
+        System.exit(run(args, Paths.get("").toAbsolutePath(), System.out, System.err));
+    }
+
+    // Returns the status of the request; the compiler output goes to out
+    public static int run(String[] args, Path workingDirectory, PrintStream out, PrintStream err) throws IOException {
+        int port = CompileServer.DEFAULT_PORT;
+        boolean shutdown = false;
+        List<String> compilerArgs = new ArrayList<>();
+
+        for (String s : args) {
+            if (s.matches(CompileServer.PORT_FLAG + "=\\d+"))
+                port = Integer.parseInt(s.substring(3));
+            else if (s.equals(SHUTDOWN_FLAG))
+                shutdown = true;
+            else
+                compilerArgs.add(s);
+        }
+
+        if (!shutdown && compilerArgs.isEmpty()) {
+            err.println("Usage: java main.CompileClient [-p=<port>] (-stop | " + CompilerOptions.USAGE + ")");
+            return CompileServer.STATUS_FAILED;
+        }
+
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port);
+             DataOutputStream output = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+             DataInputStream input = new DataInputStream(new BufferedInputStream(socket.getInputStream()))) {
+
+            if (shutdown)
+                output.writeInt(CompileServer.SHUTDOWN_REQUEST);
+            else {
+                output.writeInt(CompileServer.COMPILE_REQUEST);
+                output.writeUTF(workingDirectory.toString());
+                output.writeInt(compilerArgs.size());
+                for (String arg : compilerArgs)
+                    output.writeUTF(arg);
+            }
+            output.flush();
+
+            int status = input.readInt();
+            long latency = input.readLong();
+            byte[] message = new byte[input.readInt()];
+            input.readFully(message);
+
+            out.print(new String(message, StandardCharsets.UTF_8));
+            if (!shutdown)
+                err.println((status == CompileServer.STATUS_OK ? "Compiled" : "Failed") + " in " + latency / 1_000_000.0 + " ms");
+
+            return status;
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package main;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Long-lived compiler daemon, so that repeated compilations run on an already warm (JIT-compiled) JVM.
+ *
+ * Protocol, one request per connection (see CompileClient):
+ *   request:  int type, [UTF working directory, int argc, argc x UTF argument]   (the rest only for COMPILE)
+ *   response: int status, long latency in nanoseconds, int length, length bytes of compiler output
+ */
+public class CompileServer {
+
+    public static final String PORT_FLAG = "-p";
+    public static final int DEFAULT_PORT = 4871;
+
+    public static final int COMPILE_REQUEST = 0;
+    public static final int SHUTDOWN_REQUEST = 1;
+
+    public static final int STATUS_OK = 0;
+    public static final int STATUS_FAILED = 1;
+
+    private static final int BACKLOG = 50;
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 60;
+
+    private final int port;
+    private final ExecutorService pool;
+    private ServerSocket serverSocket;
+    private volatile boolean running;
+
+    public static void main(String[] args) throws Exception {
+        int port = DEFAULT_PORT;
+        int numThreads = Runtime.getRuntime().availableProcessors();
+
+        for (String s : args) {
+            if (s.matches(PORT_FLAG + "=\\d+"))
+                port = Integer.parseInt(s.substring(3));
+            else if (s.matches(CompilerOptions.THREADS_FLAG + "=[1-9]\\d*"))
+                numThreads = Integer.parseInt(s.substring(3));
+            else {
+                System.err.println("Usage: java main.CompileServer [-p=<port>] [-t=<num>]");
+                return;
+            }
+        }
+
+        CompileServer server = new CompileServer(port, numThreads);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.stop();
+            server.awaitRequests();
+        }));
+
+        server.serve();
+    }
+
+    public CompileServer(int port, int numThreads) {
+        this.port = port;
+        this.pool = Executors.newFixedThreadPool(numThreads);
+    }
+
+    public void serve() throws IOException {
+        this.listen();
+        this.acceptRequests();
+    }
+
+    // Returns the port listened on, which is chosen by the system when the server was created with port 0
+    public int listen() throws IOException {
+        this.serverSocket = new ServerSocket(this.port, BACKLOG, InetAddress.getLoopbackAddress());
+        this.running = true;
+        System.out.println("Compile server listening on " + this.serverSocket.getLocalSocketAddress());
+
+        return this.serverSocket.getLocalPort();
+    }
+
+    // Serves requests until stopped
+    public void acceptRequests() throws IOException {
+        while (this.running) {
+            Socket socket;
+            try {
+                socket = this.serverSocket.accept();
+            } catch (SocketException e) { // Socket closed by stop()
+                break;
+            }
+
+            this.pool.submit(() -> this.handle(socket));
+        }
+
+        this.awaitRequests();
+        System.out.println("Compile server stopped");
+    }
+
+    // Stops accepting connections; requests already accepted are still served
+    public void stop() {
+        this.running = false;
+
+        try {
+            if (this.serverSocket != null)
+                this.serverSocket.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private void awaitRequests() {
+        this.pool.shutdown();
+
+        try {
+            this.pool.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void handle(Socket socket) {
+        try (Socket client = socket;
+             DataInputStream input = new DataInputStream(new BufferedInputStream(client.getInputStream()));
+             DataOutputStream output = new DataOutputStream(new BufferedOutputStream(client.getOutputStream()))) {
+
+            if (input.readInt() == SHUTDOWN_REQUEST) {
+                this.writeResponse(output, STATUS_OK, 0, "Compile server shutting down\n");
+                this.stop();
+                return;
+            }
+
+            Path workingDirectory = Paths.get(input.readUTF());
+            String[] args = new String[input.readInt()];
+            for (int i = 0; i < args.length; i++)
+                args[i] = input.readUTF();
+
+            long start = System.nanoTime();
+
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            PrintStream stream = new PrintStream(buffer, true, "UTF-8");
+            boolean success;
+            try {
+                success = jmm.run(args, workingDirectory, stream, stream);
+            } catch (Exception e) {
+                if (e.getMessage() != null)
+                    stream.println(e.getMessage());
+                success = false;
+            }
+            stream.flush();
+
+            long latency = System.nanoTime() - start;
+            System.out.println(String.join(" ", args) + ": " + (success ? "compiled" : "failed") + " in " + latency / 1_000_000.0 + " ms");
+
+            this.writeResponse(output, success ? STATUS_OK : STATUS_FAILED, latency, buffer.toString("UTF-8"));
+        } catch (IOException e) {
+            System.err.println("Compile request failed: " + e.getMessage());
+        }
+    }
+
+    private void writeResponse(DataOutputStream output, int status, long latency, String message) throws IOException {
+        byte[] bytes = message.getBytes(StandardCharsets.UTF_8);
+
+        output.writeInt(status);
+        output.writeLong(latency);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+        output.flush();
+    }
+}
@@ -0,0 +1,254 @@
+package main;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+public class CompilerOptions {
+
+    public static final String DEBUG_FLAG = "-d";
+    public static final String REGISTERS_FLAG = "-r";
+    public static final String OPTIMIZATION_FLAG = "-o";
+    public static final String THREADS_FLAG = "-t";
+    public static final String CACHE_FLAG = "-c";
+    public static final String CACHE_SIZE_FLAG = "-cmax";
+    public static final String BACKEND_FLAG = "-b";
+    public static final String SEQUENTIAL_FLAG = "-s";
+    public static final String STATS_FLAG = "-stats";
+    public static final String METRICS_FLAG = "-metrics";
+    public static final String INSTRUMENT_FLAG = "-instrument";
+    public static final String MEMORY_FLAG = "-memory";
+    public static final String THROUGHPUT_FLAG = "-throughput";
+    public static final String JASMIN_BACKEND = "jasmin";
+    public static final String CLASS_BACKEND = "class";
+    public static final String JASMIN_CLASS_BACKEND = "jasmin-class";
+    public static final int DEFAULT_NUM_REGISTERS = 0;
+    // Flags and inputs of the compiler, for the usage messages of jmm and CompileClient
+    public static final String USAGE = "[-d] [-r=<num>] [-o] [-s] [-b=jasmin|class|jasmin-class] [-c=<directory>] [-cmax=<num>] "
+            + "[-stats=<file>] [-metrics[=<baseline directory>]] [-instrument] [-memory] [-throughput] [-t=<num>] "
+            + "<input_file.jmm | directory>...";
+
+    public static final String DEFAULT_OUTPUT_DIRECTORY = "jasminCode";
+    public static final long DEFAULT_CACHE_SIZE = 64L * 1024 * 1024;
+
+    private boolean debugMode = true;
+    private boolean optimizationMode = false;
+    private int maxNumRegisters = DEFAULT_NUM_REGISTERS;
+    private int numThreads = Runtime.getRuntime().availableProcessors();
+    private Path outputDirectory = Paths.get(DEFAULT_OUTPUT_DIRECTORY);
+    private Path cacheDirectory = null;
+    private long cacheSize = DEFAULT_CACHE_SIZE;
+    private String backend = JASMIN_BACKEND;
+    private boolean parallelMethods = true;
+    private boolean stats = false;
+    private Path statsFile = null;
+    private boolean metrics = false;
+    private Path metricsDirectory = null;
+    private boolean instrument = false;
+    private boolean memory = false;
+    private boolean throughput = false;
+
+    public CompilerOptions() {
+    }
+
+    public CompilerOptions(CompilerOptions options) {
+        this.debugMode = options.debugMode;
+        this.optimizationMode = options.optimizationMode;
+        this.maxNumRegisters = options.maxNumRegisters;
+        this.numThreads = options.numThreads;
+        this.outputDirectory = options.outputDirectory;
+        this.cacheDirectory = options.cacheDirectory;
+        this.cacheSize = options.cacheSize;
+        this.backend = options.backend;
+        this.parallelMethods = options.parallelMethods;
+        this.stats = options.stats;
+        this.statsFile = options.statsFile;
+        this.metrics = options.metrics;
+        this.metricsDirectory = options.metricsDirectory;
+        this.instrument = options.instrument;
+        this.memory = options.memory;
+        this.throughput = options.throughput;
+    }
+
+    // Returns false if the argument is not a flag, i.e. it is an input path
+    public boolean parseFlag(String arg) {
+        if (arg.equals(DEBUG_FLAG))
+            this.debugMode = false;
+        else if (arg.equals(OPTIMIZATION_FLAG))
+            this.optimizationMode = true;
+        else if (arg.equals(SEQUENTIAL_FLAG))
+            this.parallelMethods = false;
+        else if (arg.matches(REGISTERS_FLAG + "=\\d+"))
+            this.maxNumRegisters = Integer.parseInt(arg.substring(3));
+        else if (arg.matches(THREADS_FLAG + "=[1-9]\\d*"))
+            this.numThreads = Integer.parseInt(arg.substring(3));
+        else if (arg.matches(CACHE_SIZE_FLAG + "=\\d+"))
+            this.cacheSize = Long.parseLong(arg.substring(CACHE_SIZE_FLAG.length() + 1)) * 1024 * 1024;
+        else if (arg.matches(BACKEND_FLAG + "=(" + JASMIN_BACKEND + "|" + CLASS_BACKEND + "|" + JASMIN_CLASS_BACKEND + ")"))
+            this.backend = arg.substring(3);
+        else if (arg.equals(INSTRUMENT_FLAG))
+            this.instrument = true;
+        else if (arg.equals(MEMORY_FLAG))
+            this.memory = true;
+        else if (arg.equals(THROUGHPUT_FLAG))
+            this.throughput = true;
+        else if (arg.equals(METRICS_FLAG))
+            this.metrics = true;
+        else if (arg.startsWith(METRICS_FLAG + "=") && arg.length() > METRICS_FLAG.length() + 1) {
+            this.metrics = true;
+            this.metricsDirectory = Paths.get(arg.substring(METRICS_FLAG.length() + 1));
+        } else if (arg.startsWith(STATS_FLAG + "=") && arg.length() > STATS_FLAG.length() + 1) {
+            this.stats = true;
+            this.statsFile = Paths.get(arg.substring(STATS_FLAG.length() + 1));
+        } else if (arg.startsWith(CACHE_FLAG + "=") && arg.length() > 3)
+            this.cacheDirectory = Paths.get(arg.substring(3));
+        else
+            return false;
+
+        return true;
+    }
+
+    public boolean isDebugMode() {
+        return debugMode;
+    }
+
+    public void setDebugMode(boolean debugMode) {
+        this.debugMode = debugMode;
+    }
+
+    public boolean isOptimizationMode() {
+        return optimizationMode;
+    }
+
+    public void setOptimizationMode(boolean optimizationMode) {
+        this.optimizationMode = optimizationMode;
+    }
+
+    public int getMaxNumRegisters() {
+        return maxNumRegisters;
+    }
+
+    public void setMaxNumRegisters(int maxNumRegisters) {
+        this.maxNumRegisters = maxNumRegisters;
+    }
+
+    public int getNumThreads() {
+        return numThreads;
+    }
+
+    public void setNumThreads(int numThreads) {
+        this.numThreads = numThreads;
+    }
+
+    public Path getOutputDirectory() {
+        return outputDirectory;
+    }
+
+    public void setOutputDirectory(Path outputDirectory) {
+        this.outputDirectory = outputDirectory;
+    }
+
+    public Path getCacheDirectory() {
+        return cacheDirectory;
+    }
+
+    public void setCacheDirectory(Path cacheDirectory) {
+        this.cacheDirectory = cacheDirectory;
+    }
+
+    public long getCacheSize() {
+        return cacheSize;
+    }
+
+    public void setCacheSize(long cacheSize) {
+        this.cacheSize = cacheSize;
+    }
+
+    public String getBackend() {
+        return backend;
+    }
+
+    public void setBackend(String backend) {
+        this.backend = backend;
+    }
+
+    public boolean isClassBackend() {
+        return CLASS_BACKEND.equals(backend);
+    }
+
+    public boolean isJasminClassBackend() {
+        return JASMIN_CLASS_BACKEND.equals(backend);
+    }
+
+    // Whether the methods of a file are processed concurrently. Never with statistics, whose
+    // CPU time and allocations are those of the compiling thread
+    public boolean isParallelMethods() {
+        return parallelMethods && !stats;
+    }
+
+    public void setParallelMethods(boolean parallelMethods) {
+        this.parallelMethods = parallelMethods;
+    }
+
+    // Whether to measure the CPU time and allocations of each phase and count what was compiled
+    public boolean isStats() {
+        return stats;
+    }
+
+    public void setStats(boolean stats) {
+        this.stats = stats;
+    }
+
+    // JSON lines file that the statistics of every compilation are appended to, or null
+    public Path getStatsFile() {
+        return statsFile;
+    }
+
+    public void setStatsFile(Path statsFile) {
+        this.statsFile = statsFile;
+    }
+
+    // Whether to print the size of the code generated for each method
+    public boolean isMetrics() {
+        return metrics;
+    }
+
+    public void setMetrics(boolean metrics) {
+        this.metrics = metrics;
+    }
+
+    // Directory of the metrics baselines that the generated code is compared against, or null
+    public Path getMetricsDirectory() {
+        return metricsDirectory;
+    }
+
+    public void setMetricsDirectory(Path metricsDirectory) {
+        this.metricsDirectory = metricsDirectory;
+    }
+
+    // Whether the generated code counts how often its methods, blocks and branches are executed
+    public boolean isInstrument() {
+        return instrument;
+    }
+
+    public void setInstrument(boolean instrument) {
+        this.instrument = instrument;
+    }
+
+    // Whether to print the memory retained by the AST, the symbol tables and the generated code
+    public boolean isMemory() {
+        return memory;
+    }
+
+    public void setMemory(boolean memory) {
+        this.memory = memory;
+    }
+
+    // Whether to print the bytes, tokens and AST nodes parsed per second
+    public boolean isThroughput() {
+        return throughput;
+    }
+
+    public void setThroughput(boolean throughput) {
+        this.throughput = throughput;
+    }
+}
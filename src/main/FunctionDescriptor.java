@@ -3,7 +3,6 @@ package main;
 import parser.SimpleNode;
 
 import java.util.LinkedHashMap;
-import java.util.Map;
 
 public class FunctionDescriptor {
     private String returnType;
@@ -11,6 +10,8 @@ public class FunctionDescriptor {
     private final LinkedHashMap<String, TypeDescriptor> params;
     private final Scope scope;
     private boolean fromSuper;
+    private String jvmDescriptor;
+    private Signature signature;
 
     private final SimpleNode methodNode;
 
@@ -21,14 +22,32 @@ public class FunctionDescriptor {
         this.fromSuper = false;
     }
 
-    public String getIdentifier() {
-        StringBuilder stringBuilder = new StringBuilder();
-        stringBuilder.append(this.methodName).append("&");
+    // Built on first use, once every parameter has been added
+    public Signature getSignature() {
+        if (this.signature == null) {
+            String[] types = new String[this.params.size()];
+            int i = 0;
+            for (TypeDescriptor param : this.params.values())
+                types[i++] = param.getTypeIdentifier();
 
-        for (Map.Entry<String, TypeDescriptor> entry : this.params.entrySet())
-            stringBuilder.append(entry.getValue().getTypeIdentifier());
+            this.signature = new Signature(null, this.methodName, types);
+        }
 
-        return stringBuilder.toString();
+        return this.signature;
+    }
+
+    // Built on first use, once every parameter has been added
+    public String getJVMDescriptor() {
+        if (this.jvmDescriptor == null) {
+            StringBuilder stringBuilder = new StringBuilder("(");
+            for (TypeDescriptor param : this.params.values())
+                stringBuilder.append(param.toJVM());
+            stringBuilder.append(")").append(TypeDescriptor.toJVM(this.returnType));
+
+            this.jvmDescriptor = stringBuilder.toString();
+        }
+
+        return this.jvmDescriptor;
     }
 
     public boolean isFromSuper() {
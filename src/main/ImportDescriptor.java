@@ -13,6 +13,8 @@ public class ImportDescriptor {
     private TypeDescriptor returnType;
     private final List<TypeDescriptor> arguments;
     private boolean isStatic = false;
+    private String jvmDescriptor;
+    private Signature signature;
 
     public ImportDescriptor(SimpleNode importNode) {
         this.arguments = new ArrayList<>();
@@ -60,18 +62,31 @@ public class ImportDescriptor {
         isStatic = aStatic;
     }
 
-    public String getIdentifier() {
-        StringBuilder stringBuilder = new StringBuilder();
+    // Built on first use, once every argument has been added
+    public Signature getSignature() {
+        if (this.signature == null) {
+            String[] types = new String[this.arguments.size()];
+            for (int i = 0; i < types.length; i++)
+                types[i] = this.arguments.get(i).getTypeIdentifier();
 
-        stringBuilder.append(this.className).append("&");
+            this.signature = new Signature(this.className, this.methodName, types);
+        }
 
-        if (this.methodName != null)
-            stringBuilder.append(this.methodName).append("&");
+        return this.signature;
+    }
+
+    // Built on first use, once every argument has been added
+    public String getJVMDescriptor() {
+        if (this.jvmDescriptor == null) {
+            StringBuilder stringBuilder = new StringBuilder("(");
+            for (TypeDescriptor argument : this.arguments)
+                stringBuilder.append(argument.toJVM());
+            stringBuilder.append(")").append(this.returnType.toJVM());
 
-        for (TypeDescriptor typeDescriptor : this.arguments)
-            stringBuilder.append(typeDescriptor.getTypeIdentifier());
+            this.jvmDescriptor = stringBuilder.toString();
+        }
 
-        return stringBuilder.toString();
+        return this.jvmDescriptor;
     }
 
     public SimpleNode getNode() {
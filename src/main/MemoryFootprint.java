@@ -0,0 +1,249 @@
+package main;
+
+import com.sun.management.HotSpotDiagnosticMXBean;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+ * Estimated heap retained by the structures of a compilation: the AST with its tokens, the symbol
+ * tables and the code generated from them.
+ *
+ * Sizes follow the HotSpot object layout (12 byte headers and 4 byte references with compressed
+ * oops, 8 byte alignment). The fields of the compiler's own classes are read by reflection; the
+ * JDK classes they use (strings, boxes, lists, maps and sets) are sized from their contents.
+ * Structures are measured in order and each object is only counted in the first one that reaches
+ * it, so the symbol tables do not include the arrays of the AST their nodes point to.
+ */
+public class MemoryFootprint {
+
+    private static final boolean COMPRESSED_OOPS = compressedOops();
+    private static final int HEADER = COMPRESSED_OOPS ? 12 : 16;
+    private static final int ARRAY_HEADER = COMPRESSED_OOPS ? 16 : 24;
+    private static final int REFERENCE = COMPRESSED_OOPS ? 4 : 8;
+
+    // Fields of each class, including inherited ones, as they are looked up for every instance
+    private static final Map<Class<?>, Layout> LAYOUTS = new ConcurrentHashMap<>();
+
+    private final Set<Object> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final Map<String, Map<String, long[]>> structures = new LinkedHashMap<>();
+
+    // Returns the bytes retained by root that were not counted in a previous structure
+    public long measure(String structure, Object root) {
+        Map<String, long[]> histogram = this.structures.computeIfAbsent(structure, name -> new TreeMap<>());
+        long total = 0;
+
+        Deque<Object> pending = new ArrayDeque<>();
+        this.push(pending, root);
+        while (!pending.isEmpty()) {
+            Object object = pending.pop();
+            long size = this.visit(object, pending);
+
+            long[] entry = histogram.computeIfAbsent(typeName(object.getClass()), name -> new long[2]);
+            entry[0]++;
+            entry[1] += size;
+            total += size;
+        }
+
+        return total;
+    }
+
+    public long getTotal(String structure) {
+        long total = 0;
+        for (long[] entry : this.structures.getOrDefault(structure, Collections.emptyMap()).values())
+            total += entry[1];
+
+        return total;
+    }
+
+    // One section per structure, with the instances and bytes of each class, largest first
+    public String format() {
+        StringBuilder report = new StringBuilder();
+
+        for (Map.Entry<String, Map<String, long[]>> structure : this.structures.entrySet()) {
+            report.append(String.format("%-24s %10s %12s%n", structure.getKey(), "instances", "bytes"));
+
+            List<Map.Entry<String, long[]>> types = new ArrayList<>(structure.getValue().entrySet());
+            types.sort((a, b) -> Long.compare(b.getValue()[1], a.getValue()[1]));
+
+            long instances = 0;
+            for (Map.Entry<String, long[]> type : types) {
+                report.append(String.format("  %-22s %10d %12d%n", type.getKey(), type.getValue()[0], type.getValue()[1]));
+                instances += type.getValue()[0];
+            }
+            report.append(String.format("  %-22s %10d %12d%n", "total", instances, this.getTotal(structure.getKey())));
+        }
+
+        return report.toString();
+    }
+
+    private void push(Deque<Object> pending, Object object) {
+        if (object == null || object instanceof Class || object instanceof Enum || this.visited.contains(object))
+            return;
+
+        this.visited.add(object);
+        pending.push(object);
+    }
+
+    // Shallow size of the object, queueing what it references
+    private long visit(Object object, Deque<Object> pending) {
+        Class<?> type = object.getClass();
+
+        if (type.isArray()) {
+            int length = Array.getLength(object);
+            if (type.getComponentType().isPrimitive())
+                return align(ARRAY_HEADER + (long) length * primitiveSize(type.getComponentType()));
+
+            for (Object element : (Object[]) object)
+                this.push(pending, element);
+            return align(ARRAY_HEADER + (long) length * REFERENCE);
+        }
+
+        if (object instanceof String)
+            return stringSize((String) object);
+        if (object instanceof Long || object instanceof Double)
+            return align(HEADER + 8);
+        if (object instanceof Number || object instanceof Boolean || object instanceof Character)
+            return align(HEADER + 4);
+
+        if (object instanceof Map) {
+            Map<?, ?> map = (Map<?, ?>) object;
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                this.push(pending, entry.getKey());
+                this.push(pending, entry.getValue());
+            }
+            return hashSize(map.size(), object instanceof LinkedHashMap);
+        }
+        if (object instanceof Set) {
+            Set<?> set = (Set<?>) object;
+            for (Object element : set)
+                this.push(pending, element);
+            return align(HEADER + REFERENCE) + hashSize(set.size(), object instanceof LinkedHashSet);
+        }
+        if (object instanceof Collection) {
+            Collection<?> collection = (Collection<?>) object;
+            for (Object element : collection)
+                this.push(pending, element);
+            return align(HEADER + 8 + REFERENCE) + align(ARRAY_HEADER + (long) collection.size() * REFERENCE);
+        }
+
+        // Other JDK classes cannot be looked into, and are only counted by their header
+        if (type.getName().startsWith("java.") || type.getName().startsWith("jdk."))
+            return align(HEADER);
+
+        Layout layout = LAYOUTS.computeIfAbsent(type, Layout::new);
+        for (Field field : layout.references) {
+            try {
+                this.push(pending, field.get(object));
+            } catch (IllegalAccessException e) {
+                // Only counted by its reference
+            }
+        }
+
+        return layout.size;
+    }
+
+    // The map itself, its table at the default load factor and one node per entry
+    private static long hashSize(int size, boolean linked) {
+        int capacity = 16;
+        while (capacity * 3 / 4 < size)
+            capacity *= 2;
+
+        long map = align(HEADER + 4 * 4 + 4 * REFERENCE + (linked ? 2 * REFERENCE + 1 : 0));
+        long node = align(HEADER + 4 + 3 * REFERENCE + (linked ? 2 * REFERENCE : 0));
+
+        return map + (size == 0 ? 0 : align(ARRAY_HEADER + (long) capacity * REFERENCE)) + size * node;
+    }
+
+    // Compact strings: one byte per character unless a character does not fit
+    private static long stringSize(String string) {
+        int bytesPerChar = 1;
+        for (int i = 0; i < string.length(); i++) {
+            if (string.charAt(i) > 0xFF) {
+                bytesPerChar = 2;
+                break;
+            }
+        }
+
+        return align(HEADER + REFERENCE + 4 + 1 + 1) + align(ARRAY_HEADER + (long) string.length() * bytesPerChar);
+    }
+
+    private static int primitiveSize(Class<?> type) {
+        if (type == long.class || type == double.class)
+            return 8;
+        if (type == int.class || type == float.class)
+            return 4;
+        if (type == short.class || type == char.class)
+            return 2;
+
+        return 1;
+    }
+
+    private static long align(long size) {
+        return (size + 7) & ~7L;
+    }
+
+    // Lambdas are named after the class that creates them
+    private static String typeName(Class<?> type) {
+        if (type.isArray())
+            return typeName(type.getComponentType()) + "[]";
+        if (type.isHidden())
+            return type.getSimpleName().replaceAll("\\$\\$Lambda.*", " lambda");
+
+        return type.getSimpleName();
+    }
+
+    private static boolean compressedOops() {
+        try {
+            HotSpotDiagnosticMXBean hotSpot = ManagementFactory.getPlatformMXBean(HotSpotDiagnosticMXBean.class);
+            return hotSpot == null || Boolean.parseBoolean(hotSpot.getVMOption("UseCompressedOops").getValue());
+        } catch (RuntimeException e) {
+            return true;
+        }
+    }
+
+    private static class Layout {
+        private final long size;
+        private final List<Field> references = new ArrayList<>();
+
+        private Layout(Class<?> type) {
+            long size = HEADER;
+
+            for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+                for (Field field : c.getDeclaredFields()) {
+                    if (Modifier.isStatic(field.getModifiers()))
+                        continue;
+
+                    if (field.getType().isPrimitive())
+                        size += primitiveSize(field.getType());
+                    else {
+                        size += REFERENCE;
+                        try {
+                            field.setAccessible(true);
+                            this.references.add(field);
+                        } catch (RuntimeException e) {
+                            // Inaccessible: counted by its reference only
+                        }
+                    }
+                }
+            }
+
+            this.size = align(size);
+        }
+    }
+}
@@ -3,13 +3,15 @@ package main;
 import Types.NodeName;
 import Types.VarTypes;
 import exceptions.*;
-import parser.Node;
-import parser.ParserTreeConstants;
-import parser.SimpleNode;
+import parser.*;
 
-import java.util.Map;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 public class SemanticAnalyser {
     private static final int MAX_NUM_ERRORS = 10;
@@ -19,27 +21,66 @@ public class SemanticAnalyser {
     public final static int SHORT_SIZE = 32767;
     private final static int LONG_SIZE = 2147483647;
 
+    private static final Node[] NO_ARGUMENTS = new Node[0];
+
     private final SymbolTables symbolTables;
     private final SimpleNode root;
+    private final String sourceName;
+    private final String source;
     public boolean ignore_exceptions;
+    private boolean parallel = false;
+    private boolean memoized = false;
+
+    // Set when analysing a single method concurrently: its diagnostics are reported later, in source order
+    private List<SemanticException> diagnostics = null;
+    private Exception failure = null;
+
+    private PrintStream out = System.out;
+    private PrintStream err = System.err;
 
     public SemanticAnalyser(SymbolTables symbolTables, SimpleNode root, boolean ignore_exceptions) {
+        this(symbolTables, root, null, null, ignore_exceptions);
+    }
+
+    public SemanticAnalyser(SymbolTables symbolTables, SimpleNode root, String sourceName, String source, boolean ignore_exceptions) {
         this.symbolTables = symbolTables;
         this.root = root;
+        this.sourceName = sourceName;
+        this.source = source;
         this.no_error = 0;
         this.ignore_exceptions = ignore_exceptions;
     }
 
+    public void setOutput(PrintStream out, PrintStream err) {
+        this.out = out;
+        this.err = err;
+    }
+
+    // Analyses the methods of the class concurrently
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    // Returns the type already found for an expression instead of analysing it again. Only for
+    // analysers that look up types, as the diagnostics of the expression are not reported again.
+    public void setMemoized(boolean memoized) {
+        this.memoized = memoized;
+    }
+
     public void addException(SemanticException exception) throws Exception {
-        if (!ignore_exceptions) {
+        if (!ignore_exceptions && this.diagnostics != null) {
+            this.diagnostics.add(exception);
+            if (exception.isError() && ++no_error >= MAX_NUM_ERRORS)
+                throw new Exception("Reached max number of semantic errors");
+        } else if (!ignore_exceptions) {
             if (exception.isError()) {
-                System.err.println(exception.getMessage());
+                err.println(exception.getMessage(this.sourceName, this.source));
                 no_error++;
                 if (no_error >= MAX_NUM_ERRORS) {
                     throw new Exception("Reached max number of semantic errors");
                 }
             } else
-                System.out.println(exception.getMessage());
+                out.println(exception.getMessage(this.sourceName, this.source));
         }
     }
 
@@ -59,7 +100,7 @@ public class SemanticAnalyser {
         for (Node node : children) {
             SimpleNode child = (SimpleNode) node;
 
-            if (child.getNodeName().equals(NodeName.CLASS)) {
+            if (child.getId() == NodeName.CLASS) {
                 this.analyseClass(child);
                 break;
             }
@@ -67,9 +108,7 @@ public class SemanticAnalyser {
     }
 
     private void analyseImports() throws Exception {
-        for (Map.Entry<String, ImportDescriptor> entry : this.symbolTables.getImports().entrySet()) {
-            ImportDescriptor importDescriptor = entry.getValue();
-
+        for (ImportDescriptor importDescriptor : this.symbolTables.getImports().values()) {
             if (importDescriptor.isStatic() && importDescriptor.getMethodName() == null)
                 this.addException(new StaticClassImport(importDescriptor.getNode()));
 
@@ -84,13 +123,13 @@ public class SemanticAnalyser {
         if (children == null)
             return;
 
+        List<SimpleNode> methodNodes = new ArrayList<>();
         for (Node node : children) {
             SimpleNode child = (SimpleNode) node;
 
-            switch (child.getNodeName()) {
+            switch (child.getId()) {
                 case NodeName.METHOD: {
-                    String methodIdentifier = Utils.getMethodIdentifier(child);
-                    this.analyseMethod(child, symbolTables.getFunctionDescriptor(methodIdentifier));
+                    methodNodes.add(child);
                     break;
                 }
                 case NodeName.EXTENDS: {
@@ -113,6 +152,43 @@ public class SemanticAnalyser {
                     break;
             }
         }
+
+        // The grammar puts every method after the fields, so they can be analysed last
+        this.analyseMethods(methodNodes);
+    }
+
+    private void analyseMethods(List<SimpleNode> methodNodes) throws Exception {
+        if (!this.parallel || methodNodes.size() < 2) {
+            for (SimpleNode methodNode : methodNodes)
+                this.analyseMethod(methodNode, symbolTables.getFunctionDescriptor(Utils.getMethodSignature(methodNode)));
+            return;
+        }
+
+        // A method only changes the state of its own local variables, so each one gets its own analyser
+        List<ForkJoinTask<SemanticAnalyser>> methods = new ArrayList<>();
+        for (SimpleNode methodNode : methodNodes) {
+            methods.add(ForkJoinPool.commonPool().submit(() -> {
+                SemanticAnalyser methodAnalyser = new SemanticAnalyser(this.symbolTables, methodNode, this.sourceName, this.source, this.ignore_exceptions);
+                methodAnalyser.diagnostics = new ArrayList<>();
+                try {
+                    methodAnalyser.analyseMethod(methodNode, symbolTables.getFunctionDescriptor(Utils.getMethodSignature(methodNode)));
+                } catch (Exception e) {
+                    methodAnalyser.failure = e;
+                }
+                return methodAnalyser;
+            }));
+        }
+
+        // Reported in source order, so the output and the error limit are the same as when analysed sequentially
+        for (ForkJoinTask<SemanticAnalyser> method : methods) {
+            SemanticAnalyser methodAnalyser = method.join();
+
+            for (SemanticException exception : methodAnalyser.diagnostics)
+                this.addException(exception);
+
+            if (methodAnalyser.failure != null)
+                throw methodAnalyser.failure;
+        }
     }
 
     private void analyseMethod(SimpleNode methodNode, FunctionDescriptor functionDescriptor) throws Exception {
@@ -124,7 +200,7 @@ public class SemanticAnalyser {
         for (Node node : children) {
             SimpleNode child = (SimpleNode) node;
 
-            if (child.getNodeName().equals(NodeName.METHODBODY))
+            if (child.getId() == NodeName.METHODBODY)
                 this.analyseStatements(child, functionDescriptor);
         }
     }
@@ -149,10 +225,10 @@ public class SemanticAnalyser {
 
     private boolean canUseThis(SimpleNode dotmethod, FunctionDescriptor functionDescriptor) throws Exception {
         SimpleNode firstChild = dotmethod.getChild(0);
-        boolean canUse = firstChild.getNodeName().equals(NodeName.THIS) || (firstChild.getNodeName().equals(NodeName.DOTMETHOD) && canUseThis(firstChild, functionDescriptor));
+        boolean canUse = firstChild.getId() == NodeName.THIS || (firstChild.getId() == NodeName.DOTMETHOD && canUseThis(firstChild, functionDescriptor));
 
 
-        if (canUse && firstChild.getNodeName().equals(NodeName.THIS) && functionDescriptor.isMain()) { // this in static context
+        if (canUse && firstChild.getId() == NodeName.THIS && functionDescriptor.isMain()) { // this in static context
             addException(new ThisFromStaticContext(firstChild));
             return false;
         }
@@ -172,78 +248,13 @@ public class SemanticAnalyser {
         if (children == null)
             return result;
 
-        for (Node node : children) {
-            SimpleNode child = (SimpleNode) node;
-            String childName = ParserTreeConstants.jjtNodeName[child.getId()];
-
-            switch (childName) {
-                case NodeName.DOTMETHOD:
-                    if (!canUseThis(child, functionDescriptor)) {
-                        continue;
-                    }
-                    this.analyseDotMethod(child, functionDescriptor, false, result);
-                    break;
-                case NodeName.ASSIGNMENT: // a = 1;
-                    boolean inited = this.analyseAssignment(child, functionDescriptor, result);
-                    if (inited) {
-                        SimpleNode leftSide = child.getChild(0);
-                        if (leftSide.getNodeName().equals(NodeName.IDENTIFIER)) {
-                            String td = leftSide.jjtGetVal();
-                            result.add(td);
-                        }
-                    }
-                    break;
-                case NodeName.VARDECLARATION: {
-                    this.analyseVarDeclaration(child);
-                    break;
-                }
-                case NodeName.IF:
-                case NodeName.WHILE: {
-                    String conditionType = this.analyseExpression(child.getChild(0), functionDescriptor, false, result);
-                    if (conditionType != null) {
-                        if (!conditionType.equals(VarTypes.BOOLEAN))
-                            addException(new ConditionNotBoolean(child.getChild(0), conditionType));
-                    }
-                    Set<String> varsInitIf = this.analyseStatements(child.getChild(1), functionDescriptor, result);
-                    if (childName.equals(NodeName.IF)) {
-                        // Analyse else block
-                        Set<String> varsInitElse = this.analyseStatements(child.getChild(2), functionDescriptor, result);
-
-                        varsInitIf.retainAll(varsInitElse);
-                        result.addAll(varsInitIf);
-                        if (child.getParent().getNodeName().equals(NodeName.METHODBODY)) {
-                            for (String s : varsInitIf) {
-                                TypeDescriptor td = functionDescriptor.getTypeDescriptor(s);
-                                if (td != null)
-                                    td.setInit(true);
-                            }
-                        }
-                    }
-                    break;
-                }
-                case NodeName.RETURN: {
-                    if (child.jjtGetNumChildren() == 0) {
-                        if (!functionDescriptor.getReturnType().equals(VarTypes.VOID)) {
-                            addException(new ReturnNotSameType(child, functionDescriptor.getReturnType(), VarTypes.VOID));
-                        }
-                        break;
-                    }
-                    String returnType = this.analyseExpression(child.getChild(0), functionDescriptor);
-                    if (returnType != null)
-                        if (!returnType.equals(functionDescriptor.getReturnType()))
-                            addException(new ReturnNotSameType(child.getChild(0), functionDescriptor.getReturnType(), returnType));
-                    break;
-                }
-                default: {
-                    addException(new NotStatement(child));
-                    break;
-                }
-            }
-        }
+        StatementAnalyser statementAnalyser = new StatementAnalyser(functionDescriptor, result);
+        for (Node node : children)
+            node.jjtAccept(statementAnalyser, null);
 
-        if (methodBodyNode.getNodeName().equals(NodeName.METHODBODY)) {
+        if (methodBodyNode.getId() == NodeName.METHODBODY) {
             SimpleNode lastStatement = methodBodyNode.getChild(methodBodyNode.jjtGetNumChildren() - 1);
-            if (!lastStatement.getNodeName().equals(NodeName.RETURN) && !functionDescriptor.getReturnType().equals(VarTypes.VOID)) {
+            if (lastStatement.getId() != NodeName.RETURN && !functionDescriptor.getReturnType().equals(VarTypes.VOID)) {
                 addException(new MissingReturnStatement(lastStatement,functionDescriptor.getReturnType()));
             }
         }
@@ -256,7 +267,7 @@ public class SemanticAnalyser {
         SimpleNode firstChild = (SimpleNode) simpleNode.jjtGetChildren()[0];
 
         if (!isArraySize) { //Check if it is an array that's being accessed
-            if (firstChild.getNodeName().equals(NodeName.IDENTIFIER)) {
+            if (firstChild.getId() == NodeName.IDENTIFIER) {
                 TypeDescriptor typeDescriptor = functionDescriptor.getTypeDescriptor(firstChild.jjtGetVal());
                 if (typeDescriptor == null) {
                     addException(new NotDeclared(firstChild));
@@ -271,7 +282,7 @@ public class SemanticAnalyser {
                     return false;
                 }
             }
-            else if (firstChild.getNodeName().equals(NodeName.DOTMETHOD)) {
+            else if (firstChild.getId() == NodeName.DOTMETHOD) {
                 String returnType = this.analyseDotMethod(firstChild, functionDescriptor);
                 if (!returnType.equals(VarTypes.INTARRAY)) {
                     addException(new ExpectedArray(firstChild, returnType));
@@ -303,31 +314,34 @@ public class SemanticAnalyser {
         SimpleNode firstChild = (SimpleNode) dotMethodNode.jjtGetChildren()[0];
         SimpleNode secondChild = (SimpleNode) dotMethodNode.jjtGetChildren()[1];
 
-        String secondChildName = ParserTreeConstants.jjtNodeName[secondChild.getId()];
+        int secondChildId = secondChild.getId();
 
         // Call a method from an import
         ImportDescriptor importDescriptor = Utils.getImportedMethod(symbolTables, dotMethodNode, functionDescriptor, varInitScope);
         if (importDescriptor != null) {
-            if (firstChild != null && firstChild.jjtGetVal() != null && !firstChild.jjtGetVal().equals(NodeName.DOTMETHOD)) {
+            if (firstChild != null && firstChild.jjtGetVal() != null && firstChild.getId() != NodeName.DOTMETHOD) {
                 if (!importDescriptor.isStatic() && firstChild.jjtGetVal().equals(importDescriptor.getClassName())) {
                     addException(new NotStaticMethod(firstChild));
                 }
             }
+            this.attachCallSite(dotMethodNode, importDescriptor, null);
             return importDescriptor.getReturnType().getTypeIdentifier();
         }
 
         if (Utils.isClassVariable(symbolTables, firstChild, functionDescriptor)) { // [this | ClassName | new ClassName].method
-            if (secondChildName.equals(NodeName.METHODCALL)) {
-                String returnType = getMethodReturnType(secondChild, functionDescriptor, varInitScope);
-                if (returnType == null)
+            if (secondChildId == NodeName.METHODCALL) {
+                FunctionDescriptor methodDescriptor = getCalledMethod(secondChild, functionDescriptor, varInitScope);
+                if (methodDescriptor == null || methodDescriptor.getReturnType() == null)
                     addException(new MethodNotFound(dotMethodNode));
-                else
-                    return returnType;
+                else {
+                    this.attachCallSite(dotMethodNode, null, methodDescriptor);
+                    return methodDescriptor.getReturnType();
+                }
             } else {
                 //this.length
                 addException(new AttributeDoesNotExist(dotMethodNode));
             }
-        } else if (secondChildName.equals(NodeName.LENGTH)) {
+        } else if (secondChildId == NodeName.LENGTH) {
             if (this.analyseExpression(firstChild, functionDescriptor).equals(VarTypes.INTARRAY))
                 return VarTypes.INT;
             else
@@ -341,37 +355,33 @@ public class SemanticAnalyser {
         return null;
     }
 
-    private String getMethodReturnType(SimpleNode methodCallNode, FunctionDescriptor functionDescriptor, Set<String> varInitScope) throws Exception {
-        String methodIdentifier = parseMethodIdentifier(methodCallNode, functionDescriptor, varInitScope);
-        FunctionDescriptor methodDescriptor = symbolTables.getFunctionDescriptor(methodIdentifier);
-        return (methodDescriptor == null) ? null : methodDescriptor.getReturnType();
+    private FunctionDescriptor getCalledMethod(SimpleNode methodCallNode, FunctionDescriptor functionDescriptor, Set<String> varInitScope) throws Exception {
+        Node[] arguments = this.analyseArguments(methodCallNode, functionDescriptor, varInitScope);
+        return (arguments == null) ? null : symbolTables.getFunctionDescriptor(methodCallNode.getChild(0).jjtGetVal(), arguments);
     }
 
-    public String parseMethodIdentifier(SimpleNode methodCallNode, FunctionDescriptor functionDescriptor) throws Exception {
-        return parseMethodIdentifier(methodCallNode, functionDescriptor, new HashSet<>());
-    }
+    // The code generator invokes the method attached to the call, without looking it up again
+    private void attachCallSite(SimpleNode dotMethodNode, ImportDescriptor importDescriptor, FunctionDescriptor methodDescriptor) {
+        ASTDotMethod callNode = (ASTDotMethod) dotMethodNode;
+        if (callNode.getCallSite() != null)
+            return;
 
-    public String parseMethodIdentifier(SimpleNode methodCallNode, FunctionDescriptor functionDescriptor, Set<String> varInitScope) throws Exception {
-        StringBuilder methodIdentifier = new StringBuilder();
+        callNode.setCallSite(importDescriptor != null ? new CallSite(importDescriptor) : new CallSite(methodDescriptor, this.symbolTables));
+    }
 
+    // Analyses the arguments of a call, annotating each with its type; null if it is not a method call
+    public Node[] analyseArguments(SimpleNode methodCallNode, FunctionDescriptor functionDescriptor, Set<String> varInitScope) throws Exception {
         if (methodCallNode.jjtGetChildren() == null || methodCallNode.jjtGetChildren().length == 0)
             return null;
 
-        SimpleNode firstChild = (SimpleNode) methodCallNode.jjtGetChildren()[0];
-        methodIdentifier.append(firstChild.jjtGetVal()).append("&");
-
-        if (methodCallNode.jjtGetChildren().length > 1) { //Check if method call has arguments
-            SimpleNode secondChild = (SimpleNode) methodCallNode.jjtGetChildren()[1];
-            for (Node grandchildNode : secondChild.jjtGetChildren()) {
-                SimpleNode argNode = (SimpleNode) grandchildNode;
+        if (methodCallNode.jjtGetChildren().length == 1 || methodCallNode.getChild(1).jjtGetChildren() == null)
+            return NO_ARGUMENTS;
 
-                String type = this.analyseExpression(argNode, functionDescriptor, false, varInitScope);
-                if (type != null)
-                    methodIdentifier.append(type);
-            }
-        }
+        Node[] arguments = methodCallNode.getChild(1).jjtGetChildren();
+        for (Node argument : arguments)
+            this.analyseExpression((SimpleNode) argument, functionDescriptor, false, varInitScope);
 
-        return methodIdentifier.toString();
+        return arguments;
     }
 
     private String analyseArithmeticExpression(SimpleNode expressionNode, FunctionDescriptor functionDescriptor) throws Exception {
@@ -379,10 +389,10 @@ public class SemanticAnalyser {
     }
 
     private String analyseArithmeticExpression(SimpleNode expressionNode, FunctionDescriptor functionDescriptor, Set<String> varInitScope) throws Exception {
-        String nodeName = ParserTreeConstants.jjtNodeName[expressionNode.getId()];
+        int nodeId = expressionNode.getId();
         boolean stop = false;
 
-        switch (nodeName) {
+        switch (nodeId) {
             case NodeName.SUB:
             case NodeName.ADD:
             case NodeName.MUL:
@@ -402,7 +412,7 @@ public class SemanticAnalyser {
                 }
 
 
-                return (stop) ? null : nodeName.equals(NodeName.LESS) ? VarTypes.BOOLEAN : VarTypes.INT;
+                return (stop) ? null : nodeId == NodeName.LESS ? VarTypes.BOOLEAN : VarTypes.INT;
             }
             case NodeName.AND: {
                 SimpleNode firstChild = (SimpleNode) expressionNode.jjtGetChildren()[0];
@@ -478,9 +488,9 @@ public class SemanticAnalyser {
         SimpleNode leftSide = (SimpleNode) assignmentNode.jjtGetChildren()[0];
         SimpleNode rightSide = (SimpleNode) assignmentNode.jjtGetChildren()[1];
 
-        String leftSideName = ParserTreeConstants.jjtNodeName[leftSide.getId()];
+        int leftSideId = leftSide.getId();
         String leftType;
-        switch (leftSideName) {
+        switch (leftSideId) {
             case NodeName.ARRAYACCESS: {
                 if (!analyseArray(false, leftSide, functionDescriptor,varInScope)) {
                     return false;
@@ -502,7 +512,7 @@ public class SemanticAnalyser {
             }
         }
 
-        if (rightSide.getNodeName().equals(NodeName.DOTMETHOD) && !canUseThis(rightSide, functionDescriptor)) {
+        if (rightSide.getId() == NodeName.DOTMETHOD && !canUseThis(rightSide, functionDescriptor)) {
             return false;
         }
 
@@ -516,7 +526,7 @@ public class SemanticAnalyser {
         if (typeDescriptor == null)
             return false;
 
-        if (!assignmentNode.getParent().getNodeName().equals(NodeName.IFBLOCK) && !assignmentNode.getParent().getNodeName().equals(NodeName.ELSE)) {
+        if (!typeDescriptor.isClassField() && assignmentNode.getParent().getId() != NodeName.IFBLOCK && assignmentNode.getParent().getId() != NodeName.ELSE) {
             typeDescriptor.setInit(true);
         }
         return true;
@@ -533,67 +543,224 @@ public class SemanticAnalyser {
     }
 
 
+    // Every expression analysed is annotated with its type, which is then reused by memoized analysers
+    // and by the lookup of the methods called
     public String analyseExpression(SimpleNode expressionNode, FunctionDescriptor functionDescriptor, boolean ignore_init, Set<String> varInScope) throws Exception {
+        if (this.memoized && expressionNode.getType() != null)
+            return expressionNode.getType();
 
-        switch (expressionNode.getNodeName()) {
-            case NodeName.ARRAYACCESS: {
-                if (this.analyseArray(false, expressionNode, functionDescriptor,varInScope))
-                    return VarTypes.INT;
-                break;
-            }
-            case NodeName.DOTMETHOD: {
-                return this.analyseDotMethod(expressionNode, functionDescriptor, ignore_init, varInScope);
-            }
-            case NodeName.IDENTIFIER: {
-                TypeDescriptor typeDescriptor = functionDescriptor.getTypeDescriptor(expressionNode.jjtGetVal());
-                if (typeDescriptor == null) {
-                    addException(new NotDeclared(expressionNode));
-                    return null;
+        String type = (String) expressionNode.jjtAccept(new ExpressionAnalyser(functionDescriptor, ignore_init, varInScope), null);
+        expressionNode.setType(type);
+
+        return type;
+    }
+
+    // Analyses the statements of a block, adding to result the variables they initialise
+    private class StatementAnalyser extends ParserDefaultVisitor {
+        private final FunctionDescriptor functionDescriptor;
+        private final Set<String> result;
+
+        private StatementAnalyser(FunctionDescriptor functionDescriptor, Set<String> result) {
+            this.functionDescriptor = functionDescriptor;
+            this.result = result;
+        }
+
+        @Override
+        public Object defaultVisit(SimpleNode node, Object data) throws Exception {
+            addException(new NotStatement(node));
+            return null;
+        }
+
+        @Override
+        public Object visit(ASTDotMethod node, Object data) throws Exception {
+            if (canUseThis(node, functionDescriptor))
+                analyseDotMethod(node, functionDescriptor, false, result);
+            return null;
+        }
+
+        @Override
+        public Object visit(ASTAssignment node, Object data) throws Exception { // a = 1;
+            boolean inited = analyseAssignment(node, functionDescriptor, result);
+            if (inited) {
+                SimpleNode leftSide = node.getChild(0);
+                if (leftSide.getId() == NodeName.IDENTIFIER) {
+                    String td = leftSide.jjtGetVal();
+                    result.add(td);
                 }
-                if (!ignore_init) {
-                    if (!typeDescriptor.isInit()) // && nao estiver dentro da list com as variaveis inciadas neste scope
-                        if (!(varInScope.contains(expressionNode.jjtGetVal())))
-                            addException(new VarNotInitialized(expressionNode));
+            }
+            return null;
+        }
+
+        @Override
+        public Object visit(ASTVarDeclaration node, Object data) throws Exception {
+            analyseVarDeclaration(node);
+            return null;
+        }
+
+        @Override
+        public Object visit(ASTIf node, Object data) throws Exception {
+            Set<String> varsInitIf = this.analyseConditional(node);
+
+            // Analyse else block
+            Set<String> varsInitElse = analyseStatements(node.getChild(2), functionDescriptor, result);
+
+            varsInitIf.retainAll(varsInitElse);
+            result.addAll(varsInitIf);
+            if (node.getParent().getId() == NodeName.METHODBODY) {
+                for (String s : varsInitIf) {
+                    TypeDescriptor td = functionDescriptor.getTypeDescriptor(s);
+                    if (td != null && !td.isClassField()) // Fields are always initialised, and shared by every method
+                        td.setInit(true);
                 }
-                return typeDescriptor.getTypeIdentifier();
             }
-            case NodeName.NEW: {
-                SimpleNode childNode = (SimpleNode) expressionNode.jjtGetChild(0);
-                switch (childNode.getNodeName()) {
-                    case NodeName.ARRAYSIZE: { // new int[1]
-                        if (!analyseArray(true, childNode, functionDescriptor,varInScope)) {
-                            addException(new SemanticException(childNode));
-                            return null;
-                        } else
-                            return VarTypes.INTARRAY;
-                    }
-                    case NodeName.IDENTIFIER: { // new ClassName();
-                        if (symbolTables.getClassName().equals(childNode.jjtGetVal()) || symbolTables.isImportedClass(childNode.jjtGetVal()))
-                            return childNode.jjtGetVal();
-                        else {
-                            addException(new ClassNotImported(childNode, childNode.jjtGetVal()));
-                            return null;
-                        }
-                    }
+            return null;
+        }
+
+        @Override
+        public Object visit(ASTWhile node, Object data) throws Exception {
+            this.analyseConditional(node);
+            return null;
+        }
+
+        @Override
+        public Object visit(ASTReturn node, Object data) throws Exception {
+            if (node.jjtGetNumChildren() == 0) {
+                if (!functionDescriptor.getReturnType().equals(VarTypes.VOID)) {
+                    addException(new ReturnNotSameType(node, functionDescriptor.getReturnType(), VarTypes.VOID));
                 }
-                break;
+                return null;
             }
-            case NodeName.BOOLEAN: {
-                return VarTypes.BOOLEAN;
+            String returnType = analyseExpression(node.getChild(0), functionDescriptor);
+            if (returnType != null)
+                if (!returnType.equals(functionDescriptor.getReturnType()))
+                    addException(new ReturnNotSameType(node.getChild(0), functionDescriptor.getReturnType(), returnType));
+            return null;
+        }
+
+        // Condition and first block of an if or while, returning the variables the block initialises
+        private Set<String> analyseConditional(SimpleNode node) throws Exception {
+            String conditionType = analyseExpression(node.getChild(0), functionDescriptor, false, result);
+            if (conditionType != null) {
+                if (!conditionType.equals(VarTypes.BOOLEAN))
+                    addException(new ConditionNotBoolean(node.getChild(0), conditionType));
             }
-            case NodeName.INT: {
-                return VarTypes.INT;
+            return analyseStatements(node.getChild(1), functionDescriptor, result);
+        }
+    }
+
+    // Returns the type of an expression, or null if it has none
+    private class ExpressionAnalyser extends ParserDefaultVisitor {
+        private final FunctionDescriptor functionDescriptor;
+        private final boolean ignore_init;
+        private final Set<String> varInScope;
+
+        private ExpressionAnalyser(FunctionDescriptor functionDescriptor, boolean ignore_init, Set<String> varInScope) {
+            this.functionDescriptor = functionDescriptor;
+            this.ignore_init = ignore_init;
+            this.varInScope = varInScope;
+        }
+
+        @Override
+        public Object defaultVisit(SimpleNode node, Object data) {
+            return null;
+        }
+
+        @Override
+        public Object visit(ASTArrayAccess node, Object data) throws Exception {
+            return analyseArray(false, node, functionDescriptor, varInScope) ? VarTypes.INT : null;
+        }
+
+        @Override
+        public Object visit(ASTDotMethod node, Object data) throws Exception {
+            return analyseDotMethod(node, functionDescriptor, ignore_init, varInScope);
+        }
+
+        @Override
+        public Object visit(ASTIdentifier node, Object data) throws Exception {
+            TypeDescriptor typeDescriptor = functionDescriptor.getTypeDescriptor(node.jjtGetVal());
+            if (typeDescriptor == null) {
+                addException(new NotDeclared(node));
+                return null;
             }
-            case NodeName.THIS: {
-                return this.symbolTables.getClassName();
+            if (!ignore_init) {
+                if (!typeDescriptor.isInit()) // && nao estiver dentro da list com as variaveis inciadas neste scope
+                    if (!(varInScope.contains(node.jjtGetVal())))
+                        addException(new VarNotInitialized(node));
             }
-            default: {
-                if (Utils.isArithmeticExpression(expressionNode))
-                    return this.analyseArithmeticExpression(expressionNode, functionDescriptor, varInScope);
-                break;
+            return typeDescriptor.getTypeIdentifier();
+        }
+
+        @Override
+        public Object visit(ASTNew node, Object data) throws Exception {
+            SimpleNode childNode = node.getChild(0);
+            switch (childNode.getId()) {
+                case NodeName.ARRAYSIZE: { // new int[1]
+                    if (!analyseArray(true, childNode, functionDescriptor, varInScope)) {
+                        addException(new SemanticException(childNode));
+                        return null;
+                    } else
+                        return VarTypes.INTARRAY;
+                }
+                case NodeName.IDENTIFIER: { // new ClassName();
+                    if (symbolTables.getClassName().equals(childNode.jjtGetVal()) || symbolTables.isImportedClass(childNode.jjtGetVal()))
+                        return childNode.jjtGetVal();
+                    else {
+                        addException(new ClassNotImported(childNode, childNode.jjtGetVal()));
+                        return null;
+                    }
+                }
             }
+            return null;
         }
 
-        return null;
+        @Override
+        public Object visit(ASTBoolean node, Object data) {
+            return VarTypes.BOOLEAN;
+        }
+
+        @Override
+        public Object visit(ASTInt node, Object data) {
+            return VarTypes.INT;
+        }
+
+        @Override
+        public Object visit(ASTThis node, Object data) {
+            return symbolTables.getClassName();
+        }
+
+        @Override
+        public Object visit(ASTAdd node, Object data) throws Exception {
+            return analyseArithmeticExpression(node, functionDescriptor, varInScope);
+        }
+
+        @Override
+        public Object visit(ASTSub node, Object data) throws Exception {
+            return analyseArithmeticExpression(node, functionDescriptor, varInScope);
+        }
+
+        @Override
+        public Object visit(ASTMul node, Object data) throws Exception {
+            return analyseArithmeticExpression(node, functionDescriptor, varInScope);
+        }
+
+        @Override
+        public Object visit(ASTDiv node, Object data) throws Exception {
+            return analyseArithmeticExpression(node, functionDescriptor, varInScope);
+        }
+
+        @Override
+        public Object visit(ASTLess node, Object data) throws Exception {
+            return analyseArithmeticExpression(node, functionDescriptor, varInScope);
+        }
+
+        @Override
+        public Object visit(ASTAnd node, Object data) throws Exception {
+            return analyseArithmeticExpression(node, functionDescriptor, varInScope);
+        }
+
+        @Override
+        public Object visit(ASTNot node, Object data) throws Exception {
+            return analyseArithmeticExpression(node, functionDescriptor, varInScope);
+        }
     }
 }
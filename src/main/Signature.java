@@ -0,0 +1,76 @@
+package main;
+
+import parser.Node;
+import parser.SimpleNode;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/*
+ * Key of a method or import in the symbol tables: the imported class, the method name and the types
+ * of its parameters. The names are the strings shared by the lexer, so keys mostly compare by
+ * reference, and the hash is computed once.
+ */
+public final class Signature {
+    public static final String[] NO_TYPES = new String[0];
+
+    private final String className;
+    private final String methodName;
+    private final String[] types;
+    private final int hash;
+
+    public Signature(String className, String methodName, String[] types) {
+        this.className = className;
+        this.methodName = methodName;
+        this.types = types;
+        this.hash = 31 * (31 * Objects.hashCode(className) + Objects.hashCode(methodName)) + Arrays.hashCode(types);
+    }
+
+    // Arguments of a call, with the types found by the semantic analysis; those of unknown type are skipped
+    public boolean accepts(Node[] arguments) {
+        int matched = 0;
+        for (Node node : arguments) {
+            String type = ((SimpleNode) node).getType();
+            if (type == null)
+                continue;
+
+            if (matched == this.types.length || !this.types[matched].equals(type))
+                return false;
+            matched++;
+        }
+
+        return matched == this.types.length;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (!(o instanceof Signature))
+            return false;
+
+        Signature signature = (Signature) o;
+        return this.hash == signature.hash && Objects.equals(this.className, signature.className)
+                && Objects.equals(this.methodName, signature.methodName) && Arrays.equals(this.types, signature.types);
+    }
+
+    @Override
+    public int hashCode() {
+        return this.hash;
+    }
+
+    // class&method&types, as printed with the symbol tables
+    @Override
+    public String toString() {
+        StringBuilder stringBuilder = new StringBuilder();
+
+        if (this.className != null)
+            stringBuilder.append(this.className).append("&");
+        if (this.methodName != null)
+            stringBuilder.append(this.methodName).append("&");
+        for (String type : this.types)
+            stringBuilder.append(type);
+
+        return stringBuilder.toString();
+    }
+}
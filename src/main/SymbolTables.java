@@ -1,19 +1,34 @@
 package main;
 
+import parser.Node;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 public class SymbolTables {
     private String className;
     private String extendedClassName;
-    private final LinkedHashMap<String, ImportDescriptor> imports;
-    private final LinkedHashMap<String, FunctionDescriptor> methods;
+    private final LinkedHashMap<Signature, ImportDescriptor> imports;
+    private final LinkedHashMap<Signature, FunctionDescriptor> methods;
     private final Scope scope;
 
+    // Methods and imported methods by name, so that calls are looked up without building their signature
+    private final Map<String, List<FunctionDescriptor>> methodsByName;
+    private final Map<String, List<ImportDescriptor>> importsByName;
+    private final Set<String> importedClasses;
+
     public SymbolTables() {
         this.imports = new LinkedHashMap<>();
         this.methods = new LinkedHashMap<>();
         this.scope = new Scope(null);
+        this.methodsByName = new HashMap<>();
+        this.importsByName = new HashMap<>();
+        this.importedClasses = new HashSet<>();
     }
 
     public void setClassName(String className) {
@@ -21,11 +36,25 @@ public class SymbolTables {
     }
 
     public void addImport(ImportDescriptor importDescriptor) {
-        this.imports.put(importDescriptor.getIdentifier(), importDescriptor);
+        ImportDescriptor previous = this.imports.put(importDescriptor.getSignature(), importDescriptor);
+
+        if (importDescriptor.getMethodName() == null)
+            this.importedClasses.add(importDescriptor.getClassName());
+        else
+            index(this.importsByName, importDescriptor.getMethodName(), previous, importDescriptor);
     }
 
     public void addMethod(FunctionDescriptor functionDescriptor) {
-        this.methods.put(functionDescriptor.getIdentifier(), functionDescriptor);
+        FunctionDescriptor previous = this.methods.put(functionDescriptor.getSignature(), functionDescriptor);
+        index(this.methodsByName, functionDescriptor.getMethodName(), previous, functionDescriptor);
+    }
+
+    // A declaration with the same signature as a previous one replaces it
+    private static <T> void index(Map<String, List<T>> byName, String name, T previous, T descriptor) {
+        List<T> descriptors = byName.computeIfAbsent(name, key -> new ArrayList<>(1));
+        if (previous != null)
+            descriptors.remove(previous);
+        descriptors.add(descriptor);
     }
 
     public Scope getScope() {
@@ -39,19 +68,40 @@ public class SymbolTables {
         this.scope.addVar(identifier, typeDescriptor);
     }
 
-    public FunctionDescriptor getFunctionDescriptor(String methodIdentifier) {
-        return this.methods.get(methodIdentifier);
+    public FunctionDescriptor getFunctionDescriptor(Signature signature) {
+        return this.methods.get(signature);
     }
 
-    public ImportDescriptor getImportDescriptor(String importedMethodIdentifier) {
-        return this.imports.get(importedMethodIdentifier);
+    // Method called with the given arguments, once the semantic analysis has found their types
+    public FunctionDescriptor getFunctionDescriptor(String methodName, Node[] arguments) {
+        List<FunctionDescriptor> overloads = this.methodsByName.get(methodName);
+        if (overloads == null)
+            return null;
+
+        for (FunctionDescriptor functionDescriptor : overloads) {
+            if (functionDescriptor.getSignature().accepts(arguments))
+                return functionDescriptor;
+        }
+        return null;
+    }
+
+    public ImportDescriptor getImportDescriptor(String className, String methodName, Node[] arguments) {
+        List<ImportDescriptor> overloads = this.importsByName.get(methodName);
+        if (overloads == null)
+            return null;
+
+        for (ImportDescriptor importDescriptor : overloads) {
+            if (importDescriptor.getClassName().equals(className) && importDescriptor.getSignature().accepts(arguments))
+                return importDescriptor;
+        }
+        return null;
     }
 
-    public LinkedHashMap<String, FunctionDescriptor> getMethods() {
+    public LinkedHashMap<Signature, FunctionDescriptor> getMethods() {
         return this.methods;
     }
 
-    public LinkedHashMap<String, ImportDescriptor> getImports() {
+    public LinkedHashMap<Signature, ImportDescriptor> getImports() {
         return this.imports;
     }
 
@@ -59,14 +109,14 @@ public class SymbolTables {
 
         System.out.print("\n\n");
 
-        for (Map.Entry<String, FunctionDescriptor> entry : this.methods.entrySet()) {
+        for (Map.Entry<Signature, FunctionDescriptor> entry : this.methods.entrySet()) {
             System.out.println("Saved methods: " + entry.getKey());
             //entry.getValue().printScope();
         }
 
         System.out.print("\n\n");
 
-        for (Map.Entry<String, ImportDescriptor> entry : this.imports.entrySet()) {
+        for (Map.Entry<Signature, ImportDescriptor> entry : this.imports.entrySet()) {
             System.out.println("Saved import: " + entry.getKey());
         }
 
@@ -77,8 +127,7 @@ public class SymbolTables {
     public void setExtendedClass(String extendedClassName) {
         this.extendedClassName = extendedClassName;
 
-        for (Map.Entry<String, ImportDescriptor> entry : this.imports.entrySet()) {
-            ImportDescriptor importDescriptor = entry.getValue();
+        for (ImportDescriptor importDescriptor : this.imports.values()) {
             if (importDescriptor.getClassName().equals(extendedClassName) && importDescriptor.getMethodName() != null) {
                 FunctionDescriptor functionDescriptor = new FunctionDescriptor(this.scope, null);
                 functionDescriptor.setFromSuper(true);
@@ -91,13 +140,13 @@ public class SymbolTables {
                     id++;
                 }
 
-                this.methods.put(functionDescriptor.getIdentifier(), functionDescriptor);
+                this.addMethod(functionDescriptor);
             }
         }
     }
 
     public boolean isImportedClass(String extendedClassName) {
-        return this.imports.containsKey(extendedClassName + "&");
+        return this.importedClasses.contains(extendedClassName);
     }
 
     public String getClassName() {
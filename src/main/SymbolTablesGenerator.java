@@ -1,155 +1,122 @@
 package main;
 
-import Types.NodeName;
-import parser.Node;
-import parser.ParserTreeConstants;
-import parser.SimpleNode;
+import parser.*;
 
-public class SymbolTablesGenerator {
+/*
+ * Fills the symbol tables from the declarations of the AST. The data of each visit is what is being
+ * declared: the SymbolTables for the class, or the descriptor of the import or method.
+ */
+public class SymbolTablesGenerator extends ParserDefaultVisitor {
     private final SimpleNode root;
 
     public SymbolTablesGenerator(SimpleNode root) {
         this.root = root;
     }
 
-    public SymbolTables generate() {
+    public SymbolTables generate() throws Exception {
         SymbolTables symbolTables = new SymbolTables();
-
-        Node[] children = this.root.jjtGetChildren();
-        for (Node node : children) {
-            SimpleNode child = (SimpleNode) node;
-
-            if (child != null) {
-                switch (ParserTreeConstants.jjtNodeName[child.getId()]) {
-                   case NodeName.IMPORT:
-                        symbolTables.addImport(createImportDescriptor(child));
-                        break;
-                   case NodeName.CLASS:
-                        this.parseClass(child, symbolTables);
-                        break;
-                }
-            }
-        }
+        this.root.childrenAccept(this, symbolTables);
 
         return symbolTables;
     }
 
-    private ImportDescriptor createImportDescriptor(SimpleNode simpleNode) {
-        ImportDescriptor importDescriptor = new ImportDescriptor(simpleNode);
-
-        Node[] children = simpleNode.jjtGetChildren();
-        for (Node node : children) {
-            SimpleNode child = (SimpleNode) node;
-
-            if (child != null) {
-                switch (ParserTreeConstants.jjtNodeName[child.getId()]) {
-                    case NodeName.STATIC:
-                        importDescriptor.setStatic(true);
-                        break;
-                    case NodeName.CLASSNAME:
-                        importDescriptor.setClassName(child.jjtGetVal());
-                        break;
-                    case NodeName.METHODNAME:
-                        importDescriptor.setMethodName(child.jjtGetVal());
-                        break;
-                    case NodeName.ARGTYPE:
-                        importDescriptor.addArgument(new TypeDescriptor(child.jjtGetVal()));
-                        break;
-                    case NodeName.RETURNTYPE:
-                        importDescriptor.setReturnType(new TypeDescriptor(child.jjtGetVal()));
-                }
-            }
-        }
+    @Override
+    public Object visit(ASTImport node, Object data) throws Exception {
+        ImportDescriptor importDescriptor = new ImportDescriptor(node);
+        node.childrenAccept(this, importDescriptor);
 
-        return importDescriptor;
+        ((SymbolTables) data).addImport(importDescriptor);
+        return data;
     }
 
-    private void parseClass(SimpleNode simpleNode, SymbolTables symbolTables) {
-
-        Node[] children = simpleNode.jjtGetChildren();
-        for (Node node : children) {
-            SimpleNode child = (SimpleNode) node;
-
-            if (child != null) {
-                switch (ParserTreeConstants.jjtNodeName[child.getId()]) {
-                    case NodeName.IDENTIFIER:
-                        symbolTables.setClassName(child.jjtGetVal());
-                        break;
-                    case NodeName.EXTENDS:
-                        String extendedClassName = ((SimpleNode) child.jjtGetChild(0)).jjtGetVal();
-                        symbolTables.setExtendedClass(extendedClassName);
-                        break;
-                    case NodeName.VARDECLARATION:
-                        Node[] grandchildren = child.jjtGetChildren();
-                        symbolTables.addVar(((SimpleNode) grandchildren[1]).jjtGetVal(), new TypeDescriptor(((SimpleNode) grandchildren[0]).jjtGetVal()));
-                        break;
-                    case NodeName.METHOD:
-                        symbolTables.addMethod(this.createFunctionDescriptor(child, symbolTables.getScope()));
-                        break;
-                }
-            }
-        }
+    @Override
+    public Object visit(ASTStatic node, Object data) {
+        ((ImportDescriptor) data).setStatic(true);
+        return data;
     }
 
-    private FunctionDescriptor createFunctionDescriptor(SimpleNode simpleNode, Scope parentScope) {
-        FunctionDescriptor functionDescriptor = new FunctionDescriptor(parentScope, simpleNode);
-
-        Node[] children = simpleNode.jjtGetChildren();
-        for (Node node : children) {
-            SimpleNode child = (SimpleNode) node;
-
-            if (child != null) {
-                switch (ParserTreeConstants.jjtNodeName[child.getId()]) {
-                    case NodeName.RETURNTYPE:{
-                        functionDescriptor.setReturnType(child.jjtGetVal());
-                        break;}
-                    case NodeName.IDENTIFIER:{
-                        functionDescriptor.setMethodName(child.jjtGetVal());
-                        break;}
-                    case NodeName.ARGS:{
-                        this.parseFunctionArguments(functionDescriptor, child);
-                        break;}
-                    case NodeName.METHODBODY:{
-                        this.parseMethodBody(functionDescriptor, child);
-                        break;}
-                }
-            }
-        }
+    @Override
+    public Object visit(ASTClassName node, Object data) {
+        ((ImportDescriptor) data).setClassName(node.jjtGetVal());
+        return data;
+    }
 
-        return functionDescriptor;
+    @Override
+    public Object visit(ASTMethodName node, Object data) {
+        ((ImportDescriptor) data).setMethodName(node.jjtGetVal());
+        return data;
     }
 
-    private void parseFunctionArguments(FunctionDescriptor functionDescriptor, SimpleNode simpleNode) {
-        int index = 1;
-        Node[] children = simpleNode.jjtGetChildren();
-        for (Node node : children) {
-            SimpleNode child = (SimpleNode) node;
+    @Override
+    public Object visit(ASTArgType node, Object data) {
+        ((ImportDescriptor) data).addArgument(new TypeDescriptor(node.jjtGetVal()));
+        return data;
+    }
 
-            if (child != null) {
-                Node[] grandchildren = child.jjtGetChildren();
-                functionDescriptor.addParam( ((SimpleNode) grandchildren[1]).jjtGetVal(), new TypeDescriptor( ((SimpleNode) grandchildren[0]).jjtGetVal(), index));
-            }
+    @Override
+    public Object visit(ASTReturnType node, Object data) {
+        if (data instanceof ImportDescriptor)
+            ((ImportDescriptor) data).setReturnType(new TypeDescriptor(node.jjtGetVal()));
+        else
+            ((FunctionDescriptor) data).setReturnType(node.jjtGetVal());
+        return data;
+    }
 
-            index++;
+    @Override
+    public Object visit(ASTIdentifier node, Object data) {
+        if (data instanceof FunctionDescriptor)
+            ((FunctionDescriptor) data).setMethodName(node.jjtGetVal());
+        else
+            ((SymbolTables) data).setClassName(node.jjtGetVal());
+        return data;
+    }
+
+    @Override
+    public Object visit(ASTExtends node, Object data) {
+        ((SymbolTables) data).setExtendedClass(node.getChild(0).jjtGetVal());
+        return data;
+    }
+
+    // Fields; local variables are declared with their index by the method body
+    @Override
+    public Object visit(ASTVarDeclaration node, Object data) {
+        ((SymbolTables) data).addVar(node.getChild(1).jjtGetVal(), new TypeDescriptor(node.getChild(0).jjtGetVal()));
+        return data;
+    }
+
+    @Override
+    public Object visit(ASTMethod node, Object data) throws Exception {
+        SymbolTables symbolTables = (SymbolTables) data;
+        FunctionDescriptor functionDescriptor = new FunctionDescriptor(symbolTables.getScope(), node);
+        node.childrenAccept(this, functionDescriptor);
+
+        symbolTables.addMethod(functionDescriptor);
+        return data;
+    }
+
+    @Override
+    public Object visit(ASTArgs node, Object data) {
+        FunctionDescriptor functionDescriptor = (FunctionDescriptor) data;
+
+        for (int i = 0; i < node.jjtGetNumChildren(); i++) {
+            SimpleNode child = node.getChild(i);
+            functionDescriptor.addParam(child.getChild(1).jjtGetVal(), new TypeDescriptor(child.getChild(0).jjtGetVal(), i + 1));
         }
+        return data;
     }
 
-    private void parseMethodBody(FunctionDescriptor functionDescriptor, SimpleNode simpleNode) {
+    @Override
+    public Object visit(ASTMethodBody node, Object data) {
+        FunctionDescriptor functionDescriptor = (FunctionDescriptor) data;
         int index = functionDescriptor.getParams().size() + 1;
-        Node[] children = simpleNode.jjtGetChildren();
-        if(children == null){
-            return;
-        }
-        for (Node node : children) {
-            SimpleNode child = (SimpleNode) node;
-
-            if (child != null) {
-                if (ParserTreeConstants.jjtNodeName[child.getId()].equals(NodeName.VARDECLARATION)) {
-                    Node[] grandchildren = child.jjtGetChildren();
-                    functionDescriptor.addVar(((SimpleNode) grandchildren[1]).jjtGetVal(), new TypeDescriptor(((SimpleNode) grandchildren[0]).jjtGetVal(), index));
-                }
-            }
+
+        for (int i = 0; i < node.jjtGetNumChildren(); i++) {
+            SimpleNode child = node.getChild(i);
+
+            if (child instanceof ASTVarDeclaration)
+                functionDescriptor.addVar(child.getChild(1).jjtGetVal(), new TypeDescriptor(child.getChild(0).jjtGetVal(), index));
             index++;
         }
+        return data;
     }
 }
@@ -67,7 +67,7 @@ public class TypeDescriptor {
                 return "Z";
             case VarTypes.INTARRAY: return "[I";
             case VarTypes.VOID: return "V";
-            default: return "'L" + typeIdentifier + ";'";
+            default: return "L" + typeIdentifier + ";";
         }
     }
 
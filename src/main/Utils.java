@@ -2,7 +2,6 @@ package main;
 
 import Types.NodeName;
 import parser.Node;
-import parser.ParserTreeConstants;
 import parser.SimpleNode;
 
 import java.util.HashSet;
@@ -10,30 +9,23 @@ import java.util.Set;
 
 public class Utils {
 
-    public static String getMethodIdentifier(SimpleNode simpleNode) {
-        StringBuilder stringBuilder = new StringBuilder();
-
+    public static Signature getMethodSignature(SimpleNode simpleNode) {
         Node[] children = simpleNode.jjtGetChildren();
+        String methodName = ((SimpleNode) children[1]).jjtGetVal();
 
-        stringBuilder.append(((SimpleNode) children[1]).jjtGetVal()); // Method Name
-        stringBuilder.append("&");
-
-        if (!ParserTreeConstants.jjtNodeName[((SimpleNode) children[2]).getId()].equals(NodeName.ARGS))
-            return stringBuilder.toString();
+        if (((SimpleNode) children[2]).getId() != NodeName.ARGS)
+            return new Signature(null, methodName, Signature.NO_TYPES);
 
         Node[] grandchildren = ((SimpleNode) children[2]).jjtGetChildren();
-        for (Node node : grandchildren) {
-            SimpleNode simpleNode1 = (SimpleNode) node;
-            stringBuilder.append(((SimpleNode) simpleNode1.jjtGetChildren()[0]).jjtGetVal());
-        }
+        String[] types = new String[grandchildren.length];
+        for (int i = 0; i < grandchildren.length; i++)
+            types[i] = ((SimpleNode) grandchildren[i]).getChild(0).jjtGetVal();
 
-        return stringBuilder.toString();
+        return new Signature(null, methodName, types);
     }
 
     public static boolean isClassVariable(SymbolTables symbolTables, SimpleNode simpleNode, FunctionDescriptor functionDescriptor) throws Exception {
-        String nodeName = ParserTreeConstants.jjtNodeName[simpleNode.getId()];
-
-        switch (nodeName) {
+        switch (simpleNode.getId()) {
             case NodeName.THIS:
                 return true;
             case NodeName.IDENTIFIER: {
@@ -49,8 +41,7 @@ public class Utils {
                 return firstChild.jjtGetVal().equals(symbolTables.getClassName());
             }
             case NodeName.DOTMETHOD: {
-                SemanticAnalyser sa = new SemanticAnalyser(symbolTables, simpleNode, true);
-                String res = sa.analyseDotMethod(simpleNode, functionDescriptor);
+                String res = typeAnalyser(symbolTables).analyseExpression(simpleNode, functionDescriptor);
                 return res != null && res.equals(symbolTables.getClassName());
             }
         }
@@ -59,7 +50,7 @@ public class Utils {
     }
 
     public static boolean isArithmeticExpression(SimpleNode simpleNode) {
-        switch (ParserTreeConstants.jjtNodeName[simpleNode.getId()]) {
+        switch (simpleNode.getId()) {
             case NodeName.ADD:
             case NodeName.SUB:
             case NodeName.MUL:
@@ -85,33 +76,31 @@ public class Utils {
         SimpleNode firstChild = (SimpleNode) simpleNode.jjtGetChildren()[0];
         SimpleNode secondChild = (SimpleNode) simpleNode.jjtGetChildren()[1];
 
-        String className = firstChild.jjtGetVal();
-        String methodIdentifier = parseMethodIdentifier(symbolTables, secondChild, functionDescriptor,varInitScope);
+        SemanticAnalyser semanticAnalyser = typeAnalyser(symbolTables);
+        Node[] arguments = semanticAnalyser.analyseArguments(secondChild, functionDescriptor, varInitScope);
+        if (arguments == null)
+            return null;
 
-        ImportDescriptor importDescriptor =  symbolTables.getImportDescriptor(className + "&" + methodIdentifier);
+        String methodName = secondChild.getChild(0).jjtGetVal();
+        ImportDescriptor importDescriptor = symbolTables.getImportDescriptor(firstChild.jjtGetVal(), methodName, arguments);
 
         if (importDescriptor == null) {
-            SemanticAnalyser semanticAnalyser = new SemanticAnalyser(symbolTables, null, true);
-            className = semanticAnalyser.analyseExpression(firstChild, functionDescriptor, ignore_init, varInitScope);
-            importDescriptor = symbolTables.getImportDescriptor(className + "&" + methodIdentifier);
+            String className = semanticAnalyser.analyseExpression(firstChild, functionDescriptor, ignore_init, varInitScope);
+            importDescriptor = symbolTables.getImportDescriptor(className, methodName, arguments);
         }
 
         return importDescriptor;
     }
 
-    public static String parseMethodIdentifier(SymbolTables symbolTables, SimpleNode simpleNode, FunctionDescriptor functionDescriptor) throws Exception {
-        SemanticAnalyser semanticAnalyser = new SemanticAnalyser(symbolTables, null, true);
-        return semanticAnalyser.parseMethodIdentifier(simpleNode, functionDescriptor);
-    }
-
-    public static String parseMethodIdentifier(SymbolTables symbolTables, SimpleNode simpleNode, FunctionDescriptor functionDescriptor,Set<String> varInitScope) throws Exception {
-        SemanticAnalyser semanticAnalyser = new SemanticAnalyser(symbolTables, null, true);
-        return semanticAnalyser.parseMethodIdentifier(simpleNode, functionDescriptor,varInitScope);
+    public static String getExpressionType(SymbolTables symbolTables, SimpleNode expressionNode, FunctionDescriptor functionDescriptor) throws Exception {
+        return typeAnalyser(symbolTables).analyseExpression(expressionNode, functionDescriptor, true);
     }
 
-    public static String getExpressionType(SymbolTables symbolTables, SimpleNode expressionNode, FunctionDescriptor functionDescriptor) throws Exception {
+    // Looks up the types of expressions without reporting anything, reusing those already known
+    private static SemanticAnalyser typeAnalyser(SymbolTables symbolTables) {
         SemanticAnalyser semanticAnalyser = new SemanticAnalyser(symbolTables, null, true);
-        return semanticAnalyser.analyseExpression(expressionNode, functionDescriptor, true);
+        semanticAnalyser.setMemoized(true);
+        return semanticAnalyser;
     }
 
 }
\ No newline at end of file
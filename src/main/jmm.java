@@ -1,28 +1,46 @@
 package main;
 
+import Bytecode.ClassMetrics;
 import DataFlow.DataFlowAnalyser;
+import Profile.CounterMap;
+import events.CompilationEvent;
+import events.CompilerEvent;
 import parser.Parser;
 import parser.SimpleNode;
 
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
-import java.io.InputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
 
 public class jmm {
 
-    public static Path filepath;
-    public static final String DEBUG_FLAG = "-d";
-    public static final String REGISTERS_FLAG = "-r";
-    public static final String OPTIMIZATION_FLAG = "-o";
-    private static final int DEFAULT_NUM_REGISTERS = 0;
+    public static final String PARSE_PHASE = "parse";
+    public static final String SYMBOL_TABLES_PHASE = "symbolTables";
+    public static final String SEMANTIC_PHASE = "semantic";
+    public static final String DATAFLOW_PHASE = "dataflow";
+    public static final String CODEGEN_PHASE = "codegen";
 
-    private boolean debugMode = true;
-    private boolean optimizationMode = false;
-    private int maxNumRegisters = DEFAULT_NUM_REGISTERS;
+    private static final String IN_MEMORY_SOURCE_NAME = "<source>";
+    private static final String METRICS_EXTENSION = ".metrics";
+
+    private final Path filepath;
+    private final CompilerOptions options;
+    private final CompilationStats stats;
+    private String generatedCode;
+    private byte[] generatedClassFile;
+    private CounterMap counterMap;
+
+    private PrintStream out = System.out;
+    private PrintStream err = System.err;
 
-    private Parser parser;
     private SymbolTables symbolTables;
     private SymbolTablesGenerator symbolTablesGenerator;
     private SemanticAnalyser semanticAnalyser;
@@ -30,89 +48,350 @@ public class jmm {
     private DataFlowAnalyser dataFlowAnalyser;
 
     public static void main(String[] args) throws Exception {
-        if (args.length < 1 || args.length > 4) {
-            System.err.println("Usage: java main.jmm [-d] [-r=<num>] [-o] <input_file.jmm>");
-            return;
-        }
+        if (!jmm.run(args, Paths.get(""), System.out, System.err))
+            throw new Exception("Compilation failed");
+    }
 
-        jmm compiler = new jmm(args[args.length - 1]);
+    // Input paths and the output directory are resolved against the given working directory
+    public static boolean run(String[] args, Path workingDirectory, PrintStream out, PrintStream err) throws Exception {
+        CompilerOptions options = new CompilerOptions();
+        List<Path> inputs = new ArrayList<>();
 
         for (String s : args) {
-            if (s.equals(jmm.DEBUG_FLAG))
-                compiler.setDebugMode(false);
-            else if (s.equals(jmm.OPTIMIZATION_FLAG))
-                compiler.setOptimizationMode(true);
-            else if (s.matches(jmm.REGISTERS_FLAG + "=\\d+"))
-                compiler.setMaxNumRegisters(Integer.parseInt(s.substring(3)));
+            if (!options.parseFlag(s))
+                inputs.add(workingDirectory.resolve(s));
+        }
+
+        if (inputs.isEmpty()) {
+            err.println("Usage: java main.jmm " + CompilerOptions.USAGE);
+            return false;
+        }
+
+        options.setOutputDirectory(workingDirectory.resolve(options.getOutputDirectory()));
+        if (options.getCacheDirectory() != null)
+            options.setCacheDirectory(workingDirectory.resolve(options.getCacheDirectory()));
+        if (options.getStatsFile() != null)
+            options.setStatsFile(workingDirectory.resolve(options.getStatsFile()));
+        if (options.getMetricsDirectory() != null)
+            options.setMetricsDirectory(workingDirectory.resolve(options.getMetricsDirectory()));
+
+        // Single file: keep the original behaviour of failing with an exception
+        if (inputs.size() == 1 && !Files.isDirectory(inputs.get(0))) {
+            jmm compiler = new jmm(inputs.get(0), options);
+            compiler.setOutput(out, err);
+            compiler.compileFile();
+            return true;
+        }
+
+        BatchCompiler batchCompiler = new BatchCompiler(options);
+        batchCompiler.setOutput(out, err);
+        return batchCompiler.compile(BatchCompiler.collectFiles(inputs));
+    }
+
+    // Compiles source code without touching the disk; safe to call concurrently
+    public static CompilationResult compile(String source, CompilerOptions options) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        PrintStream stream = new PrintStream(buffer, true);
+
+        jmm compiler = new jmm(null, options);
+        compiler.setOutput(stream, stream);
+        CompilationEvent event = new CompilationEvent();
+        event.begin();
+
+        boolean success = true;
+        try {
+            compiler.compileSource(source, true);
+        } catch (Exception e) {
+            if (e.getMessage() != null)
+                stream.println(e.getMessage());
+            success = false;
         }
+        compiler.stats.abortPhase();
+        compiler.stats.setSuccess(success);
+        commitEvent(event, compiler.stats);
+
+        stream.flush();
+        return new CompilationResult(success, compiler.symbolTables == null ? null : compiler.symbolTables.getClassName(),
+                compiler.generatedCode, compiler.generatedClassFile, buffer.toString(), compiler.stats,
+                compiler.counterMap);
+    }
+
+    public static CompilationResult compile(Reader reader, CompilerOptions options) throws IOException {
+        StringBuilder source = new StringBuilder();
+        char[] chunk = new char[8192];
+
+        int length;
+        while ((length = reader.read(chunk)) != -1)
+            source.append(chunk, 0, length);
 
-        compiler.compileFile();
+        return compile(source.toString(), options);
     }
 
     public jmm(String pathname) {
-        filepath = Paths.get(pathname);
+        this(Paths.get(pathname), new CompilerOptions());
+    }
+
+    public jmm(Path filepath, CompilerOptions options) {
+        this.filepath = filepath;
+        this.options = options;
+        this.stats = new CompilationStats(filepath == null ? IN_MEMORY_SOURCE_NAME : filepath.toString(), options.isStats());
     }
 
     public void compileFile() throws Exception {
+        CompilationEvent event = new CompilationEvent();
+        event.begin();
+
+        try {
+            this.compileFileWithCache();
+            this.stats.setSuccess(true);
+        } finally {
+            this.stats.abortPhase();
+            commitEvent(event, this.stats);
+            if (this.options.getStatsFile() != null)
+                this.stats.appendTo(this.options.getStatsFile());
+        }
+    }
+
+    private void compileFileWithCache() throws Exception {
+        byte[] source = this.readSource();
+
+        // Unchanged input: reuse the code generated by a previous compilation
+        BuildCache cache = null;
+        String cacheKey = null;
+        if (this.isCacheable()) {
+            cache = new BuildCache(this.options.getCacheDirectory(), this.options.getCacheSize());
+            cacheKey = cache.getKey(source, this.options);
+
+            BuildCache.Entry entry = cache.lookup(cacheKey);
+            if (entry != null) {
+                // What the compilation printed, e.g. the AST in debug mode, is printed again
+                out.print(entry.getOutput());
+                err.print(entry.getErrors());
+
+                Path generatedFile = CodeGenerator.writeFile(this.options.getOutputDirectory(), entry.getFileName(),
+                        file -> Files.write(file, entry.getContent()));
+                out.println(generatedFile + " is up to date");
+                this.stats.setCached(true);
+                return;
+            }
+        }
+
+        if (cache == null) {
+            this.compileSource(new String(source, StandardCharsets.UTF_8), false);
+            return;
+        }
+
+        // The output is kept for the cache entry, and printed once the compilation ends
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ByteArrayOutputStream errors = new ByteArrayOutputStream();
+        PrintStream out = this.out;
+        PrintStream err = this.err;
+        this.setOutput(new PrintStream(output, true, "UTF-8"), new PrintStream(errors, true, "UTF-8"));
+        try {
+            this.compileSource(new String(source, StandardCharsets.UTF_8), false);
+        } finally {
+            this.setOutput(out, err);
+            out.print(output.toString("UTF-8"));
+            err.print(errors.toString("UTF-8"));
+        }
+
+        Path generatedFile = codeGenerator.getFilePath();
+        cache.store(cacheKey, generatedFile.getFileName().toString(), Files.readAllBytes(generatedFile),
+                output.toString("UTF-8"), errors.toString("UTF-8"));
+    }
+
+    // Instrumented builds are not cached, as the cache would not keep their counters file, and neither
+    // are the compilations that report on the phases a cache hit skips
+    private boolean isCacheable() {
+        return this.options.getCacheDirectory() != null && !this.options.isInstrument() && !this.options.isMetrics()
+                && !this.options.isMemory() && !this.options.isThroughput();
+    }
+
+    private void compileSource(String source, boolean inMemory) throws Exception {
         SimpleNode root;
+        String sourceName = this.filepath == null ? IN_MEMORY_SOURCE_NAME : this.filepath.toAbsolutePath().toString();
+
+        MemoryFootprint footprint = this.options.isMemory() ? new MemoryFootprint() : null;
 
         // Parsing
-        this.parser = new Parser(this.createInputStream());
+        this.stats.startPhase(PARSE_PHASE);
+        // Not kept once parsed, so the input buffers and the tokens are released
+        Parser parser = new Parser(new StringReader(source));
+        parser.setOutput(this.out);
+        parser.setSource(source);
         try {
-            root = this.parser.parseProgram(filepath.toString());
+            root = parser.parseProgram(sourceName);
         } catch (Exception e) {
-            System.err.println(e.getMessage());
+            err.println(e.getMessage());
             throw new Exception();
         }
+        this.stats.endPhase();
+        // Counting the nodes walks the whole tree, so it is only done when they are reported
+        if (this.options.isStats() || this.options.isThroughput() || new CompilationEvent().isEnabled()) {
+            this.stats.setCount(CompilationStats.SOURCE_BYTES, utf8Length(source));
+            this.stats.setCount(CompilationStats.TOKENS, parser.getTokenCount());
+            this.stats.setCount(CompilationStats.AST_NODES, root.countNodes());
+        }
+        if (this.options.isThroughput())
+            out.println(this.stats.formatParseThroughput());
+        if (footprint != null)
+            this.stats.setCount(CompilationStats.AST_BYTES, footprint.measure(PARSE_PHASE, root));
 
-        if (this.debugMode)
-            root.dump("");
+        if (this.options.isDebugMode())
+            root.dump("", this.out);
 
+        this.stats.startPhase(SYMBOL_TABLES_PHASE);
         this.symbolTablesGenerator = new SymbolTablesGenerator(root);
         this.symbolTables = this.symbolTablesGenerator.generate();
+        this.stats.setClassName(this.symbolTables.getClassName());
+        this.stats.setCount(CompilationStats.METHODS, this.symbolTables.getMethods().size());
+        this.stats.endPhase();
+        if (footprint != null)
+            this.stats.setCount(CompilationStats.SYMBOL_TABLES_BYTES, footprint.measure(SYMBOL_TABLES_PHASE, this.symbolTables));
 
         // Semantic analysis
-        this.semanticAnalyser = new SemanticAnalyser(this.symbolTables, root, !this.debugMode);
+        this.stats.startPhase(SEMANTIC_PHASE);
+        this.semanticAnalyser = new SemanticAnalyser(this.symbolTables, root, sourceName, source, !this.options.isDebugMode());
+        this.semanticAnalyser.setOutput(this.out, this.err);
+        this.semanticAnalyser.setParallel(this.options.isParallelMethods());
         try {
             this.semanticAnalyser.startAnalyse();
         } catch (Exception e) {
-            System.err.println(e.getMessage());
-            e.printStackTrace();
+            err.println(e.getMessage());
+            e.printStackTrace(err);
             throw new Exception();
         }
+        this.stats.endPhase();
 
         //R-Option and Optimization
-        if (this.maxNumRegisters != DEFAULT_NUM_REGISTERS || this.optimizationMode){
-            this.dataFlowAnalyser = new DataFlowAnalyser(this.symbolTables, this.maxNumRegisters, this.optimizationMode);
+        if (this.options.getMaxNumRegisters() != CompilerOptions.DEFAULT_NUM_REGISTERS || this.options.isOptimizationMode()){
+            this.stats.startPhase(DATAFLOW_PHASE);
+            this.dataFlowAnalyser = new DataFlowAnalyser(this.symbolTables, this.options.getMaxNumRegisters(), this.options.isOptimizationMode());
+            this.dataFlowAnalyser.setParallel(this.options.isParallelMethods());
             this.dataFlowAnalyser.analyse();
+            this.stats.setCount(CompilationStats.CFG_NODES, this.dataFlowAnalyser.getNumCFGNodes());
+            this.stats.setCount(CompilationStats.INTERFERENCE_EDGES, this.dataFlowAnalyser.getNumInterferenceEdges());
+            this.stats.endPhase();
+        }
+
+        this.stats.startPhase(CODEGEN_PHASE);
+        codeGenerator = new CodeGenerator(symbolTables, this.options.getOutputDirectory());
+        codeGenerator.setParallel(this.options.isParallelMethods());
+        ClassMetrics metrics = null;
+        if (this.options.isMetrics()) {
+            metrics = new ClassMetrics(this.symbolTables.getClassName());
+            codeGenerator.setMetrics(metrics);
+        }
+        CounterMap counterMap = null;
+        if (this.options.isInstrument()) {
+            counterMap = new CounterMap();
+            codeGenerator.setCounterMap(counterMap);
+        }
+        codeGenerator.setFootprint(footprint);
+        if (this.options.isClassBackend()) {
+            if (inMemory)
+                this.generatedClassFile = codeGenerator.generateBytecode();
+            else
+                codeGenerator.generateClassFile();
+        } else if (this.options.isJasminClassBackend()) {
+            if (inMemory) {
+                this.generatedCode = codeGenerator.generateCode();
+                this.generatedClassFile = codeGenerator.assemble(this.generatedCode);
+            } else
+                codeGenerator.assembleClassFile();
+        } else if (inMemory)
+            this.generatedCode = codeGenerator.generateCode();
+        else
+            codeGenerator.generate();
+        this.stats.endPhase();
+
+        if (footprint != null) {
+            this.stats.setCount(CompilationStats.CODEGEN_BYTES, footprint.getTotal(CODEGEN_PHASE));
+            out.println("Estimated memory retained by the compilation of " + this.symbolTables.getClassName() + ":");
+            out.print(footprint.format());
         }
+        if (metrics != null)
+            this.reportMetrics(metrics);
+        if (counterMap != null && !inMemory)
+            counterMap.write(this.options.getOutputDirectory().resolve(this.symbolTables.getClassName() + CounterMap.EXTENSION));
+        this.counterMap = counterMap;
+    }
+
+    // Prints the metrics and compares them with the baseline of the class, which is created if missing
+    private void reportMetrics(ClassMetrics metrics) throws IOException {
+        out.print(metrics.format());
 
-        codeGenerator = new CodeGenerator(symbolTables);
-        codeGenerator.generate();
+        if (this.options.getMetricsDirectory() == null)
+            return;
+
+        Path baseline = this.options.getMetricsDirectory().resolve(metrics.getClassName() + METRICS_EXTENSION);
+        if (!Files.exists(baseline)) {
+            Files.createDirectories(this.options.getMetricsDirectory());
+            Files.write(baseline, metrics.format().getBytes(StandardCharsets.UTF_8));
+            out.println("Saved the metrics baseline " + baseline);
+            return;
+        }
+
+        String diff = metrics.diff(ClassMetrics.parse(new String(Files.readAllBytes(baseline), StandardCharsets.UTF_8)));
+        if (diff.isEmpty())
+            out.println("No changes from the metrics baseline " + baseline);
+        else
+            out.print("Changes from the metrics baseline " + baseline + ":\n" + diff);
     }
 
-    private InputStream createInputStream() {
-        InputStream input;
+    private static long utf8Length(String source) {
+        long length = 0;
+        for (int i = 0; i < source.length(); i++) {
+            char c = source.charAt(i);
+
+            if (c < 0x80)
+                length++;
+            else if (c < 0x800)
+                length += 2;
+            else if (Character.isHighSurrogate(c)) {
+                length += 4;
+                i++;
+            } else
+                length += 3;
+        }
 
+        return length;
+    }
+
+    private static void commitEvent(CompilationEvent event, CompilationStats stats) {
+        if (!event.shouldCommit())
+            return;
+
+        event.source = stats.getSourceName();
+        event.className = stats.getClassName();
+        event.nodeCount = stats.getCounts().getOrDefault(CompilationStats.AST_NODES, 0L);
+        event.outcome = stats.isCached() ? CompilerEvent.CACHED : stats.isSuccess() ? CompilerEvent.SUCCESS : CompilerEvent.FAILURE;
+        event.commit();
+    }
+
+    private byte[] readSource() throws Exception {
         try {
-            input = new FileInputStream(filepath.toFile());
-        } catch (FileNotFoundException e) {
-            System.out.println("File not Found.");
-            return null;
+            return Files.readAllBytes(filepath);
+        } catch (IOException e) {
+            out.println("File not Found.");
+            throw new Exception();
         }
+    }
 
-        return input;
+    public void setOutput(PrintStream out, PrintStream err) {
+        this.out = out;
+        this.err = err;
     }
 
     public void setDebugMode(boolean debugMode) {
-        this.debugMode = debugMode;
+        this.options.setDebugMode(debugMode);
     }
 
     public void setOptimizationMode(boolean optimizationMode) {
-        this.optimizationMode = optimizationMode;
+        this.options.setOptimizationMode(optimizationMode);
     }
 
     public void setMaxNumRegisters(int maxNumRegisters) {
-        this.maxNumRegisters = maxNumRegisters;
+        this.options.setMaxNumRegisters(maxNumRegisters);
     }
 }
@@ -0,0 +1,334 @@
+package Bytecode;
+
+import static main.Fixtures.*;
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.lang.reflect.InvocationTargetException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.tools.ToolProvider;
+
+import jasmin.JasminUtils;
+import main.CompilationResult;
+import main.CompilerOptions;
+import main.jmm;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+/*
+ * Class files of each backend, checked against the ones the bundled jasmin.jar assembles from the Jasmin
+ * code of the same program. Jasmin assembled in-process must give the same bytes; the ClassFileEmitter
+ * must give a class that prints the same. Both must print what JasminTest expects, where it has an
+ * expected output.
+ */
+@RunWith(Parameterized.class)
+public class BackendTest {
+
+    private static final String[] BACKENDS = {CompilerOptions.JASMIN_CLASS_BACKEND, CompilerOptions.CLASS_BACKEND};
+    // Key of the classes assembled by running jasmin.jar
+    private static final String JASMIN_JAR = "jasmin.jar";
+
+    private static final String LIBRARIES = "fixtures/libs/compiled";
+    // Libraries of the compilerTests that only exist as sources
+    private static final String[] LIBRARY_SOURCES = {"fixtures/libs/java/ioOwn.java", "fixtures/libs/java/Mall.java"};
+    // Replaces the random numbers of fixtures/libs/compiled, so that every run prints the same
+    private static final String MATH_UTILS = "public class MathUtils {\n"
+            + "    private static int seed;\n"
+            + "    public static int random(int lowerLimit, int upperLimit) {\n"
+            + "        seed = (seed * 1103515245 + 12345) & 0x7fffffff;\n"
+            + "        return lowerLimit + seed % (upperLimit - lowerLimit + 1);\n"
+            + "    }\n"
+            + "}\n";
+
+    // More than 255 locals and constants, so that their instructions need wide and ldc_w
+    private static final int WIDE_LOCALS = 300;
+    private static final int WIDE_CONSTANT = 100000;
+
+    @ClassRule
+    public static TemporaryFolder folder = new TemporaryFolder();
+
+    // Class files of every program, by backend, or JASMIN_JAR, and class name
+    private static final Map<String, Map<String, byte[]>> CLASSES = new HashMap<>();
+    private static Path libraries;
+
+    private final String backend;
+    private final String source;
+    private final String input;
+    private final String expectedOutput;
+
+    public BackendTest(String backend, String name, String source, String input, String expectedOutput) {
+        this.backend = backend;
+        this.source = source;
+        this.input = input;
+        this.expectedOutput = expectedOutput;
+    }
+
+    // Every program with every backend
+    @Parameters(name = "{0} {1}")
+    public static Collection<Object[]> parameters() {
+        List<Object[]> parameters = new ArrayList<>();
+        for (String backend : BACKENDS) {
+            for (Object[] program : programs()) {
+                Object[] parameter = new Object[program.length + 1];
+                parameter[0] = backend;
+                System.arraycopy(program, 0, parameter, 1, program.length);
+                parameters.add(parameter);
+            }
+        }
+
+        return parameters;
+    }
+
+    // Name, source, input and expected output, or null if the output is only compared with jasmin.jar's class
+    private static List<Object[]> programs() {
+        return Arrays.<Object[]>asList(
+                program("FindMaximum.jmm", "", "Result: 28"),
+                program("HelloWorld.jmm", "", "Hello, World!"),
+                program("Lazysort.jmm", "", null),
+                program("Life.jmm", "0\n0\n", null),
+                program("MonteCarloPi.jmm", "-1\n", "Insert number: Result: 0"),
+                program("QuickSort.jmm", "", JasminUtils.getResource("fixtures/public/QuickSort.txt")),
+                program("Simple.jmm", "", "30"),
+                program("TicTacToe.jmm", JasminUtils.getResource("fixtures/public/TicTacToe.input"),
+                        JasminUtils.getResource("fixtures/public/TicTacToe.txt")),
+                program("WhileAndIF.jmm", "", JasminUtils.getResource("fixtures/public/WhileAndIF.txt")),
+                program("compilerTests/arrayStorage.jmm", "5\n0\n1\n2\n3\n4\n4\n", null),
+                program("compilerTests/calculator.jmm", "1\n2\n3\n4\n8\n2\n0\n", null),
+                program("compilerTests/city.jmm", "", null),
+                program("compilerTests/imc100.jmm", "180\n75\n", null),
+                program("compilerTests/priorityqueue.jmm", "2\n30\n2\n20\n3\n1\n0\n", null),
+                new Object[]{"Wide", wideProgram(), "", String.valueOf(WIDE_LOCALS * WIDE_CONSTANT + WIDE_LOCALS * (WIDE_LOCALS - 1) / 2)}
+        );
+    }
+
+    private static Object[] program(String file, String input, String expectedOutput) {
+        return new Object[]{file, JasminUtils.getResource("fixtures/public/" + file), input, expectedOutput};
+    }
+
+    private static String wideProgram() {
+        StringBuilder program = new StringBuilder();
+        program.append("import static io.println(int) void;\n\n");
+        program.append("class Wide {\n");
+        program.append("    public static void main(String[] args) {\n");
+        program.append("        Wide wide;\n");
+        program.append("        wide = new Wide();\n");
+        program.append("        io.println(wide.sum());\n");
+        program.append("    }\n\n");
+        program.append("    public int sum() {\n");
+        for (int i = 0; i < WIDE_LOCALS; i++)
+            program.append("        int l").append(i).append(";\n");
+        program.append("        int sum;\n");
+        for (int i = 0; i < WIDE_LOCALS; i++)
+            program.append("        l").append(i).append(" = ").append(WIDE_CONSTANT + i).append(";\n");
+        program.append("        sum = 0;\n");
+        for (int i = 0; i < WIDE_LOCALS; i++)
+            program.append("        sum = sum + l").append(i).append(";\n");
+        program.append("        return sum;\n");
+        program.append("    }\n");
+        return program.append("}\n").toString();
+    }
+
+    @Test
+    public void testBackend() throws Exception {
+        CompilerOptions options = options();
+        options.setBackend(this.backend);
+
+        CompilationResult result = jmm.compile(this.source, options);
+        assertTrue(result.getDiagnostics(), result.isSuccess());
+
+        // The in-process assembler is Jasmin itself, so only the ClassFileEmitter may lay out the class differently
+        byte[] reference = classes(JASMIN_JAR).get(result.getClassName());
+        if (this.backend.equals(CompilerOptions.JASMIN_CLASS_BACKEND)) {
+            assertNotNull(result.getJasminCode());
+            assertArrayEquals(reference, result.getClassFile());
+        } else
+            assertNull(result.getJasminCode());
+
+        String output = run(this.backend, result.getClassName(), this.input);
+        assertEquals(run(JASMIN_JAR, result.getClassName(), this.input), output);
+
+        if (this.expectedOutput != null)
+            assertEquals(JasminUtils.normalize(this.expectedOutput), JasminUtils.normalize(output));
+    }
+
+    // Runs the main method of a class of the backend, or of jasmin.jar, with the other programs and the libraries
+    // on its classpath, and returns what it printed until it returned or read past its input
+    private static String run(String backend, String className, String input) throws Exception {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        InputStream stdin = System.in;
+        PrintStream stdout = System.out;
+
+        try (URLClassLoader loader = new ProgramLoader(classes(backend), libraries())) {
+            System.setIn(new LineInput(input));
+            System.setOut(new PrintStream(buffer, true, "UTF-8"));
+
+            loader.loadClass(className).getMethod("main", String[].class).invoke(null, (Object) new String[0]);
+        } catch (InvocationTargetException e) {
+            if (!(e.getCause() instanceof EndOfInput))
+                throw e;
+        } finally {
+            System.setIn(stdin);
+            System.setOut(stdout);
+        }
+
+        return buffer.toString("UTF-8");
+    }
+
+    private static synchronized Map<String, byte[]> classes(String backend) throws Exception {
+        Map<String, byte[]> classes = CLASSES.get(backend);
+        if (classes != null)
+            return classes;
+
+        if (backend.equals(JASMIN_JAR))
+            classes = assembleWithJasminJar();
+        else {
+            classes = new HashMap<>();
+            for (Object[] program : programs()) {
+                CompilerOptions options = options();
+                options.setBackend(backend);
+
+                CompilationResult result = jmm.compile((String) program[1], options);
+                assertTrue(result.getDiagnostics(), result.isSuccess());
+                classes.put(result.getClassName(), result.getClassFile());
+            }
+        }
+
+        CLASSES.put(backend, classes);
+        return classes;
+    }
+
+    // Writes the Jasmin code of every program to <Class>.j and assembles them all with java -jar jasmin.jar
+    private static Map<String, byte[]> assembleWithJasminJar() throws Exception {
+        Path sources = folder.newFolder("jasmin").toPath();
+        Path output = folder.newFolder("jasmin-classes").toPath();
+        Path jar = Paths.get(jasmin.Main.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+
+        List<String> command = new ArrayList<>(Arrays.asList(Paths.get(System.getProperty("java.home"), "bin", "java").toString(),
+                "-jar", jar.toString(), "-d", output.toString()));
+        List<String> classNames = new ArrayList<>();
+        for (Object[] program : programs()) {
+            CompilationResult result = jmm.compile((String) program[1], options());
+            assertTrue(result.getDiagnostics(), result.isSuccess());
+
+            Path file = sources.resolve(result.getClassName() + ".j");
+            Files.write(file, result.getJasminCode().getBytes(StandardCharsets.UTF_8));
+            command.add(file.toString());
+            classNames.add(result.getClassName());
+        }
+
+        Process jasmin = new ProcessBuilder(command).redirectErrorStream(true).start();
+        String messages = new String(jasmin.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        assertEquals(messages, 0, jasmin.waitFor());
+
+        Map<String, byte[]> classes = new HashMap<>();
+        for (String className : classNames) {
+            Path classFile = output.resolve(className + ".class");
+            assertTrue(messages, Files.exists(classFile));
+            classes.put(className, Files.readAllBytes(classFile));
+        }
+
+        return classes;
+    }
+
+    private static synchronized URL[] libraries() throws Exception {
+        if (libraries == null) {
+            libraries = folder.newFolder("libs").toPath();
+
+            List<String> arguments = new ArrayList<>(Arrays.asList("-nowarn", "-encoding", "UTF-8", "-d", libraries.toString()));
+            for (String source : LIBRARY_SOURCES)
+                arguments.add(resourcePath(source).toString());
+            Path mathUtils = folder.newFolder("src").toPath().resolve("MathUtils.java");
+            Files.write(mathUtils, MATH_UTILS.getBytes(StandardCharsets.UTF_8));
+            arguments.add(mathUtils.toString());
+
+            ByteArrayOutputStream errors = new ByteArrayOutputStream();
+            assertEquals(errors.toString(), 0, ToolProvider.getSystemJavaCompiler().run(null, null, errors, arguments.toArray(new String[0])));
+        }
+
+        // The replacement of MathUtils comes first
+        return new URL[]{libraries.toUri().toURL(), resourcePath(LIBRARIES).toUri().toURL()};
+    }
+
+    private static Path resourcePath(String resource) throws Exception {
+        URL url = BackendTest.class.getClassLoader().getResource(resource);
+        assertNotNull(resource, url);
+        return Paths.get(url.toURI());
+    }
+
+    // Loads the programs and their libraries together, since the library classes of io have package-private methods
+    private static class ProgramLoader extends URLClassLoader {
+        private final Map<String, byte[]> programs;
+
+        ProgramLoader(Map<String, byte[]> programs, URL[] libraries) {
+            super(libraries, ClassLoader.getPlatformClassLoader());
+            this.programs = programs;
+        }
+
+        @Override
+        protected Class<?> findClass(String name) throws ClassNotFoundException {
+            byte[] classFile = this.programs.get(name);
+            if (classFile != null)
+                return defineClass(name, classFile, 0, classFile.length);
+            return super.findClass(name);
+        }
+    }
+
+    // Gives one line per read, as typed, so that each new Scanner or BufferedReader of the libraries
+    // reads only its own line. The end of the input is read once; reading past it stops the program.
+    private static class LineInput extends InputStream {
+        private final byte[] input;
+        private int position;
+        private boolean ended;
+
+        LineInput(String input) {
+            this.input = input.getBytes(StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public int read() {
+            byte[] next = new byte[1];
+            return this.read(next, 0, 1) < 0 ? -1 : next[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (this.position == this.input.length) {
+                if (this.ended)
+                    throw new EndOfInput();
+                this.ended = true;
+                return -1;
+            }
+
+            int end = this.position;
+            while (end < this.input.length && end - this.position < length && this.input[end++] != '\n')
+                ;
+
+            System.arraycopy(this.input, this.position, bytes, offset, end - this.position);
+            int read = end - this.position;
+            this.position = end;
+            return read;
+        }
+    }
+
+    private static class EndOfInput extends RuntimeException {
+    }
+}
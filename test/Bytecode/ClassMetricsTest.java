@@ -0,0 +1,68 @@
+package Bytecode;
+
+import static main.Fixtures.*;
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import main.CompilationResult;
+import main.CompilerOptions;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/*
+ * Metrics of the generated methods and their difference with a baseline.
+ */
+public class ClassMetricsTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testMetrics() throws IOException {
+        CompilerOptions options = options();
+        options.setMetrics(true);
+
+        CompilationResult result = compile("fixtures/public/QuickSort.jmm", options);
+        String report = result.getDiagnostics().substring(result.getDiagnostics().indexOf("QuickSort "));
+        ClassMetrics metrics = ClassMetrics.parse(report);
+
+        assertEquals(Arrays.asList("<init>()V", "main([Ljava/lang/String;)V", "printL([I)Z", "quicksort([I)Z", "quicksort([III)Z", "partition([III)I"),
+                new ArrayList<>(metrics.getMethods().keySet()));
+        assertEquals(report, metrics.format());
+        assertEquals("", metrics.diff(ClassMetrics.parse(report)));
+
+        ClassMetrics.MethodMetrics constructor = metrics.getMethods().get("<init>()V");
+        assertEquals(3, constructor.getInstructions());
+        assertEquals(5, constructor.getBytes());
+        assertEquals(0, constructor.getBranches());
+
+        // A baseline where the constructor was one instruction and one byte longer
+        String constructorLine = report.split("\n")[1];
+        String baseline = report.replace(constructorLine, constructorLine.replaceFirst(" 3(?<gap> +)5 ", " 4${gap}6 "));
+        assertEquals("  <init>()V: instructions 4 -> 3 (-1), bytes 6 -> 5 (-1)\n  total: instructions "
+                        + (metrics.getTotal().getInstructions() + 1) + " -> " + metrics.getTotal().getInstructions() + " (-1), bytes "
+                        + (metrics.getTotal().getBytes() + 1) + " -> " + metrics.getTotal().getBytes() + " (-1)\n",
+                metrics.diff(ClassMetrics.parse(baseline)));
+    }
+
+    // The report comes from the code generator, so the cache is not used
+    @Test
+    public void testMetricsAreNotCached() throws Exception {
+        Path source = copy("fixtures/public/QuickSort.jmm", this.folder.getRoot().toPath());
+
+        CompilerOptions options = options();
+        options.setMetrics(true);
+        options.setOutputDirectory(this.folder.getRoot().toPath().resolve("out"));
+        options.setCacheDirectory(this.folder.getRoot().toPath().resolve("cache"));
+
+        compileFile(source, options);
+        String output = compileFile(source, options);
+        assertFalse(output.contains("is up to date"));
+        assertTrue(output.contains("\n<init>()V "));
+    }
+}
@@ -0,0 +1,59 @@
+package DataFlow;
+
+import static main.Fixtures.*;
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+
+import main.CompilationResult;
+import main.CompilerOptions;
+import org.junit.Test;
+
+/*
+ * Registers allocated with -r, for each method concurrently.
+ */
+public class RegisterAllocationTest {
+
+    @Test
+    public void testParallelRegisterAllocationMatchesSequential() throws IOException {
+        for (String fixture : FIXTURES) {
+            CompilerOptions sequential = options();
+            sequential.setMaxNumRegisters(8);
+            sequential.setParallelMethods(false);
+
+            CompilerOptions parallel = new CompilerOptions(sequential);
+            parallel.setParallelMethods(true);
+
+            CompilationResult expected = compile(fixture, sequential);
+            CompilationResult result = compile(fixture, parallel);
+
+            assertEquals(fixture, expected.isSuccess(), result.isSuccess());
+            assertEquals(fixture, expected.getJasminCode(), result.getJasminCode());
+        }
+    }
+
+    @Test
+    public void testAllocatedRegistersVerify() throws Exception {
+        // Simple.main needs 3 registers: its locals interfere, and args stays in its own register
+        CompilerOptions options = options();
+        options.setBackend(CompilerOptions.CLASS_BACKEND);
+        options.setMaxNumRegisters(3);
+
+        CompilationResult result = compile("fixtures/public/Simple.jmm", options);
+
+        assertTrue(result.isSuccess());
+        assertSimpleClass(result.getClassFile());
+    }
+
+    @Test
+    public void testRegisterAllocationReportsEveryMethod() throws IOException {
+        CompilerOptions options = options();
+        options.setMaxNumRegisters(1);
+
+        CompilationResult result = compile("fixtures/public/QuickSort.jmm", options);
+
+        assertFalse(result.isSuccess());
+        assertTrue(result.getDiagnostics().contains("Method quicksort requires more than 1 registers."));
+        assertTrue(result.getDiagnostics().contains("Method partition requires more than 1 registers."));
+    }
+}
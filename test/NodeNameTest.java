@@ -0,0 +1,70 @@
+import static org.junit.Assert.*;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import Types.NodeName;
+import org.junit.Test;
+import parser.ParserTreeConstants;
+
+public class NodeNameTest {
+
+    private static final List<String> STATEMENTS = Arrays.asList("DotMethod", "Assignment", "VarDeclaration", "If", "While", "Return");
+    private static final List<String> EXPRESSIONS = Arrays.asList("DotMethod", "Identifier", "Int", "Boolean", "New", "This",
+            "ArrayAccess", "Add", "Sub", "Mul", "Div", "Less", "And", "Not");
+    private static final List<String> DECLARATIONS = Arrays.asList("Import", "Static", "ClassName", "MethodName", "ArgType",
+            "ReturnType", "Identifier", "Extends", "VarDeclaration", "Method", "Args", "MethodBody");
+    // Only reached through their parent nodes
+    private static final List<String> PARTS = Arrays.asList("Start", "void", "Class", "Type", "Arg", "ArraySize", "Length",
+            "MethodCall", "Block", "IfBlock", "Else");
+
+    // Every kind of node of the grammar has a constant of the same name and id
+    @Test
+    public void testEveryNodeKindHasConstant() throws Exception {
+        Map<String, Integer> constants = new HashMap<>();
+        for (Field field : NodeName.class.getFields())
+            constants.put(field.getName(), field.getInt(null));
+
+        assertEquals(ParserTreeConstants.jjtNodeName.length, constants.size());
+        for (int id = 0; id < ParserTreeConstants.jjtNodeName.length; id++) {
+            String name = ParserTreeConstants.jjtNodeName[id].toUpperCase();
+            assertEquals(name, Integer.valueOf(id), constants.get(name));
+        }
+    }
+
+    // A kind added to the grammar has to be placed in one of the lists, and so handled by the passes below
+    @Test
+    public void testEveryNodeKindIsClassified() {
+        for (String name : ParserTreeConstants.jjtNodeName)
+            assertTrue(name, STATEMENTS.contains(name) || EXPRESSIONS.contains(name) || DECLARATIONS.contains(name) || PARTS.contains(name));
+    }
+
+    @Test
+    public void testEveryPassHandlesItsNodeKinds() throws Exception {
+        assertHandles("main.SymbolTablesGenerator", DECLARATIONS);
+        assertHandles("main.SemanticAnalyser$StatementAnalyser", STATEMENTS);
+        assertHandles("main.SemanticAnalyser$ExpressionAnalyser", EXPRESSIONS);
+        assertHandles("main.CodeGenerator$ExpressionGenerator", EXPRESSIONS);
+
+        // Declarations generate no code
+        List<String> statements = new ArrayList<>(STATEMENTS);
+        statements.remove("VarDeclaration");
+        assertHandles("main.CodeGenerator$StatementGenerator", statements);
+    }
+
+    private static void assertHandles(String pass, List<String> kinds) throws Exception {
+        Class<?> visitor = Class.forName(pass);
+
+        for (String kind : kinds) {
+            try {
+                visitor.getDeclaredMethod("visit", Class.forName("parser.AST" + kind), Object.class);
+            } catch (NoSuchMethodException e) {
+                fail(pass + " does not handle " + kind);
+            }
+        }
+    }
+}
@@ -2,9 +2,15 @@ import static org.junit.Assert.*;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.StringReader;
 import java.lang.reflect.Method;
 
 import org.junit.Test;
+import parser.ASTClass;
+import parser.Parser;
+import parser.SimpleNode;
 
 public class ParserTest {
 
@@ -209,4 +215,51 @@ public class ParserTest {
         test("fixtures/public/compilerTests/city.jmm", false);
     }
 
+    // The nodes keep the positions of their tokens, and share the image of each identifier
+    @Test
+    public void testTreeWithoutTokens() throws Exception {
+        String source = "class A {\n    int a;\n    public int f() {\n        a = a;\n        return a;\n    }\n}\n";
+        Parser parser = new Parser(new StringReader(source));
+        parser.setOutput(new PrintStream(OutputStream.nullOutputStream()));
+        SimpleNode root = parser.parseProgram("A.jmm");
+
+        assertEquals(21, parser.getTokenCount());
+
+        SimpleNode field = root.getChild(0).getChild(1);
+        assertEquals(2, field.getBeginLine());
+        assertEquals(5, field.getBeginColumn());
+        assertEquals(10, field.getEndColumn());
+
+        SimpleNode assignment = root.getChild(0).getChild(2).getChild(2).getChild(0);
+        assertSame(field.getChild(1).jjtGetVal(), assignment.getChild(0).jjtGetVal());
+        assertSame(field.getChild(1).jjtGetVal(), assignment.getChild(1).jjtGetVal());
+    }
+
+    // The passes get a new view of a node each time they reach it, which reads and writes the same arrays
+    @Test
+    public void testCompactTree() throws Exception {
+        String source = "class A {\n    int a;\n    public int f() {\n        a = a;\n        return a;\n    }\n}\n";
+        Parser parser = new Parser(new StringReader(source));
+        parser.setOutput(new PrintStream(OutputStream.nullOutputStream()));
+        SimpleNode root = parser.parseProgram("A.jmm");
+
+        assertEquals(15, root.countNodes());
+        assertTrue(root.getChild(0) instanceof ASTClass);
+        assertNotSame(root.getChild(0), root.getChild(0));
+        assertEquals(root.getChild(0), root.getChild(0));
+        assertEquals(root.getChild(0).hashCode(), root.getChild(0).hashCode());
+        assertEquals(root, root.getChild(0).getParent());
+        assertNull(root.getParent());
+
+        SimpleNode assignment = root.getChild(0).getChild(2).getChild(2).getChild(0);
+        assertEquals(2, assignment.jjtGetNumChildren());
+        assertEquals(2, assignment.jjtGetChildren().length);
+        assertNull(assignment.getChild(0).jjtGetChildren());
+        assertNotEquals(assignment.getChild(0), assignment.getChild(1));
+
+        assignment.getChild(1).setType("int");
+        assertEquals("int", root.getChild(0).getChild(2).getChild(2).getChild(0).getChild(1).getType());
+        assertNull(assignment.getChild(0).getType());
+    }
+
 }
@@ -0,0 +1,131 @@
+package Profile;
+
+import static main.Fixtures.*;
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import main.CompilationResult;
+import main.CompilerOptions;
+import main.jmm;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/*
+ * Counters of the calls, blocks and branches run by instrumented classes, and the report of a profile.
+ */
+public class InstrumentationTest {
+
+    private static final String SOURCE = "class Counted {\n"
+            + "    public int count(int n) {\n"
+            + "        int i;\n"
+            + "        i = 0;\n"
+            + "        while (i < n) {\n"
+            + "            i = i + 1;\n"
+            + "        }\n"
+            + "        return i;\n"
+            + "    }\n"
+            + "    public static void main(String[] a) {\n"
+            + "    }\n"
+            + "}\n";
+
+    // Counters of count(I)I after count(5) and count(0), in order. The condition is evaluated 5 + 1 times by the
+    // first call and once by the second: if_icmplt turns i < n into a boolean, which ifeq then tests.
+    private static final String[] COUNT_COUNTERS = {
+            "method 2 2",
+            "block 5 7",
+            "taken 5 5",
+            "not-taken 5 2",
+            "block 5 5",
+            "block 5 7",
+            "taken 5 2",
+            "not-taken 5 5",
+            "block 8 2",
+    };
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Before
+    public void setUp() {
+        System.setProperty(Counters.DIRECTORY_PROPERTY, this.folder.getRoot().toString());
+    }
+
+    @After
+    public void tearDown() {
+        Counters.unregister("Counted");
+        System.clearProperty(Counters.DIRECTORY_PROPERTY);
+    }
+
+    private static CompilationResult compile() {
+        CompilerOptions options = options();
+        options.setBackend(CompilerOptions.CLASS_BACKEND);
+        options.setInstrument(true);
+
+        CompilationResult result = jmm.compile(SOURCE, options);
+        assertTrue(result.getDiagnostics(), result.isSuccess());
+
+        return result;
+    }
+
+    @Test
+    public void testInstrument() throws Exception {
+        CompilationResult result = compile();
+
+        Class<?> counted = defineClass("Counted", result.getClassFile());
+        Object instance = counted.getConstructor().newInstance();
+        assertEquals(5, counted.getMethod("count", int.class).invoke(instance, 5));
+        assertEquals(0, counted.getMethod("count", int.class).invoke(instance, 0));
+
+        int[] counts = Counters.getCounters("Counted");
+        List<CounterMap.Counter> counters = result.getCounterMap().getCounters();
+        assertEquals(counters.size(), counts.length);
+
+        List<String> countCounters = new ArrayList<>();
+        for (int i = 0; i < counts.length; i++) {
+            CounterMap.Counter counter = counters.get(i);
+            if (counter.getMethod().equals("count(I)I"))
+                countCounters.add(counter.getKind() + " " + counter.getLine() + " " + counts[i]);
+        }
+        assertEquals(Arrays.asList(COUNT_COUNTERS), countCounters);
+
+        // The profile is written to the directory of the property, one count per counter
+        Counters.writeProfiles();
+        long[] profile = ProfileReport.readProfile(this.folder.getRoot().toPath().resolve("Counted" + Counters.EXTENSION));
+        assertEquals(counts.length, profile.length);
+        for (int i = 0; i < counts.length; i++)
+            assertEquals(counts[i], profile[i]);
+    }
+
+    @Test
+    public void testProfileReport() throws Exception {
+        CompilationResult result = compile();
+
+        Path counters = this.folder.getRoot().toPath().resolve("Counted" + CounterMap.EXTENSION);
+        result.getCounterMap().write(counters);
+        Path profile = this.folder.getRoot().toPath().resolve("Counted" + Counters.EXTENSION);
+        Files.write(profile, "1\n2\n7\n5\n2\n5\n7\n2\n5\n2\n0\n".getBytes(StandardCharsets.UTF_8));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new ProfileReport(Arrays.asList(SOURCE.split("\n")), CounterMap.read(counters), ProfileReport.readProfile(profile))
+                .print(new PrintStream(out, true, "UTF-8"));
+        String report = out.toString("UTF-8");
+
+        assertTrue(report.contains(String.format("%12d  %s%n", 2, "count(I)I")));
+        // Blocks, taken and not taken of each line; the blocks of a method include its calls
+        assertTrue(report.contains(String.format("%12d %12d %12d  %s%n", 2, 0, 0, "2:     public int count(int n) {")));
+        assertTrue(report.contains(String.format("%12d %12d %12d  %s%n", 19, 7, 7, "5:         while (i < n) {")));
+        assertTrue(report.contains(String.format("%12d %12d %12d  %s%n", 2, 0, 0, "8:         return i;")));
+        assertTrue(report.contains(String.format("%12s %12s %12s  %s%n", "", "", "", "6:             i = i + 1;")));
+    }
+}
@@ -0,0 +1,62 @@
+package events;
+
+import static main.Fixtures.*;
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import main.CompilerOptions;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import main.jmm;
+import org.junit.Test;
+
+/*
+ * Flight Recorder events of the compilation of a file, of its phases and of its methods.
+ */
+public class CompilerEventTest {
+
+    @Test
+    public void testFlightRecorderEvents() throws IOException {
+        CompilerOptions options = options();
+        options.setMaxNumRegisters(1);
+
+        List<RecordedEvent> events;
+        Path recordingFile = Files.createTempFile("jmm", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("jmm.Compilation");
+            recording.enable("jmm.Phase");
+            recording.enable("jmm.Method");
+            recording.start();
+            compile("fixtures/public/QuickSort.jmm", options);
+            recording.stop();
+            recording.dump(recordingFile);
+            events = RecordingFile.readAllEvents(recordingFile);
+        } finally {
+            Files.deleteIfExists(recordingFile);
+        }
+
+        List<RecordedEvent> compilations = events.stream().filter(event -> event.getEventType().getName().equals("jmm.Compilation"))
+                .collect(Collectors.toList());
+        assertEquals(1, compilations.size());
+        assertEquals("QuickSort", compilations.get(0).getString("className"));
+        assertEquals("failure", compilations.get(0).getString("outcome"));
+        assertTrue(compilations.get(0).getLong("nodeCount") > 0);
+
+        // Register allocation fails, so code generation never starts
+        List<String> phases = events.stream().filter(event -> event.getEventType().getName().equals("jmm.Phase"))
+                .map(event -> event.getString("phase") + " " + event.getString("outcome")).collect(Collectors.toList());
+        assertEquals(Arrays.asList("parse success", "symbolTables success", "semantic success", "dataflow failure"), phases);
+
+        List<String> methods = events.stream().filter(event -> event.getEventType().getName().equals("jmm.Method"))
+                .map(event -> event.getString("methodName") + " " + event.getString("outcome")).sorted().collect(Collectors.toList());
+        assertEquals(Arrays.asList("main failure", "partition failure", "printL failure", "quicksort failure", "quicksort success"),
+                methods);
+    }
+}
@@ -0,0 +1,103 @@
+package main;
+
+import static main.Fixtures.*;
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/*
+ * Compilation of several files on a pool of threads.
+ */
+public class BatchCompilerTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    private final ByteArrayOutputStream err = new ByteArrayOutputStream();
+    private List<Path> files;
+
+    @Before
+    public void setUp() throws Exception {
+        this.files = new ArrayList<>();
+        for (String fixture : FIXTURES)
+            this.files.add(copy(fixture, this.folder.getRoot().toPath()));
+    }
+
+    // Every file is reported in input order, whichever finished first
+    @Test
+    public void testOutputInInputOrder() throws Exception {
+        assertTrue(this.compile(4, this.files));
+
+        String output = this.out.toString("UTF-8");
+        int position = -1;
+        for (Path file : this.files) {
+            int next = output.indexOf(file + ": compiled\n");
+            assertTrue(file.toString(), next > position);
+            position = next;
+        }
+        assertTrue(output.endsWith(this.files.size() + " files compiled, 0 failed\n"));
+        assertEquals("", this.err.toString("UTF-8"));
+    }
+
+    @Test
+    public void testFailedFile() throws Exception {
+        Path failing = this.folder.getRoot().toPath().resolve("Failing.jmm");
+        Files.write(failing, "class Failing {".getBytes(StandardCharsets.UTF_8));
+
+        List<Path> files = new ArrayList<>(this.files);
+        files.add(1, failing);
+
+        assertFalse(this.compile(4, files));
+        assertTrue(this.err.toString("UTF-8").endsWith(failing + ": failed\n"));
+        assertTrue(this.out.toString("UTF-8").endsWith(this.files.size() + 1 + " files compiled, 1 failed\n"));
+
+        // The other files are still compiled
+        for (Path file : this.files)
+            assertTrue(Files.exists(this.folder.getRoot().toPath().resolve("out").resolve(className(file) + ".j")));
+    }
+
+    @Test
+    public void testNumThreads() throws Exception {
+        CompilerOptions options = new CompilerOptions();
+        assertTrue(options.getNumThreads() >= 1);
+        assertTrue(options.parseFlag("-t=3"));
+        assertEquals(3, options.getNumThreads());
+        assertFalse(options.parseFlag("-t=0"));
+        assertEquals(3, options.getNumThreads());
+
+        // One thread, or more threads than files, give the same output
+        assertTrue(this.compile(1, this.files));
+        String sequential = this.out.toString("UTF-8");
+
+        this.out.reset();
+        assertTrue(this.compile(this.files.size() * 2, this.files));
+        assertEquals(sequential, this.out.toString("UTF-8"));
+    }
+
+    private boolean compile(int numThreads, List<Path> files) throws Exception {
+        CompilerOptions options = options();
+        options.setNumThreads(numThreads);
+        options.setOutputDirectory(this.folder.getRoot().toPath().resolve("out"));
+
+        BatchCompiler compiler = new BatchCompiler(options);
+        compiler.setOutput(new PrintStream(this.out, true, "UTF-8"), new PrintStream(this.err, true, "UTF-8"));
+        return compiler.compile(files);
+    }
+
+    private static String className(Path file) {
+        String name = file.getFileName().toString();
+        return name.substring(0, name.length() - ".jmm".length());
+    }
+}
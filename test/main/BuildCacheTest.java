@@ -0,0 +1,114 @@
+package main;
+
+import static main.Fixtures.*;
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.stream.Stream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/*
+ * Keys, hits and misses, and eviction of the build cache.
+ */
+public class BuildCacheTest {
+
+    private static final byte[] SOURCE = "class A {}".getBytes(StandardCharsets.UTF_8);
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testHitAndMiss() throws Exception {
+        BuildCache cache = new BuildCache(this.folder.getRoot().toPath(), 1024 * 1024);
+        String key = cache.getKey(SOURCE, options());
+
+        assertNull(cache.lookup(key));
+
+        byte[] content = {0, '\n', 1, 2};
+        cache.store(key, "A.class", content, "Start\n  Class \u00e9\n", "");
+
+        BuildCache.Entry entry = cache.lookup(key);
+        assertNotNull(entry);
+        assertEquals("A.class", entry.getFileName());
+        assertEquals("Start\n  Class \u00e9\n", entry.getOutput());
+        assertEquals("", entry.getErrors());
+        assertArrayEquals(content, entry.getContent());
+
+        assertNull(cache.lookup(cache.getKey("class B {}".getBytes(StandardCharsets.UTF_8), options())));
+    }
+
+    @Test
+    public void testKeyDependsOnOptions() throws Exception {
+        BuildCache cache = new BuildCache(this.folder.getRoot().toPath(), 1024 * 1024);
+        String key = cache.getKey(SOURCE, options());
+
+        assertEquals(key, cache.getKey(SOURCE, options()));
+
+        CompilerOptions registers = options();
+        registers.setMaxNumRegisters(4);
+        assertNotEquals(key, cache.getKey(SOURCE, registers));
+
+        CompilerOptions optimization = options();
+        optimization.setOptimizationMode(true);
+        assertNotEquals(key, cache.getKey(SOURCE, optimization));
+
+        CompilerOptions backend = options();
+        backend.setBackend(CompilerOptions.CLASS_BACKEND);
+        assertNotEquals(key, cache.getKey(SOURCE, backend));
+    }
+
+    @Test
+    public void testLeastRecentlyUsedIsEvicted() throws Exception {
+        Path directory = this.folder.getRoot().toPath();
+        BuildCache cache = new BuildCache(directory, 250);
+
+        String first = cache.getKey("class A {}".getBytes(StandardCharsets.UTF_8), options());
+        String second = cache.getKey("class B {}".getBytes(StandardCharsets.UTF_8), options());
+        String third = cache.getKey("class C {}".getBytes(StandardCharsets.UTF_8), options());
+
+        cache.store(first, "A.j", new byte[100], "", "");
+        cache.store(second, "B.j", new byte[100], "", "");
+        setLastModified(directory, first, 1000);
+        setLastModified(directory, second, 2000);
+
+        // Using the first entry makes the second one the least recently used
+        assertNotNull(cache.lookup(first));
+        cache.store(third, "C.j", new byte[100], "", "");
+
+        assertNotNull(cache.lookup(first));
+        assertNull(cache.lookup(second));
+        assertNotNull(cache.lookup(third));
+    }
+
+    // A hit prints what the compilation printed, here the AST of debug mode, before reporting the file up to date
+    @Test
+    public void testHitReplaysOutput() throws Exception {
+        Path source = copy("fixtures/public/Simple.jmm", this.folder.getRoot().toPath());
+
+        CompilerOptions options = options();
+        options.setDebugMode(true);
+        options.setOutputDirectory(this.folder.getRoot().toPath().resolve("out"));
+        options.setCacheDirectory(this.folder.getRoot().toPath().resolve("cache"));
+
+        String output = compileFile(source, options);
+        assertTrue(output.contains("Start"));
+        assertFalse(output.contains("is up to date"));
+
+        assertEquals(output + options.getOutputDirectory().resolve("Simple.j") + " is up to date\n", compileFile(source, options));
+    }
+
+    private static void setLastModified(Path directory, String key, long millis) throws IOException {
+        try (Stream<Path> entries = Files.list(directory)) {
+            for (Path entry : (Iterable<Path>) entries::iterator)
+                if (entry.getFileName().toString().startsWith(key))
+                    Files.setLastModifiedTime(entry, FileTime.fromMillis(millis));
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package main;
+
+import static main.Fixtures.*;
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+/*
+ * Time, CPU and allocations of each phase, and the counts of the compiled program.
+ */
+public class CompilationStatsTest {
+
+    @Test
+    public void testStats() throws IOException {
+        CompilerOptions options = options();
+        options.setMaxNumRegisters(8);
+        options.setStats(true);
+
+        CompilationStats stats = compile("fixtures/public/Life.jmm", options).getStats();
+
+        assertEquals(Arrays.asList(jmm.PARSE_PHASE, jmm.SYMBOL_TABLES_PHASE, jmm.SEMANTIC_PHASE, jmm.DATAFLOW_PHASE, jmm.CODEGEN_PHASE),
+                new ArrayList<>(stats.getPhases().keySet()));
+        for (CompilationStats.Phase phase : stats.getPhases().values())
+            assertTrue(phase.getWallNanos() >= 0);
+
+        assertTrue(stats.getCounts().get(CompilationStats.AST_NODES) > 0);
+        assertTrue(stats.getCounts().get(CompilationStats.CFG_NODES) > 0);
+        assertEquals(Long.valueOf(16), stats.getCounts().get(CompilationStats.METHODS));
+
+        String json = stats.toJson();
+        assertTrue(json.startsWith("{\"file\":\"<source>\",\"success\":true,\"cached\":false,\"phases\":{\"parse\":{"));
+        assertFalse(json.contains("\n"));
+    }
+
+    // Only the wall time is measured unless statistics are requested, which compiles the methods sequentially
+    @Test
+    public void testStatsOnRequest() throws IOException {
+        CompilationStats stats = compile("fixtures/public/Life.jmm").getStats();
+
+        for (CompilationStats.Phase phase : stats.getPhases().values()) {
+            assertEquals(-1, phase.getCpuNanos());
+            assertEquals(-1, phase.getAllocatedBytes());
+        }
+        assertFalse(stats.getCounts().containsKey(CompilationStats.AST_NODES));
+
+        CompilerOptions options = options();
+        assertTrue(options.isParallelMethods());
+        options.setStats(true);
+        assertFalse(options.isParallelMethods());
+    }
+}
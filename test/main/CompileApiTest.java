@@ -0,0 +1,61 @@
+package main;
+
+import static main.Fixtures.*;
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+/*
+ * Compilation in memory with jmm.compile, from one or several threads.
+ */
+public class CompileApiTest {
+
+    @Test
+    public void testCompileInMemory() throws IOException {
+        CompilationResult result = compile("fixtures/public/Life.jmm");
+
+        assertTrue(result.isSuccess());
+        assertEquals("Life", result.getClassName());
+        assertTrue(result.getJasminCode().startsWith(".class public 'Life'"));
+        assertTrue(result.getPhaseTimes().containsKey(jmm.CODEGEN_PHASE));
+    }
+
+    @Test
+    public void testCompileErrors() throws IOException {
+        CompilerOptions options = new CompilerOptions();
+        options.setDebugMode(true);
+
+        CompilationResult result = compile("fixtures/public/fail/semantic/var_undef.jmm", options);
+
+        assertFalse(result.isSuccess());
+        assertNull(result.getJasminCode());
+        assertTrue(result.getDiagnostics().contains("error: "));
+    }
+
+    @Test
+    public void testConcurrentCompilations() throws Exception {
+        List<String> expected = new ArrayList<>();
+        for (String fixture : FIXTURES)
+            expected.add(compile(fixture).getJasminCode());
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<CompilationResult>> results = new ArrayList<>();
+            for (int i = 0; i < 10; i++)
+                for (String fixture : FIXTURES)
+                    results.add(pool.submit(() -> compile(fixture)));
+
+            for (int i = 0; i < results.size(); i++)
+                assertEquals(expected.get(i % FIXTURES.length), results.get(i).get().getJasminCode());
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package main;
+
+import static main.Fixtures.*;
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/*
+ * Requests of CompileClient served by a CompileServer on a free local port.
+ */
+public class CompileServerTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    private final ByteArrayOutputStream err = new ByteArrayOutputStream();
+    private CompileServer server;
+    private Thread serverThread;
+    private int port;
+
+    @Before
+    public void setUp() throws Exception {
+        this.server = new CompileServer(0, 2);
+        this.port = this.server.listen();
+
+        this.serverThread = new Thread(() -> {
+            try {
+                this.server.acceptRequests();
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+        this.serverThread.start();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        this.server.stop();
+        this.serverThread.join();
+    }
+
+    @Test
+    public void testCompile() throws Exception {
+        copy("fixtures/public/Simple.jmm", this.folder.getRoot().toPath());
+
+        assertEquals(CompileServer.STATUS_OK, this.request("-d", "Simple.jmm"));
+        assertTrue(this.err.toString("UTF-8").startsWith("Compiled in "));
+        assertTrue(Files.exists(this.folder.getRoot().toPath().resolve(CompilerOptions.DEFAULT_OUTPUT_DIRECTORY).resolve("Simple.j")));
+    }
+
+    @Test
+    public void testFailedCompile() throws Exception {
+        Path source = this.folder.getRoot().toPath().resolve("Failing.jmm");
+        Files.write(source, "class Failing {\n    public int f() { int a; a = b; return 0; } // \u00e9\n}\n".getBytes("UTF-8"));
+
+        assertEquals(CompileServer.STATUS_FAILED, this.request("Failing.jmm"));
+        assertTrue(this.err.toString("UTF-8").startsWith("Failed in "));
+
+        // The output of the compiler, which quotes the source, is passed on as UTF-8
+        assertTrue(this.out.toString("UTF-8").contains("error: variable b not declared"));
+        assertTrue(this.out.toString("UTF-8").contains("return 0; } // \u00e9\n"));
+    }
+
+    @Test
+    public void testStop() throws Exception {
+        assertEquals(CompileServer.STATUS_OK, this.request(CompileClient.SHUTDOWN_FLAG));
+        assertEquals("Compile server shutting down\n", this.out.toString("UTF-8"));
+
+        this.serverThread.join(10_000);
+        assertFalse(this.serverThread.isAlive());
+    }
+
+    @Test
+    public void testUsage() throws Exception {
+        assertEquals(CompileServer.STATUS_FAILED, this.request());
+        assertTrue(this.err.toString("UTF-8").contains(CompilerOptions.USAGE));
+    }
+
+    private int request(String... args) throws Exception {
+        String[] clientArgs = new String[args.length + 1];
+        clientArgs[0] = CompileServer.PORT_FLAG + "=" + this.port;
+        System.arraycopy(args, 0, clientArgs, 1, args.length);
+
+        this.out.reset();
+        this.err.reset();
+        return CompileClient.run(clientArgs, this.folder.getRoot().toPath(),
+                new PrintStream(this.out, true, "UTF-8"), new PrintStream(this.err, true, "UTF-8"));
+    }
+}
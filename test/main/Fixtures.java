@@ -0,0 +1,95 @@
+package main;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.lang.reflect.Constructor;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/*
+ * Compiles the programs of test/fixtures in memory, for the tests of each part of the compiler.
+ */
+public class Fixtures {
+
+    public static final String[] FIXTURES = {
+            "fixtures/public/FindMaximum.jmm",
+            "fixtures/public/Life.jmm",
+            "fixtures/public/QuickSort.jmm",
+            "fixtures/public/TicTacToe.jmm",
+            "fixtures/public/WhileAndIF.jmm"
+    };
+
+    // Without printing the AST
+    public static CompilerOptions options() {
+        CompilerOptions options = new CompilerOptions();
+        options.setDebugMode(false);
+
+        return options;
+    }
+
+    public static CompilationResult compile(String resource) throws IOException {
+        return compile(resource, options());
+    }
+
+    public static CompilationResult compile(String resource, CompilerOptions options) throws IOException {
+        InputStream stream = Fixtures.class.getClassLoader().getResourceAsStream(resource);
+        assertNotNull(resource, stream);
+
+        try (Reader reader = new InputStreamReader(stream)) {
+            return jmm.compile(reader, options);
+        }
+    }
+
+    // Compiles a file on disk, returning what it printed
+    public static String compileFile(Path source, CompilerOptions options) throws Exception {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        PrintStream stream = new PrintStream(buffer, true, "UTF-8");
+
+        jmm compiler = new jmm(source, options);
+        compiler.setOutput(stream, stream);
+        compiler.compileFile();
+
+        return buffer.toString("UTF-8");
+    }
+
+    // Copies a fixture into the directory, named after its class
+    public static Path copy(String resource, Path directory) throws IOException {
+        Path file = directory.resolve(resource.substring(resource.lastIndexOf('/') + 1));
+        try (InputStream stream = Fixtures.class.getClassLoader().getResourceAsStream(resource)) {
+            assertNotNull(resource, stream);
+            Files.copy(stream, file);
+        }
+
+        return file;
+    }
+
+    public static Class<?> defineClass(String name, byte[] classFile) throws ClassNotFoundException {
+        return new ClassLoader() {
+            @Override
+            protected Class<?> findClass(String className) throws ClassNotFoundException {
+                if (className.equals(name))
+                    return defineClass(className, classFile, 0, classFile.length);
+                return super.findClass(className);
+            }
+        }.loadClass(name);
+    }
+
+    // Loads the class compiled from fixtures/public/Simple.jmm and runs its methods
+    public static void assertSimpleClass(byte[] classFile) throws Exception {
+        Class<?> simple = defineClass("Simple", classFile);
+
+        // The Jasmin backends leave the constructor package-private
+        Constructor<?> constructor = simple.getDeclaredConstructor();
+        constructor.setAccessible(true);
+
+        Object instance = constructor.newInstance();
+        assertEquals(30, simple.getMethod("add", int.class, int.class).invoke(instance, 20, 10));
+        assertEquals(0, simple.getMethod("constInstr").invoke(instance));
+    }
+}
@@ -0,0 +1,77 @@
+package main;
+
+import static main.Fixtures.*;
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import parser.ParserTreeConstants;
+
+/*
+ * Heap retained by the AST, the symbol tables and the generated code.
+ */
+public class MemoryFootprintTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testMemory() throws IOException {
+        CompilerOptions options = options();
+        options.setMemory(true);
+        options.setStats(true);
+
+        CompilationResult result = compile("fixtures/public/Life.jmm", options);
+        Map<String, Long> counts = result.getStats().getCounts();
+
+        // Every node of the AST is retained, and none is counted again in the later phases
+        long astNodes = counts.get(CompilationStats.AST_NODES);
+        assertTrue(counts.get(CompilationStats.AST_BYTES) > 7 * 4 * astNodes);
+        assertTrue(counts.get(CompilationStats.SYMBOL_TABLES_BYTES) > 0);
+        assertTrue(counts.get(CompilationStats.CODEGEN_BYTES) > 0);
+
+        // The nodes are held in the arrays of a CompactTree, which only keeps one empty node of each kind
+        String report = result.getDiagnostics();
+        String astReport = report.substring(0, report.indexOf("symbolTables"));
+        assertTrue(astReport.contains("\n  CompactTree "));
+        Matcher nodeClasses = Pattern.compile("\\n  AST\\w+ +(\\d+) ").matcher(astReport);
+        long nodes = 0;
+        while (nodeClasses.find())
+            nodes += Long.parseLong(nodeClasses.group(1));
+        assertTrue(nodes <= ParserTreeConstants.jjtNodeName.length + 1);
+        assertTrue(report.contains("\n  FunctionDescriptor "));
+
+        // The nodes keep the positions of their tokens, not the tokens themselves
+        assertFalse(report.contains("\n  Token "));
+
+        // The symbol tables only add the views of the method and import nodes they refer to
+        String laterReport = report.substring(report.indexOf("symbolTables"));
+        assertFalse(laterReport.contains("\n  CompactTree "));
+        Matcher views = Pattern.compile("\\n  (AST\\w+) ").matcher(laterReport);
+        while (views.find())
+            assertTrue(views.group(1), views.group(1).equals("ASTMethod") || views.group(1).equals("ASTImport"));
+    }
+
+    // The structures are only built by a full compilation, so the cache is not used
+    @Test
+    public void testMemoryIsNotCached() throws Exception {
+        Path source = copy("fixtures/public/Life.jmm", this.folder.getRoot().toPath());
+
+        CompilerOptions options = options();
+        options.setMemory(true);
+        options.setOutputDirectory(this.folder.getRoot().toPath().resolve("out"));
+        options.setCacheDirectory(this.folder.getRoot().toPath().resolve("cache"));
+
+        compileFile(source, options);
+        String output = compileFile(source, options);
+        assertFalse(output.contains("is up to date"));
+        assertTrue(output.contains("Estimated memory retained by the compilation of Life:"));
+    }
+}
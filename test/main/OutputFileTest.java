@@ -0,0 +1,92 @@
+package main;
+
+import static main.Fixtures.*;
+import static org.junit.Assert.*;
+
+import Bytecode.JasminEmitter;
+
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/*
+ * Streaming of the generated code and atomic writes of the generated files.
+ */
+public class OutputFileTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testAtomicWrite() throws Exception {
+        Path directory = this.folder.getRoot().toPath().resolve("out");
+
+        Path file = CodeGenerator.writeFile(directory, "A.j", temp -> Files.write(temp, "first".getBytes(StandardCharsets.UTF_8)));
+        assertEquals(directory.resolve("A.j"), file);
+        assertEquals("first", new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+
+        // A failed write leaves the previous file in place
+        try {
+            CodeGenerator.writeFile(directory, "A.j", temp -> {
+                Files.write(temp, "partial".getBytes(StandardCharsets.UTF_8));
+                throw new IllegalStateException();
+            });
+            fail();
+        } catch (IllegalStateException e) {
+        }
+        assertEquals("first", new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+
+        CodeGenerator.writeFile(directory, "A.j", temp -> Files.write(temp, "second".getBytes(StandardCharsets.UTF_8)));
+        assertEquals("second", new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+        assertEquals(1, countFiles(directory));
+    }
+
+    @Test
+    public void testCacheHitIsWrittenAtomically() throws Exception {
+        Path source = copy("fixtures/public/Simple.jmm", this.folder.getRoot().toPath());
+
+        CompilerOptions options = options();
+        options.setOutputDirectory(this.folder.getRoot().toPath().resolve("out"));
+        options.setCacheDirectory(this.folder.getRoot().toPath().resolve("cache"));
+
+        assertFalse(compileFile(source, options).contains("is up to date"));
+        Path file = options.getOutputDirectory().resolve("Simple.j");
+        byte[] code = Files.readAllBytes(file);
+
+        Files.delete(file);
+        assertTrue(compileFile(source, options).contains("is up to date"));
+        assertArrayEquals(code, Files.readAllBytes(file));
+        assertEquals(1, countFiles(options.getOutputDirectory()));
+    }
+
+    // The class is written as it is generated; only the current method is held until its limits are known
+    @Test
+    public void testStreamingEmission() {
+        StringWriter writer = new StringWriter();
+        JasminEmitter emitter = new JasminEmitter(writer);
+
+        emitter.beginClass("A", null);
+        emitter.field("a", "I", false);
+        assertTrue(writer.toString().contains(".field public 'a' I\n"));
+
+        emitter.beginMethod("f", "()I", false);
+        emitter.instruction("iconst_1");
+        emitter.instruction("ireturn");
+        assertFalse(writer.toString().contains(".method"));
+
+        emitter.endMethod(1, 1);
+        assertTrue(writer.toString().contains(".method public f()I\n\t.limit stack 1\n\t.limit locals 1\n\n\ticonst_1\n\tireturn\n.end method\n"));
+    }
+
+    private static long countFiles(Path directory) throws Exception {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.count();
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package main;
+
+import static main.Fixtures.*;
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+
+import org.junit.Test;
+
+/*
+ * Methods analysed and generated concurrently give the same errors and code as a sequential compilation.
+ */
+public class ParallelCompilationTest {
+
+    @Test
+    public void testParallelMethodsMatchSequential() throws IOException {
+        for (String backend : new String[]{CompilerOptions.JASMIN_BACKEND, CompilerOptions.CLASS_BACKEND}) {
+            for (String fixture : FIXTURES) {
+                CompilerOptions sequential = options();
+                sequential.setBackend(backend);
+                sequential.setParallelMethods(false);
+
+                CompilerOptions parallel = new CompilerOptions(sequential);
+                parallel.setParallelMethods(true);
+
+                CompilationResult expected = compile(fixture, sequential);
+                CompilationResult result = compile(fixture, parallel);
+
+                assertEquals(fixture, expected.getJasminCode(), result.getJasminCode());
+                assertArrayEquals(fixture, expected.getClassFile(), result.getClassFile());
+            }
+        }
+    }
+
+    @Test
+    public void testParallelDiagnosticsMatchSequential() {
+        // Three errors in each of five methods: more than the limit of errors reported
+        StringBuilder source = new StringBuilder("class Many {\n");
+        for (char method = 'a'; method <= 'e'; method++)
+            source.append("    public int ").append(method).append("() { int x; x = ").append(method).append("1; x = ")
+                    .append(method).append("2; x = ").append(method).append("3; return x; }\n");
+        source.append("    public static void main(String[] args) { }\n}\n");
+
+        CompilerOptions sequential = new CompilerOptions();
+        sequential.setParallelMethods(false);
+        CompilerOptions parallel = new CompilerOptions(sequential);
+        parallel.setParallelMethods(true);
+
+        // Stack traces of the aborted analysis are printed as well, and differ between threads
+        String stackFrames = "(?m)^\\s+at .*\n";
+        String expected = jmm.compile(source.toString(), sequential).getDiagnostics().replaceAll(stackFrames, "");
+        CompilationResult result = jmm.compile(source.toString(), parallel);
+
+        assertFalse(result.isSuccess());
+        assertEquals(expected, result.getDiagnostics().replaceAll(stackFrames, ""));
+        assertEquals(10, result.getDiagnostics().split(" error: ", -1).length - 1);
+    }
+}
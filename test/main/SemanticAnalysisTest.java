@@ -0,0 +1,62 @@
+package main;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+/*
+ * What the semantic analysis leaves for the code generator: the type of each expression, found once,
+ * and the method each call resolves to, found by its signature.
+ */
+public class SemanticAnalysisTest {
+
+    // Each call of the chain used to analyse its receiver again, doubling the time with every call
+    @Test(timeout = 10000)
+    public void testLongCallChain() {
+        StringBuilder chain = new StringBuilder("c");
+        for (int i = 0; i < 60; i++)
+            chain.append(".self()");
+        String source = "class Chain {\n    public Chain self() { return this; }\n"
+                + "    public static void main(String[] args) { Chain c; c = new Chain(); c = " + chain + "; }\n}\n";
+
+        CompilationResult result = jmm.compile(source, new CompilerOptions());
+
+        assertTrue(result.getDiagnostics(), result.isSuccess());
+        assertEquals(61, result.getJasminCode().split("invokevirtual Chain/self\\(\\)'LChain;'", -1).length);
+    }
+
+    @Test
+    public void testCallSites() {
+        String source = "import static io.println(int) void;\nimport Base;\nimport Base.get() int;\n"
+                + "class Derived extends Base {\n    public int twice(int x) { return x + x; }\n"
+                + "    public int run() { int y; y = this.twice(this.get()); io.println(y); return y; }\n"
+                + "    public static void main(String[] args) { }\n}\n";
+
+        CompilationResult result = jmm.compile(source, new CompilerOptions());
+
+        assertTrue(result.getDiagnostics(), result.isSuccess());
+        String code = result.getJasminCode();
+        assertTrue(code.contains("invokespecial Base/get()I"));
+        assertTrue(code.contains("invokevirtual Derived/twice(I)I"));
+        assertTrue(code.contains("invokestatic io/println(I)V"));
+    }
+
+    @Test
+    public void testOverloads() {
+        String source = "import static io.println(int) void;\nimport static io.println(boolean) void;\n"
+                + "class Overloads {\n    public int f(int x) { return x; }\n    public int f(boolean b) { return 0; }\n"
+                + "    public int f(int x, int[] a) { return a[x]; }\n"
+                + "    public int run(int[] a) { io.println(this.f(1) < this.f(true)); io.println(this.f(0, a)); return 0; }\n"
+                + "    public static void main(String[] args) { }\n}\n";
+
+        CompilationResult result = jmm.compile(source, new CompilerOptions());
+
+        assertTrue(result.getDiagnostics(), result.isSuccess());
+        String code = result.getJasminCode();
+        assertTrue(code.contains("invokevirtual Overloads/f(I)I"));
+        assertTrue(code.contains("invokevirtual Overloads/f(Z)I"));
+        assertTrue(code.contains("invokevirtual Overloads/f(I[I)I"));
+        assertTrue(code.contains("invokestatic io/println(Z)V"));
+        assertTrue(code.contains("invokestatic io/println(I)V"));
+    }
+}
@@ -0,0 +1,54 @@
+package main;
+
+import static main.Fixtures.*;
+import static org.junit.Assert.*;
+
+import java.nio.file.Path;
+import java.util.Map;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/*
+ * Speed of the parser, in bytes, tokens and nodes per second.
+ */
+public class ThroughputTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testThroughput() {
+        // A multi-byte character in a comment, which the lexer skips
+        String source = "class Small { // \u00e9\n    public static void main(String[] a) { }\n}\n";
+
+        CompilerOptions options = options();
+        options.setThroughput(true);
+
+        CompilationResult result = jmm.compile(source, options);
+        Map<String, Long> counts = result.getStats().getCounts();
+
+        assertEquals(Long.valueOf(source.length() + 1), counts.get(CompilationStats.SOURCE_BYTES));
+        // class Small { public static void main ( String [ ] a ) { } }
+        assertEquals(Long.valueOf(16), counts.get(CompilationStats.TOKENS));
+        assertTrue(result.getDiagnostics().matches("(?s).*\\nParsed <source>: " + (source.length() + 1)
+                + " bytes, 16 tokens and \\d+ AST nodes in [0-9.]+ ms \\([0-9.]+ MB/s, \\d+ tokens/s, \\d+ nodes/s\\)\n.*"));
+    }
+
+    // Nothing is parsed on a cache hit, so the cache is not used
+    @Test
+    public void testThroughputIsNotCached() throws Exception {
+        Path source = copy("fixtures/public/Life.jmm", this.folder.getRoot().toPath());
+
+        CompilerOptions options = options();
+        options.setThroughput(true);
+        options.setOutputDirectory(this.folder.getRoot().toPath().resolve("out"));
+        options.setCacheDirectory(this.folder.getRoot().toPath().resolve("cache"));
+
+        compileFile(source, options);
+        String output = compileFile(source, options);
+        assertFalse(output.contains("is up to date"));
+        assertTrue(output.contains("Parsed Life.jmm: "));
+    }
+}
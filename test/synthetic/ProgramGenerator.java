@@ -0,0 +1,165 @@
+package synthetic;
+
+/*
+ * Generates valid Java-- programs of any size and shape, for benchmarks and scaling tests.
+ *
+ * The size of the program grows linearly with each setting. Programs without imports (other than
+ * io.println) can also be run: every method calls the next one at most once, and every loop ends.
+ */
+public class ProgramGenerator {
+
+    private static final String[] OPERATORS = {" + ", " - ", " * "};
+
+    private int numMethods = 10;
+    private int numStatements = 10;
+    private int nestingDepth = 1;
+    private int expressionDepth = 2;
+    private int numLocals = 2;
+    private int numImports = 0;
+
+    public void setNumMethods(int numMethods) {
+        this.numMethods = numMethods;
+    }
+
+    // Statements in the body of each method, not counting the nested ones
+    public void setNumStatements(int numStatements) {
+        this.numStatements = numStatements;
+    }
+
+    // Depth of each if and while statement, counting itself
+    public void setNestingDepth(int nestingDepth) {
+        this.nestingDepth = nestingDepth;
+    }
+
+    // Number of binary operators in the expression of each assignment, each nested in the previous one
+    public void setExpressionDepth(int expressionDepth) {
+        this.expressionDepth = expressionDepth;
+    }
+
+    // Extra int locals of each method, on top of the ones every method has
+    public void setNumLocals(int numLocals) {
+        this.numLocals = numLocals;
+    }
+
+    // Locals of each method: this, the two parameters, x, y, array and the extra ones
+    public int getNumMethodLocals() {
+        return 6 + this.numLocals;
+    }
+
+    // Imported static methods of a Library class, called by the generated code
+    public void setNumImports(int numImports) {
+        this.numImports = numImports;
+    }
+
+    public String generate(String className) {
+        StringBuilder program = new StringBuilder();
+
+        program.append("import static io.println(int) void;\n");
+        for (int i = 0; i < this.numImports; i++)
+            program.append("import static Library.f").append(i).append("(int) int;\n");
+
+        program.append("\nclass ").append(className).append(" {\n");
+        program.append("    int field;\n\n");
+
+        program.append("    public static void main(String[] args) {\n");
+        program.append("        ").append(className).append(" program;\n");
+        program.append("        program = new ").append(className).append("();\n");
+        program.append("        io.println(program.m0(1, 2));\n");
+        program.append("    }\n");
+
+        for (int method = 0; method < this.numMethods; method++)
+            this.generateMethod(program, method);
+
+        return program.append("}\n").toString();
+    }
+
+    private void generateMethod(StringBuilder program, int method) {
+        program.append("\n    public int m").append(method).append("(int a, int b) {\n");
+        program.append("        int x;\n");
+        program.append("        int y;\n");
+        program.append("        int[] array;\n");
+        for (int i = 0; i < this.numLocals; i++)
+            program.append("        int l").append(i).append(";\n");
+
+        program.append("        x = a;\n");
+        program.append("        y = b;\n");
+        program.append("        array = new int[10];\n");
+        for (int i = 0; i < this.numLocals; i++)
+            program.append("        l").append(i).append(" = ").append(i).append(";\n");
+
+        for (int statement = 0; statement < this.numStatements; statement++) {
+            String indentation = "        ";
+
+            switch (statement % 4) {
+                case 0:
+                    this.generateAssignment(program, indentation, statement);
+                    break;
+                case 1:
+                    this.generateIf(program, indentation, statement, this.nestingDepth);
+                    break;
+                case 2:
+                    this.generateWhile(program, indentation, statement, this.nestingDepth);
+                    break;
+                default:
+                    this.generateCall(program, indentation, method, statement);
+                    break;
+            }
+        }
+
+        program.append("        return x + y;\n");
+        program.append("    }\n");
+    }
+
+    private void generateAssignment(StringBuilder program, String indentation, int statement) {
+        program.append(indentation).append("x = ");
+        this.generateExpression(program, statement);
+        program.append(";\n");
+    }
+
+    private void generateIf(StringBuilder program, String indentation, int statement, int depth) {
+        program.append(indentation).append("if (x < y && !(a < 0)) {\n");
+        this.generateNested(program, indentation + "    ", statement, depth);
+        program.append(indentation).append("} else {\n");
+        program.append(indentation).append("    array[x - x] = y + array.length;\n");
+        program.append(indentation).append("}\n");
+    }
+
+    // The loop variable is y, which the nested statements do not assign
+    private void generateWhile(StringBuilder program, String indentation, int statement, int depth) {
+        program.append(indentation).append("while (y < 10) {\n");
+        program.append(indentation).append("    y = y + 1;\n");
+        this.generateNested(program, indentation + "    ", statement, depth);
+        program.append(indentation).append("}\n");
+    }
+
+    private void generateNested(StringBuilder program, String indentation, int statement, int depth) {
+        if (depth <= 1)
+            this.generateAssignment(program, indentation, statement);
+        else if (depth % 2 == 0)
+            this.generateWhile(program, indentation, statement, depth - 1);
+        else
+            this.generateIf(program, indentation, statement, depth - 1);
+    }
+
+    private void generateCall(StringBuilder program, String indentation, int method, int statement) {
+        // One call to the next method, so running the program takes linear time
+        if (statement == 3 && method + 1 < this.numMethods)
+            program.append(indentation).append("x = this.m").append(method + 1).append("(x, y);\n");
+        else if (this.numImports > 0)
+            program.append(indentation).append("x = Library.f").append(statement % this.numImports).append("(x);\n");
+        else
+            program.append(indentation).append("field = x + array[0];\n");
+    }
+
+    // Nested to the right, so that evaluating it needs an operand stack as deep as the expression
+    private void generateExpression(StringBuilder program, int statement) {
+        program.append("a");
+
+        for (int i = 0; i < this.expressionDepth; i++) {
+            program.append(OPERATORS[(statement + i) % OPERATORS.length]).append("(");
+            program.append(this.numLocals > 0 ? "l" + ((statement + i) % this.numLocals) : "b");
+        }
+        for (int i = 0; i < this.expressionDepth; i++)
+            program.append(")");
+    }
+}
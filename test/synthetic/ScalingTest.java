@@ -0,0 +1,142 @@
+package synthetic;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import main.CompilationResult;
+import main.CompilationStats;
+import main.CompilerOptions;
+import main.jmm;
+import org.junit.Test;
+
+/*
+ * Grows one dimension of a generated program at a time and checks that the work of each phase per
+ * AST node stays about the same, so that quadratic paths in the compiler show up here. The work is
+ * counted rather than timed: tokens for the parser, CFG nodes and interference edges for register
+ * allocation, and characters of Jasmin for the code generator.
+ */
+public class ScalingTest {
+
+    private static final int GROWTH = 8;
+    // A linear path stays around 1; a quadratic one reaches GROWTH
+    private static final double MAX_SLOWDOWN = 3;
+
+    private static final String GENERATED_CODE = "generatedCode";
+
+    private static ProgramGenerator baseProgram() {
+        ProgramGenerator generator = new ProgramGenerator();
+        generator.setNumMethods(20);
+        generator.setNumStatements(20);
+        generator.setNestingDepth(2);
+        generator.setExpressionDepth(4);
+        generator.setNumLocals(4);
+        generator.setNumImports(2);
+
+        return generator;
+    }
+
+    private static CompilationResult compile(ProgramGenerator generator) {
+        CompilerOptions options = new CompilerOptions();
+        options.setDebugMode(false);
+        options.setParallelMethods(false);
+        options.setStats(true);
+        // One register fewer than the locals of each method, so that every method is allocated
+        options.setMaxNumRegisters(generator.getNumMethodLocals() - 1);
+
+        CompilationResult result = jmm.compile(generator.generate("Synthetic"), options);
+        assertTrue(result.getDiagnostics(), result.isSuccess());
+
+        return result;
+    }
+
+    // Work of each phase per AST node
+    private static Map<String, Double> workPerNode(ProgramGenerator generator) {
+        CompilationResult result = compile(generator);
+        Map<String, Long> counts = result.getStats().getCounts();
+        double nodes = counts.get(CompilationStats.AST_NODES);
+
+        Map<String, Double> work = new LinkedHashMap<>();
+        work.put(CompilationStats.TOKENS, counts.get(CompilationStats.TOKENS) / nodes);
+        work.put(CompilationStats.CFG_NODES, counts.get(CompilationStats.CFG_NODES) / nodes);
+        work.put(CompilationStats.INTERFERENCE_EDGES, counts.get(CompilationStats.INTERFERENCE_EDGES) / nodes);
+        work.put(GENERATED_CODE, result.getJasminCode().length() / nodes);
+
+        return work;
+    }
+
+    private static void assertLinear(String dimension, Consumer<ProgramGenerator> grow, String... quadratic) {
+        Map<String, Double> small = workPerNode(baseProgram());
+
+        ProgramGenerator large = baseProgram();
+        grow.accept(large);
+        Map<String, Double> work = workPerNode(large);
+
+        for (String kind : small.keySet()) {
+            if (Arrays.asList(quadratic).contains(kind))
+                continue;
+
+            double slowdown = work.get(kind) / small.get(kind);
+            assertTrue(dimension + " grew " + GROWTH + " times and each node took " + slowdown + " times as many " + kind,
+                    slowdown < MAX_SLOWDOWN);
+        }
+    }
+
+    @Test
+    public void testGeneratedProgramRuns() throws Exception {
+        ProgramGenerator generator = new ProgramGenerator();
+        CompilerOptions options = new CompilerOptions();
+        options.setDebugMode(false);
+        options.setBackend(CompilerOptions.CLASS_BACKEND);
+
+        CompilationResult result = jmm.compile(generator.generate("Synthetic"), options);
+        assertTrue(result.getDiagnostics(), result.isSuccess());
+
+        byte[] classFile = result.getClassFile();
+        Class<?> synthetic = new ClassLoader() {
+            @Override
+            protected Class<?> findClass(String name) throws ClassNotFoundException {
+                if (name.equals("Synthetic"))
+                    return defineClass(name, classFile, 0, classFile.length);
+                return super.findClass(name);
+            }
+        }.loadClass("Synthetic");
+
+        Object instance = synthetic.getConstructor().newInstance();
+        assertNotNull(synthetic.getMethod("m0", int.class, int.class).invoke(instance, 1, 2));
+    }
+
+    @Test
+    public void testMethodsScaleLinearly() {
+        assertLinear("Methods", generator -> generator.setNumMethods(20 * GROWTH));
+    }
+
+    @Test
+    public void testStatementsScaleLinearly() {
+        assertLinear("Statements", generator -> generator.setNumStatements(20 * GROWTH));
+    }
+
+    @Test
+    public void testNestingScalesLinearly() {
+        assertLinear("Nesting depth", generator -> generator.setNestingDepth(2 * GROWTH));
+    }
+
+    @Test
+    public void testExpressionDepthScalesLinearly() {
+        assertLinear("Expression depth", generator -> generator.setExpressionDepth(4 * GROWTH));
+    }
+
+    // Every local is live through the whole method, so the interference graph grows with the square of the locals
+    @Test
+    public void testLocalsScaleLinearly() {
+        assertLinear("Locals", generator -> generator.setNumLocals(4 * GROWTH), CompilationStats.INTERFERENCE_EDGES);
+    }
+
+    @Test
+    public void testImportsScaleLinearly() {
+        assertLinear("Imports", generator -> generator.setNumImports(2 * GROWTH));
+    }
+}